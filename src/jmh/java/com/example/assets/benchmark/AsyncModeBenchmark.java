@@ -0,0 +1,87 @@
+package com.example.assets.benchmark;
+
+import com.example.assets.app.AdmissionController;
+import com.example.assets.app.config.AsyncConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Uploads handed to the @Async executor by 64 concurrent clients, each
+ * publication blocking for a while on storage and database I/O.
+ * {@code uploads} reports uploads per second, {@code latency} the
+ * distribution (p99 included) from hand-over to published.
+ * The {@code virtual} mode needs a Java 21 runtime.
+ */
+@State(Scope.Benchmark)
+@Threads(64)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class AsyncModeBenchmark {
+
+    @Param({"pool", "virtual"})
+    String mode;
+
+    @Param("64")
+    int maxConcurrency;
+
+    @Param("20")
+    int ioMillis;
+
+    private Executor executor;
+
+    @Setup
+    public void setup() {
+        var admission = new AdmissionController(Long.MAX_VALUE, Integer.MAX_VALUE,
+                Duration.ofMillis(500), Duration.ofSeconds(5), Duration.ofSeconds(5));
+        executor = new AsyncConfig().taskExecutor(mode, maxConcurrency, admission, new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtual) {
+            virtual.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void uploads() {
+        publish();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void latency() {
+        publish();
+    }
+
+    private void publish() {
+        CompletableFuture.runAsync(() -> LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ioMillis)), executor)
+                .join();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.assets.benchmark;
+
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import com.example.assets.infra.persistence.AssetEntity;
+import com.example.assets.infra.persistence.AssetJpaRepository;
+import com.example.assets.infra.persistence.AssetRepositoryAdapter;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Only the persistence slice of the application, on an in-memory H2
+ * database migrated by Flyway: no web layer, no security, no cache.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EntityScan(basePackageClasses = AssetEntity.class)
+@EnableJpaRepositories(basePackageClasses = AssetJpaRepository.class)
+public class BenchmarkPersistence {
+
+    @Bean
+    AssetRepositoryPort assetRepositoryPort(AssetJpaRepository jpa, EntityManager em) {
+        return new AssetRepositoryAdapter(jpa, em);
+    }
+
+    /**
+     * Starts the slice on a fresh database.
+     *
+     * @param name  database name, unique per benchmark
+     * @param extra additional Spring properties as {@code --key=value} arguments
+     */
+    public static ConfigurableApplicationContext start(String name, String... extra) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=warn"));
+        args.addAll(List.of(extra));
+        return new SpringApplicationBuilder(BenchmarkPersistence.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+}
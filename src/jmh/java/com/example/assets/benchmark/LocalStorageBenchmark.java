@@ -0,0 +1,89 @@
+package com.example.assets.benchmark;
+
+import com.example.assets.domain.ports.AssetPublisherPort.PublishedInfo;
+import com.example.assets.infra.publisher.CompressionPolicy;
+import com.example.assets.infra.publisher.FsyncPolicy;
+import com.example.assets.infra.publisher.LocalPublisherAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to publish one file through {@link LocalPublisherAdapter#publish(java.io.InputStream, String, String)}
+ * across file sizes, stored as is or gzip compressed. Content is CSV-like
+ * text, so compression has something to gain. Each published file is deleted
+ * again inside the benchmark to keep the disk from filling up; that unlink
+ * is part of the measured time. Throughput in MB/s is {@code size / score}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class LocalStorageBenchmark {
+
+    @Param({"4096", "1048576", "16777216"})
+    int size;
+
+    @Param({"none", "gzip"})
+    String codec;
+
+    private Path root;
+    private LocalPublisherAdapter adapter;
+    private byte[] content;
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("local-storage-");
+        // the adapter stores under ${user.dir}/uploads
+        System.setProperty("user.dir", root.toString());
+        adapter = new LocalPublisherAdapter(false, 2, FsyncPolicy.NONE, Duration.ofSeconds(1),
+                new CompressionPolicy(codec, new String[]{"text/*"}));
+        content = csv(size);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        adapter.close();
+        try (var files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public PublishedInfo publish() throws IOException {
+        PublishedInfo info = adapter.publish(new ByteArrayInputStream(content), "report.csv", "text/csv");
+        Files.delete(adapter.resolve(info.url()).orElseThrow());
+        return info;
+    }
+
+    private static byte[] csv(int size) {
+        var random = new Random(42);
+        var text = new StringBuilder(size + 64);
+        while (text.length() < size) {
+            text.append(random.nextInt(100_000)).append(",asset-").append(random.nextInt(1_000))
+                    .append(".png,image/png,").append(random.nextLong() & Long.MAX_VALUE).append('\n');
+        }
+        return text.substring(0, size).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.assets.benchmark;
+
+import com.example.assets.domain.ports.AssetPublisherPort;
+import com.example.assets.domain.ports.AssetPublisherPort.PublishedInfo;
+import com.example.assets.infra.publisher.CompressionPolicy;
+import com.example.assets.infra.publisher.FakeS3Server;
+import com.example.assets.infra.publisher.FsyncPolicy;
+import com.example.assets.infra.publisher.LocalPublisherAdapter;
+import com.example.assets.infra.publisher.S3PublisherAdapter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to publish one asset to the local storage and to an S3-compatible
+ * store, the in-process {@link FakeS3Server} over loopback HTTP, sending
+ * 8MB parts one at a time ({@code s3x1}) or several at once. The fake
+ * store can answer every request after {@code latency} milliseconds, as a
+ * remote one would; the local storage ignores it. Throughput in MB/s is
+ * {@code size / score}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ObjectStorageBenchmark {
+
+    private static final long PART_SIZE = 8L * 1024 * 1024;
+
+    @Param({"1048576", "67108864"})
+    int size;
+
+    @Param({"local", "s3x1", "s3x4", "s3x8"})
+    String target;
+
+    @Param({"0", "20"})
+    int latency;
+
+    private Path root;
+    private FakeS3Server s3;
+    private LocalPublisherAdapter local;
+    private S3PublisherAdapter remote;
+    private AssetPublisherPort adapter;
+    private byte[] content;
+
+    @Setup
+    public void setup() throws IOException {
+        content = new byte[size];
+        new Random(42).nextBytes(content);
+        if (target.equals("local")) {
+            root = Files.createTempDirectory("object-storage-");
+            // the adapter stores under ${user.dir}/uploads
+            System.setProperty("user.dir", root.toString());
+            local = new LocalPublisherAdapter(false, 2, FsyncPolicy.NONE, Duration.ofSeconds(1),
+                    new CompressionPolicy("none", new String[0]));
+            adapter = local;
+        } else {
+            s3 = new FakeS3Server();
+            s3.latency(latency);
+            int parallelism = Integer.parseInt(target.substring("s3x".length()));
+            remote = new S3PublisherAdapter(new S3PublisherAdapter.Settings(s3.endpoint(), "us-east-1", "assets",
+                    "bench", "bench-secret", true, PART_SIZE, parallelism, 3, Duration.ofMillis(100),
+                    Duration.ofSeconds(30), Duration.ofMinutes(15)), new SimpleMeterRegistry());
+            adapter = remote;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (local != null) {
+            local.close();
+            try (var files = Files.walk(root)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        } else {
+            remote.close();
+            s3.close();
+        }
+    }
+
+    @Benchmark
+    public PublishedInfo publish() throws IOException {
+        PublishedInfo info = adapter.publish(new ByteArrayInputStream(content), "movie.mp4", "video/mp4");
+        if (local != null) {
+            Files.delete(local.resolve(info.url()).orElseThrow());
+        } else {
+            s3.clear();
+        }
+        return info;
+    }
+}
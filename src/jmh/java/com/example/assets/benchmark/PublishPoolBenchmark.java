@@ -0,0 +1,113 @@
+package com.example.assets.benchmark;
+
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.ports.AssetPublisherPort;
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import com.example.assets.infra.publisher.PublisherOrchestrator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publish throughput against connection pool size when every storage write
+ * takes a few milliseconds. {@code transactional} runs the publication in one
+ * transaction, as the pipeline used to, so a connection is held during the
+ * write; {@code conditional} is the current pipeline, which only borrows a
+ * connection for each status UPDATE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PublishPoolBenchmark {
+
+    private static final byte[] DATA = new byte[4096];
+
+    @Param({"2", "4", "8"})
+    int poolSize;
+
+    @Param({"transactional", "conditional"})
+    String pipeline;
+
+    @Param("20")
+    int storageMillis;
+
+    private ConfigurableApplicationContext context;
+    private AssetRepositoryPort repo;
+    private PublisherOrchestrator orchestrator;
+    private TransactionTemplate transaction;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkPersistence.start("publish-" + poolSize + "-" + pipeline,
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize);
+        repo = context.getBean(AssetRepositoryPort.class);
+        orchestrator = new PublisherOrchestrator(repo, new SlowStorage(storageMillis), (id, status) -> { },
+                new SimpleMeterRegistry());
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void publish() throws IOException {
+        UUID id = UUID.randomUUID();
+        repo.insertAll(List.of(new Asset(id, "a.bin", "application/octet-stream", null, null, null, AssetStatus.PENDING)));
+        // deleted by the orchestrator once published
+        Path staged = Files.write(Files.createTempFile("publish-", ".part"), DATA);
+        if ("transactional".equals(pipeline)) {
+            transaction.executeWithoutResult(status -> orchestrator.publishAsync(id, staged, "a.bin", "application/octet-stream"));
+        } else {
+            orchestrator.publishAsync(id, staged, "a.bin", "application/octet-stream");
+        }
+    }
+
+    /**
+     * Storage that drains the content and then waits, like a slow disk or network.
+     */
+    private record SlowStorage(int millis) implements AssetPublisherPort {
+
+        @Override
+        public PublishedInfo publish(InputStream data, String filename, String contentType) {
+            try {
+                long size = data.transferTo(OutputStream.nullOutputStream());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+                return new PublishedInfo("mem://" + UUID.randomUUID(), size);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
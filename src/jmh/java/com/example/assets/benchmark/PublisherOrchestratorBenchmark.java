@@ -0,0 +1,175 @@
+package com.example.assets.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetCursor;
+import com.example.assets.domain.model.AssetPage;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.PublishTimeline;
+import com.example.assets.domain.model.PublishTimings;
+import com.example.assets.domain.model.SortDirection;
+import com.example.assets.domain.ports.AssetPublisherPort;
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import com.example.assets.infra.publisher.PublisherOrchestrator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Overhead of {@link PublisherOrchestrator#publishAsync(UUID, Path, String, String)}
+ * itself: both ports are in-memory fakes and the method is called directly,
+ * without the @Async proxy, so what remains is the status transitions,
+ * opening, reading and deleting the staged file, and their allocations. The
+ * file is written again before each call, outside of the measurement.
+ * Logging is turned down to WARN, so the per-publication INFO lines are not
+ * part of the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublisherOrchestratorBenchmark {
+
+    @Param({"1024", "65536"})
+    int size;
+
+    private InMemoryRepository repo;
+    private PublisherOrchestrator orchestrator;
+    private byte[] data;
+    private Path staged;
+
+    @Setup
+    public void setup() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        repo = new InMemoryRepository();
+        orchestrator = new PublisherOrchestrator(repo, new DrainingPublisher(), (id, status) -> { },
+                new SimpleMeterRegistry());
+        data = new byte[size];
+        staged = Files.createTempFile("publish-", ".part");
+    }
+
+    @Setup(org.openjdk.jmh.annotations.Level.Invocation)
+    public void stage() throws IOException {
+        Files.write(staged, data);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(staged);
+    }
+
+    @Benchmark
+    public CompletableFuture<Void> publishAsync() {
+        UUID id = UUID.randomUUID();
+        repo.statuses.put(id, AssetStatus.PENDING);
+        CompletableFuture<Void> done = orchestrator.publishAsync(id, staged, "a.bin", "application/octet-stream");
+        repo.statuses.remove(id);
+        return done;
+    }
+
+    /**
+     * Reads the whole stream, as a real storage would, and keeps nothing.
+     */
+    private static final class DrainingPublisher implements AssetPublisherPort {
+
+        @Override
+        public PublishedInfo publish(InputStream data, String filename, String contentType) {
+            try {
+                return new PublishedInfo("mem://" + filename, data.transferTo(OutputStream.nullOutputStream()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Only the status transitions the orchestrator performs.
+     */
+    private static final class InMemoryRepository implements AssetRepositoryPort {
+
+        final Map<UUID, AssetStatus> statuses = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean updateStatus(UUID id, AssetStatus expected, AssetStatus status) {
+            return statuses.replace(id, expected, status);
+        }
+
+        @Override
+        public boolean markPublished(UUID id, String url, long size, String contentEncoding, PublishTimings timings) {
+            return statuses.replace(id, AssetStatus.PROCESSING, AssetStatus.PUBLISHED);
+        }
+
+        @Override
+        public Asset save(Asset asset) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void insertAll(List<Asset> assets) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<Asset> findById(UUID id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Asset> findCurrentByIds(Collection<UUID> ids) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Asset> findUnsettled(Instant acceptedBefore, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AssetPage search(Instant start, Instant end, String filenameRegex, String filetype,
+                                SortDirection direction, AssetCursor after, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void forEach(Instant start, Instant end, String filenameRegex, String filetype,
+                            SortDirection direction, Consumer<Asset> consumer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<PublishTimeline> findPublishTimelines(Instant since, int limit) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
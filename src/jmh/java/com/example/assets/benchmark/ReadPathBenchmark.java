@@ -0,0 +1,103 @@
+package com.example.assets.benchmark;
+
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.SortDirection;
+import com.example.assets.infra.persistence.AssetEntity;
+import com.example.assets.infra.persistence.AssetJpaRepository;
+import com.example.assets.infra.persistence.AssetRepositoryAdapter;
+import com.example.assets.web.dto.AssetDto;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of a search read: the former path (managed entity, copy into
+ * the domain record, copy into the DTO through its builder) against the
+ * projection path used by {@link AssetRepositoryAdapter}.
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}, which is
+ * reported in bytes per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    static final int ROWS = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private AssetJpaRepository jpa;
+    private AssetRepositoryAdapter adapter;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkPersistence.start("read-path");
+        jpa = context.getBean(AssetJpaRepository.class);
+        adapter = new AssetRepositoryAdapter(jpa, context.getBean(EntityManager.class));
+
+        List<AssetEntity> rows = new ArrayList<>(ROWS);
+        Instant base = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new AssetEntity(UUID.randomUUID(), "file-" + i + ".png", "image/png",
+                    "file:///uploads/" + i + ".png", 1024L * i, base.plusSeconds(i), AssetStatus.PUBLISHED, null,
+                    null, null, null, null, null));
+        }
+        jpa.saveAll(rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<AssetDto> entityHydration() {
+        List<AssetDto> result = new ArrayList<>(ROWS);
+        for (AssetEntity entity : jpa.findAll(Sort.by(Sort.Direction.ASC, "uploadDate"))) {
+            Asset asset = new Asset(entity.getId(), entity.getFilename(), entity.getContentType(),
+                    entity.getUrl(), entity.getSize(), entity.getUploadDate(), entity.getStatus());
+            result.add(AssetDto.builder()
+                    .id(asset.id())
+                    .filename(asset.filename())
+                    .contentType(asset.contentType())
+                    .url(asset.url())
+                    .size(asset.size())
+                    .uploadDate(asset.uploadDate())
+                    .status(asset.status())
+                    .build());
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<AssetDto> projection() {
+        List<AssetDto> result = new ArrayList<>(ROWS);
+        adapter.forEach(null, null, null, null, SortDirection.ASC, asset ->
+                result.add(new AssetDto(asset.id(), asset.filename(), asset.contentType(),
+                        asset.url(), asset.size(), asset.uploadDate(), asset.status())));
+        return result;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.assets.benchmark;
+
+import com.example.assets.infra.publisher.ShardedLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of creating and looking up a file in a storage directory that
+ * already holds {@code files} entries, flat ({@code depth} 0) or sharded.
+ * The default population keeps setup short; the target scale is
+ * {@code -p files=10000000}, which needs a few GB of inodes and a long setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class StorageLayoutBenchmark {
+
+    @Param({"0", "2"})
+    int depth;
+
+    @Param("200000")
+    int files;
+
+    private Path root;
+    private ShardedLayout layout;
+    private String[] names;
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("storage-layout-");
+        layout = new ShardedLayout(root, depth);
+        names = new String[files];
+        for (int i = 0; i < files; i++) {
+            names[i] = UUID.randomUUID() + ".bin";
+            Files.createFile(layout.prepare(names[i]));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    @Benchmark
+    public Path create() throws IOException {
+        return Files.createFile(layout.prepare(UUID.randomUUID() + ".bin"));
+    }
+
+    @Benchmark
+    public boolean lookup() {
+        String name = names[ThreadLocalRandom.current().nextInt(names.length)];
+        return Files.exists(layout.locate(name));
+    }
+}
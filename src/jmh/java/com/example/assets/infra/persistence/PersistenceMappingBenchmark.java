@@ -0,0 +1,95 @@
+package com.example.assets.infra.persistence;
+
+import com.example.assets.benchmark.BenchmarkPersistence;
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU and allocation cost of the pieces {@link AssetRepositoryAdapter} runs
+ * for every row or query: the entity/domain mappings, and building the
+ * search predicate (filters plus keyset bound) with Hibernate's criteria API.
+ * No SQL is executed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceMappingBenchmark {
+
+    @State(Scope.Thread)
+    public static class Rows {
+
+        final Asset asset = new Asset(UUID.randomUUID(), "photo-2024.png", "image/png",
+                "file:///uploads/ab/cd/photo.png", 123_456L, Instant.parse("2024-05-01T10:00:00Z"),
+                AssetStatus.PUBLISHED);
+        final AssetEntity entity = AssetRepositoryAdapter.toEntity(asset);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Criteria {
+
+        final Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        final Instant end = Instant.parse("2024-12-31T23:59:59Z");
+        final Instant cursorDate = Instant.parse("2024-05-01T10:00:00Z");
+        final UUID cursorId = UUID.randomUUID();
+
+        ConfigurableApplicationContext context;
+        EntityManager em;
+        CriteriaBuilder cb;
+
+        @Setup
+        public void setup() {
+            context = BenchmarkPersistence.start("criteria");
+            em = context.getBean(EntityManager.class);
+            cb = em.getCriteriaBuilder();
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public AssetEntity toEntity(Rows rows) {
+        return AssetRepositoryAdapter.toEntity(rows.asset);
+    }
+
+    @Benchmark
+    public Asset toDomain(Rows rows) {
+        return AssetRepositoryAdapter.toDomain(rows.entity);
+    }
+
+    /**
+     * The predicate of a filtered keyset page, as built for each search.
+     */
+    @Benchmark
+    public Predicate specification(Criteria criteria) {
+        var spec = AssetRepositoryAdapter.filters(criteria.start, criteria.end, "photo*", "image/png")
+                .and(AssetSpecifications.uploadDatePresent())
+                .and(AssetSpecifications.after(criteria.cursorDate, criteria.cursorId, true));
+        var query = criteria.cb.createQuery(Asset.class);
+        var root = query.from(AssetEntity.class);
+        return spec.toPredicate(root, query, criteria.cb);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.assets.web;
+
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.infra.spool.UploadSpool;
+import com.example.assets.web.dto.AssetDto;
+import com.example.assets.web.dto.AssetFileUploadRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of {@link AssetController}: the Base64 JSON upload and the
+ * mapping of every search row to its DTO.
+ * {@code decodeStreaming} is what the upload endpoint does, decoding into the
+ * spool (disk write included); {@code decodeBound} is the former path, binding
+ * the request and decoding it into one array. With {@code -prof gc},
+ * {@code gc.alloc.rate.norm} shows the bound path allocating a few times the
+ * upload size while the streaming one stays flat.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebPathBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Upload {
+
+        @Param({"1024", "65536", "1048576"})
+        int size;
+
+        Path dir;
+        UploadSpool spool;
+        JsonUploadReader reader;
+        ObjectMapper mapper;
+        byte[] body;
+
+        @Setup
+        public void setup() throws IOException {
+            dir = Files.createTempDirectory("web-path-");
+            spool = new UploadSpool(dir.toString());
+            mapper = new ObjectMapper();
+            reader = new JsonUploadReader(mapper.getFactory(), spool);
+            byte[] content = new byte[size];
+            ThreadLocalRandom.current().nextBytes(content);
+            body = ("{\"filename\":\"a.bin\",\"contentType\":\"application/octet-stream\",\"encodedFile\":\""
+                    + Base64.getEncoder().encodeToString(content) + "\"}").getBytes(StandardCharsets.US_ASCII);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            try (var files = Files.walk(dir)) {
+                files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Row {
+
+        final Asset asset = new Asset(UUID.randomUUID(), "photo-2024.png", "image/png",
+                "file:///uploads/ab/cd/photo.png", 123_456L, Instant.parse("2024-05-01T10:00:00Z"),
+                AssetStatus.PUBLISHED);
+    }
+
+    @Benchmark
+    public Path decodeStreaming(Upload upload) throws IOException {
+        Path content = upload.reader.read(new ByteArrayInputStream(upload.body)).content();
+        upload.spool.discard(content);
+        return content;
+    }
+
+    @Benchmark
+    public byte[] decodeBound(Upload upload) throws IOException {
+        var request = upload.mapper.readValue(upload.body, AssetFileUploadRequest.class);
+        return Base64.getDecoder().decode(request.getEncodedFile());
+    }
+
+    @Benchmark
+    public AssetDto toDto(Row row) {
+        return AssetController.toDto(row.asset);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.assets.load;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Reproducible asset dataset. Every row is a pure function of the seed and
+ * its index, so the harness can pick existing ids at random without keeping
+ * them, and two runs with the same seed see exactly the same data.
+ * <p>
+ * The spread follows what production looks like rather than a uniform
+ * distribution: a few content types dominate, filenames share a small
+ * vocabulary of prefixes, sizes are log-normal per type and upload dates
+ * lean towards the recent end of a three year window. One row in 200 was
+ * never published and has no upload date.
+ */
+final class DatasetGenerator {
+
+    // fixed end of the date window, so the dataset does not depend on when it is generated
+    static final Instant UNTIL = Instant.parse("2025-01-01T00:00:00Z");
+    static final Duration SPAN = Duration.ofDays(3 * 365);
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int COMMIT_EVERY = 20_000;
+
+    private static final Type[] TYPES = {
+            new Type("image/jpeg", ".jpg", 28, 13.0, 1.0),
+            new Type("image/png", ".png", 22, 12.0, 1.2),
+            new Type("application/pdf", ".pdf", 14, 12.5, 1.5),
+            new Type("video/mp4", ".mp4", 6, 17.0, 1.5),
+            new Type("text/csv", ".csv", 6, 10.0, 2.0),
+            new Type("application/json", ".json", 6, 8.0, 1.5),
+            new Type("text/plain", ".txt", 5, 8.0, 1.5),
+            new Type("application/vnd.openxmlformats-officedocument.wordprocessingml.document", ".docx", 4, 11.0, 1.0),
+            new Type("application/zip", ".zip", 4, 15.0, 2.0),
+            new Type("image/svg+xml", ".svg", 3, 9.0, 1.0),
+            new Type("image/gif", ".gif", 2, 11.0, 1.0),
+    };
+    private static final int TYPE_WEIGHT = 100;
+
+    // roughly Zipf distributed: earlier words are picked more often
+    static final String[] WORDS = {
+            "IMG", "photo", "invoice", "report", "scan", "export", "document", "contract", "logo", "avatar",
+            "screenshot", "backup", "presentation", "receipt", "statement", "banner", "thumbnail", "draft",
+            "catalog", "manual", "summary", "budget", "dataset", "archive", "signature", "profile", "chart",
+            "minutes", "proposal", "brochure"
+    };
+
+    private final long seed;
+
+    DatasetGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Id of the row with the given index.
+     */
+    UUID id(long index) {
+        long high = mix(seed + index * 0x9E3779B97F4A7C15L);
+        long low = mix(high ^ index);
+        // version 4, IETF variant, like the ids the application generates
+        return new UUID((high & ~0xF000L) | 0x4000L, (low & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L);
+    }
+
+    /**
+     * Inserts rows {@code [from, to)} with JDBC batches.
+     *
+     * @param progress called with the number of rows inserted so far
+     */
+    void insert(DataSource dataSource, long from, long to, LongConsumer progress)
+            throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO assets (id, filename, content_type, url, size, upload_date, status)"
+                            + " VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (long i = from; i < to; i++) {
+                    bind(insert, i);
+                    insert.addBatch();
+                    long done = i + 1 - from;
+                    if (done % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                    if (done % COMMIT_EVERY == 0) {
+                        connection.commit();
+                        progress.accept(done);
+                    }
+                }
+                if ((to - from) % COMMIT_EVERY != 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                    progress.accept(to - from);
+                }
+            }
+        }
+    }
+
+    private void bind(PreparedStatement insert, long index) throws SQLException {
+        UUID id = id(index);
+        var random = new SplittableRandom(mix(id.getLeastSignificantBits()));
+        Type type = pick(random);
+        String filename = filename(random, type);
+        long size = Math.max(1, Math.round(Math.exp(type.sizeMu() + type.sizeSigma() * random.nextGaussian())));
+        boolean published = random.nextInt(200) != 0;
+
+        insert.setObject(1, id);
+        insert.setString(2, filename);
+        insert.setString(3, type.contentType());
+        if (published) {
+            // recent dates are more frequent: the age is the square of a uniform fraction
+            double fraction = random.nextDouble();
+            Instant date = UNTIL.minusMillis((long) (SPAN.toMillis() * fraction * fraction));
+            insert.setString(4, "file:///load/" + id + type.extension());
+            insert.setLong(5, size);
+            insert.setTimestamp(6, Timestamp.from(date));
+            insert.setString(7, "PUBLISHED");
+        } else {
+            insert.setNull(4, Types.VARCHAR);
+            insert.setNull(5, Types.BIGINT);
+            insert.setNull(6, Types.TIMESTAMP);
+            insert.setString(7, random.nextBoolean() ? "FAILED" : "PENDING");
+        }
+    }
+
+    private static Type pick(SplittableRandom random) {
+        int ticket = random.nextInt(TYPE_WEIGHT);
+        for (Type type : TYPES) {
+            ticket -= type.weight();
+            if (ticket < 0) {
+                return type;
+            }
+        }
+        return TYPES[TYPES.length - 1];
+    }
+
+    static String word(SplittableRandom random) {
+        // squaring a uniform fraction favours the first words
+        double fraction = random.nextDouble();
+        return WORDS[(int) (WORDS.length * fraction * fraction)];
+    }
+
+    static String contentType(SplittableRandom random) {
+        return pick(random).contentType();
+    }
+
+    private static String filename(SplittableRandom random, Type type) {
+        String word = word(random);
+        return switch (random.nextInt(4)) {
+            case 0 -> word + "_" + (20_000_000 + random.nextInt(5_000_000)) + type.extension();
+            case 1 -> word + "-" + (2022 + random.nextInt(3)) + "-" + (1 + random.nextInt(12)) + type.extension();
+            case 2 -> word + " (" + (1 + random.nextInt(9)) + ")" + type.extension();
+            default -> word + random.nextInt(100_000) + type.extension();
+        };
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private record Type(String contentType, String extension, int weight, double sizeMu, double sizeSigma) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.assets.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one kind of operation, recorded concurrently
+ * by all workers into an HdrHistogram (microsecond resolution, up to a
+ * minute, three significant digits).
+ */
+final class LatencyStats {
+
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder errors = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    void record(long nanos, int status) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), latencies.getHighestTrackableValue()));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (status >= 400 || status < 100) {
+            errors.increment();
+        }
+    }
+
+    void failed() {
+        errors.increment();
+        statuses.computeIfAbsent(0, s -> new LongAdder()).increment();
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    /**
+     * Summary in milliseconds, ready to be written as JSON.
+     *
+     * @param seconds length of the measurement, for the throughput
+     */
+    Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", latencies.getTotalCount());
+        summary.put("errors", errors.sum());
+        summary.put("throughput", round(latencies.getTotalCount() / seconds));
+        Map<String, Object> millis = new LinkedHashMap<>();
+        millis.put("mean", round(latencies.getMean() / 1000));
+        for (double percentile : new double[]{50, 90, 95, 99, 99.9}) {
+            String name = "p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : "999");
+            millis.put(name, round(latencies.getValueAtPercentile(percentile) / 1000.0));
+        }
+        millis.put("max", round(latencies.getMaxValue() / 1000.0));
+        summary.put("latencyMs", millis);
+        Map<String, Long> codes = new TreeMap<>();
+        statuses.forEach((status, count) -> codes.put(status == 0 ? "failed" : String.valueOf(status), count.sum()));
+        summary.put("statuses", codes);
+        return summary;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.assets.load;
+
+import com.example.assets.AssetsManagerApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * End-to-end load harness: starts the application on a random port against
+ * a local database, fills it with a reproducible dataset and drives a mix
+ * of uploads, lookups and searches, then writes throughput and latency
+ * percentiles as JSON.
+ * <p>
+ * Options, all {@code name=value} (a leading {@code --} is optional):
+ * <ul>
+ *     <li>{@code rows} dataset size (100000); {@code seed} dataset and workload seed (42)</li>
+ *     <li>{@code db} {@code h2} for an embedded file database under {@code work}, or a
+ *     PostgreSQL JDBC URL with {@code db-user} and {@code db-password}</li>
+ *     <li>{@code mix} operation weights ({@code get:70,search:20,upload:10})</li>
+ *     <li>{@code concurrency} (16), {@code rate} requests per second, 0 for a closed loop (0)</li>
+ *     <li>{@code warmup} (10s), {@code duration} (60s), {@code upload-size} bytes (65536)</li>
+ *     <li>{@code work} working directory (target/load), {@code out} result file
+ *     ({@code <work>/result-<timestamp>.json})</li>
+ * </ul>
+ * Any other {@code --spring.*}, {@code --assets.*}, {@code --server.*} or
+ * {@code --logging.*} option is passed on to the application.
+ * <p>
+ * The dataset is generated once per database and extended when more rows
+ * are asked for; its seed and size are kept in a {@code load_dataset} table
+ * next to the assets. Assets uploaded by previous runs stay in the database.
+ */
+public final class LoadHarness {
+
+    private static final String API_KEY = "load-harness";
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, String> appArgs = new LinkedHashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            if (!option.contains("=")) {
+                throw new IllegalArgumentException("Expected name=value, got " + arg);
+            }
+            String name = option.substring(0, option.indexOf('='));
+            if (name.startsWith("spring.") || name.startsWith("assets.") || name.startsWith("server.")
+                    || name.startsWith("logging.")) {
+                appArgs.put(name, option.substring(option.indexOf('=') + 1));
+            } else {
+                options.put(name, option.substring(option.indexOf('=') + 1));
+            }
+        }
+
+        long rows = Long.parseLong(options.getOrDefault("rows", "100000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "60s"));
+        int uploadSize = Integer.parseInt(options.getOrDefault("upload-size", "65536"));
+        Map<Workload.Operation, Integer> mix = mix(options.getOrDefault("mix", "get:70,search:20,upload:10"));
+        Path work = Paths.get(options.getOrDefault("work", "target/load")).toAbsolutePath();
+        Path out = options.containsKey("out")
+                ? Paths.get(options.get("out"))
+                : work.resolve("result-" + Instant.now().toString().replace(':', '-') + ".json");
+        String db = options.getOrDefault("db", "h2");
+        Files.createDirectories(work);
+
+        ConfigurableApplicationContext context = start(work, db, options, appArgs);
+        try {
+            DataSource dataSource = context.getBean(DataSource.class);
+            var dataset = new DatasetGenerator(seed);
+            double generationSeconds = populate(dataset, dataSource, seed, rows);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            System.out.printf("Running %s for %s (warm-up %s) with %d workers%n", mix, duration, warmup, concurrency);
+            var workload = new Workload("http://localhost:" + port, API_KEY, dataset, rows, mix, uploadSize, seed);
+            workload.run(concurrency, warmup, duration, rate, seed);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("timestamp", Instant.now().toString());
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("rows", rows);
+            config.put("seed", seed);
+            config.put("mix", mix.toString());
+            config.put("concurrency", concurrency);
+            config.put("rate", rate);
+            config.put("warmup", warmup.toString());
+            config.put("duration", duration.toString());
+            config.put("uploadSize", uploadSize);
+            config.put("db", db.startsWith("jdbc:") ? "postgresql" : db);
+            config.put("appArgs", appArgs);
+            config.put("cpus", Runtime.getRuntime().availableProcessors());
+            config.put("java", Runtime.version().toString());
+            report.put("config", config);
+            report.put("datasetGenerationSeconds", generationSeconds);
+            report.put("operations", workload.results(duration));
+
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+            print(workload.results(duration));
+            System.out.println("Results written to " + out);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Path work, String db, Map<String, String> options,
+                                                        Map<String, String> appArgs) {
+        // local storage writes under ${user.dir}/uploads
+        System.setProperty("user.dir", work.toString());
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("security.api.key", API_KEY);
+        properties.put("assets.upload.spool-dir", work.resolve("spool").toString());
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "warn");
+        if ("h2".equals(db)) {
+            properties.put("spring.datasource.url", "jdbc:h2:file:" + work.resolve("db/assets")
+                    + ";DB_CLOSE_ON_EXIT=FALSE");
+            properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+        } else {
+            properties.put("spring.datasource.url", db);
+            properties.put("spring.datasource.username", options.getOrDefault("db-user", "assets"));
+            properties.put("spring.datasource.password", options.getOrDefault("db-password", "assets"));
+        }
+        // a repeated command line argument is joined with commas rather than overridden,
+        // so explicit application options replace the defaults here
+        properties.putAll(appArgs);
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(AssetsManagerApplication.class).run(args);
+    }
+
+    /**
+     * Generates the rows the database does not hold yet.
+     *
+     * @return seconds spent generating
+     */
+    private static double populate(DatasetGenerator dataset, DataSource dataSource, long seed, long rows)
+            throws Exception {
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS load_dataset (seed BIGINT NOT NULL, generated BIGINT NOT NULL)");
+        List<long[]> state = jdbc.query("SELECT seed, generated FROM load_dataset",
+                (row, n) -> new long[]{row.getLong(1), row.getLong(2)});
+        long existing = 0;
+        if (state.isEmpty()) {
+            jdbc.update("INSERT INTO load_dataset (seed, generated) VALUES (?, 0)", seed);
+        } else if (state.get(0)[0] != seed) {
+            throw new IllegalStateException("The database holds a dataset generated with seed " + state.get(0)[0]
+                    + ", run with that seed or against an empty database");
+        } else {
+            existing = state.get(0)[1];
+        }
+        if (existing >= rows) {
+            System.out.printf("Reusing the %d generated rows already in the database%n", existing);
+            return 0;
+        }
+
+        System.out.printf("Generating rows %d to %d%n", existing, rows);
+        long started = System.nanoTime();
+        long from = existing;
+        dataset.insert(dataSource, from, rows, done -> {
+            // committed so far, so an interrupted generation resumes where it stopped
+            jdbc.update("UPDATE load_dataset SET generated = ?", from + done);
+            if (done % 100_000 == 0 || from + done == rows) {
+                System.out.printf("  %d / %d rows%n", from + done, rows);
+            }
+        });
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("Generated %d rows in %.1fs%n", rows - from, seconds);
+        return seconds;
+    }
+
+    private static Map<Workload.Operation, Integer> mix(String spec) {
+        Map<Workload.Operation, Integer> mix = new EnumMap<>(Workload.Operation.class);
+        for (String part : spec.split(",")) {
+            String[] weight = part.split(":");
+            mix.put(Workload.Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)),
+                    Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> results) {
+        System.out.printf("%-32s %10s %8s %10s %10s %10s %10s %10s%n",
+                "operation", "ops/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        results.forEach((name, value) -> {
+            var summary = (Map<String, Object>) value;
+            var millis = (Map<String, Object>) summary.get("latencyMs");
+            System.out.printf("%-32s %10s %8s %10s %10s %10s %10s %10s%n", name, summary.get("throughput"),
+                    summary.get("errors"), millis.get("p50"), millis.get("p90"), millis.get("p99"),
+                    millis.get("p999"), millis.get("max"));
+        });
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.assets.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a mix of uploads, lookups by id and searches against a running
+ * instance from {@code concurrency} worker threads.
+ * <p>
+ * Without a target rate the loop is closed: each worker sends its next
+ * request as soon as the previous one is answered. With a rate, requests
+ * are scheduled at fixed intervals and latency is measured from the
+ * scheduled time, so a slow response also counts against the requests it
+ * delayed (no coordinated omission).
+ * <p>
+ * Every accepted upload is then polled until it leaves PENDING/PROCESSING,
+ * which gives the upload-to-PUBLISHED latency; those polls are not counted
+ * as lookups.
+ */
+final class Workload {
+
+    static final String ASSETS = "/api/mgmt/1/assets";
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+    private static final Duration PUBLISH_TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper json = new ObjectMapper();
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final DatasetGenerator dataset;
+    private final long rows;
+    private final Map<Operation, Integer> mix;
+    private final int mixTotal;
+    private final byte[] upload;
+
+    private final Map<String, LatencyStats> stats = new ConcurrentHashMap<>();
+    private final LatencyStats published = new LatencyStats();
+    private final ScheduledExecutorService poller = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "publish-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicInteger publishing = new AtomicInteger();
+    private volatile long measureFrom;
+
+    Workload(String baseUrl, String apiKey, DatasetGenerator dataset, long rows, Map<Operation, Integer> mix,
+             int uploadSize, long seed) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.dataset = dataset;
+        this.rows = rows;
+        this.mix = mix;
+        this.mixTotal = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.upload = new byte[uploadSize];
+        new SplittableRandom(seed).nextBytes(upload);
+        if (mixTotal <= 0) {
+            throw new IllegalArgumentException("The operation mix is empty");
+        }
+    }
+
+    enum Operation {
+        UPLOAD, GET, SEARCH
+    }
+
+    /**
+     * Runs the workload and blocks until it is over.
+     *
+     * @param rate total requests per second, or 0 for a closed loop
+     */
+    void run(int concurrency, Duration warmup, Duration duration, double rate, long seed)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int w = 0; w < concurrency; w++) {
+            var random = new SplittableRandom(seed * 31 + w);
+            long period = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * concurrency / rate) : 0;
+            // spread the workers over the first period so they do not fire in lockstep
+            long first = start + (period * w) / concurrency;
+            Thread worker = new Thread(() -> work(random, first, period, end), "load-" + w);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // give publications still in flight a chance to finish
+        long deadline = System.nanoTime() + PUBLISH_TIMEOUT.toNanos();
+        while (publishing.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        poller.shutdownNow();
+    }
+
+    /**
+     * Operation summaries, keyed by operation (searches by filter combination).
+     */
+    Map<String, Object> results(Duration duration) {
+        double seconds = duration.toNanos() / 1e9;
+        Map<String, Object> results = new LinkedHashMap<>();
+        stats.keySet().stream().sorted().forEach(name -> results.put(name, stats.get(name).summary(seconds)));
+        if (published.count() > 0) {
+            results.put("upload-to-published", published.summary(seconds));
+        }
+        return results;
+    }
+
+    private void work(SplittableRandom random, long first, long period, long end) {
+        long intended = first;
+        while (true) {
+            if (period > 0) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            } else {
+                intended = System.nanoTime();
+            }
+            if (intended >= end) {
+                return;
+            }
+            execute(pick(random), random, intended);
+            intended += period;
+        }
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int ticket = random.nextInt(mixTotal);
+        for (var entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private void execute(Operation operation, SplittableRandom random, long intended) {
+        String name = operation.name().toLowerCase();
+        HttpRequest request;
+        switch (operation) {
+            case UPLOAD -> request = uploadRequest(random);
+            case GET -> request = get(ASSETS + "/" + dataset.id(random.nextLong(rows)));
+            case SEARCH -> {
+                Search search = search(random);
+                name = "search[" + search.filters() + "]";
+                request = get(search.path());
+            }
+            default -> throw new IllegalStateException();
+        }
+        boolean measured = intended >= measureFrom;
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            long elapsed = System.nanoTime() - intended;
+            if (measured) {
+                stats.computeIfAbsent(name, n -> new LatencyStats()).record(elapsed, response.statusCode());
+            }
+            if (operation == Operation.UPLOAD && response.statusCode() == 202 && measured) {
+                UUID id = UUID.fromString(json.readTree(response.body()).get("id").asText());
+                awaitPublished(id, intended);
+            }
+        } catch (IOException e) {
+            if (measured) {
+                stats.computeIfAbsent(name, n -> new LatencyStats()).failed();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpRequest uploadRequest(SplittableRandom random) {
+        String filename = DatasetGenerator.word(random) + "-" + random.nextInt(1_000_000) + ".bin";
+        return request(ASSETS + "/actions/upload?filename=" + encode(filename)
+                + "&contentType=application%2Foctet-stream")
+                .header("Content-Type", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(upload))
+                .build();
+    }
+
+    /**
+     * A search with a random combination of the filters the API offers,
+     * drawn so that the common ones (type, date range) dominate.
+     */
+    private Search search(SplittableRandom random) {
+        List<String> filters = new ArrayList<>(3);
+        StringBuilder query = new StringBuilder(ASSETS + "/?limit=50");
+        if (random.nextInt(100) < 60) {
+            filters.add("filetype");
+            query.append("&filetype=").append(encode(DatasetGenerator.contentType(random)));
+        }
+        if (random.nextInt(100) < 50) {
+            filters.add("date");
+            Instant from = DatasetGenerator.UNTIL.minusMillis((long) (DatasetGenerator.SPAN.toMillis()
+                    * random.nextDouble()));
+            Instant to = from.plus(Duration.ofDays(1 + random.nextInt(60)));
+            query.append("&uploadDateStart=").append(from).append("&uploadDateEnd=").append(to);
+        }
+        if (random.nextInt(100) < 25) {
+            filters.add("filename");
+            query.append("&filename=").append(encode(DatasetGenerator.word(random) + "*"));
+        }
+        if (random.nextBoolean()) {
+            query.append("&sortDirection=ASC");
+        }
+        return new Search(filters.isEmpty() ? "none" : String.join(",", filters), query.toString());
+    }
+
+    private void awaitPublished(UUID id, long started) {
+        long deadline = started + PUBLISH_TIMEOUT.toNanos();
+        publishing.incrementAndGet();
+        poller.schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    HttpResponse<String> response = http.send(get(ASSETS + "/" + id),
+                            HttpResponse.BodyHandlers.ofString());
+                    String status = response.statusCode() == 200
+                            ? json.readTree(response.body()).path("status").asText()
+                            : "";
+                    long now = System.nanoTime();
+                    if ("PUBLISHED".equals(status)) {
+                        published.record(now - started, 200);
+                    } else if ("FAILED".equals(status) || now > deadline) {
+                        published.failed();
+                    } else {
+                        poller.schedule(this, POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                        return;
+                    }
+                } catch (IOException e) {
+                    published.failed();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                publishing.decrementAndGet();
+            }
+        }, POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("X-API-KEY", apiKey)
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private record Search(String filters, String path) {
+    }
+}
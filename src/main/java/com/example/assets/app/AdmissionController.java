@@ -0,0 +1,153 @@
+package com.example.assets.app;
+
+import com.example.assets.domain.exception.UploadRejectedException;
+import com.example.assets.domain.exception.UploadRejectedException.Reason;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control for uploads waiting to be published.
+ * An upload is admitted while the bytes and publication tasks in flight
+ * stay within budget, and while publications start promptly: when even the
+ * shortest queueing delay seen over a whole interval is above target
+ * (CoDel), new uploads are shed until the queue has drained.
+ */
+public class AdmissionController {
+
+    private final long maxBytes;
+    private final int maxTasks;
+    private final long targetDelayNanos;
+    private final long intervalNanos;
+    private final Duration retryAfter;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final AtomicInteger inFlightTasks = new AtomicInteger();
+    private final AtomicLong rejectedOverBudget = new AtomicLong();
+    private final AtomicLong rejectedOverloaded = new AtomicLong();
+
+    // not synchronized: callers may run on virtual threads
+    private final ReentrantLock intervalLock = new ReentrantLock();
+    private long intervalEnd;
+    private long intervalMinDelay = Long.MAX_VALUE;
+    private volatile long lastMinDelay;
+    private volatile boolean overloaded;
+
+    public AdmissionController(long maxBytes, int maxTasks, Duration targetDelay, Duration interval,
+                               Duration retryAfter) {
+        this(maxBytes, maxTasks, targetDelay, interval, retryAfter, System::nanoTime);
+    }
+
+    AdmissionController(long maxBytes, int maxTasks, Duration targetDelay, Duration interval,
+                        Duration retryAfter, LongSupplier nanoClock) {
+        this.maxBytes = maxBytes;
+        this.maxTasks = maxTasks;
+        this.targetDelayNanos = targetDelay.toNanos();
+        this.intervalNanos = interval.toNanos();
+        this.retryAfter = retryAfter;
+        this.nanoClock = nanoClock;
+        this.intervalEnd = nanoClock.getAsLong() + intervalNanos;
+    }
+
+    /**
+     * Reserves budget for one publication task carrying the given bytes.
+     * A single upload larger than the whole budget is still admitted when
+     * nothing else is in flight, so it is never rejected forever.
+     *
+     * @throws UploadRejectedException if the budget is used up or load is being shed
+     */
+    public Permit admit(long bytes) {
+        if (overloaded && inFlightTasks.get() > 0) {
+            rejectedOverloaded.incrementAndGet();
+            throw new UploadRejectedException(Reason.OVERLOADED, Duration.ofNanos(intervalNanos),
+                    "Publishing is falling behind, retry later");
+        }
+        int tasks = inFlightTasks.incrementAndGet();
+        long total = inFlightBytes.addAndGet(bytes);
+        if (tasks > 1 && (tasks > maxTasks || total > maxBytes)) {
+            release(bytes);
+            rejectedOverBudget.incrementAndGet();
+            throw new UploadRejectedException(Reason.BUDGET_EXHAUSTED, retryAfter,
+                    "Too many uploads in progress, retry later");
+        }
+        return new Permit(bytes);
+    }
+
+    /**
+     * Records how long a publication task waited before it started running.
+     */
+    public void recordQueueDelay(long delayNanos) {
+        long now = nanoClock.getAsLong();
+        intervalLock.lock();
+        try {
+            intervalMinDelay = Math.min(intervalMinDelay, delayNanos);
+            if (now >= intervalEnd) {
+                overloaded = intervalMinDelay > targetDelayNanos;
+                lastMinDelay = intervalMinDelay;
+                intervalMinDelay = Long.MAX_VALUE;
+                intervalEnd = now + intervalNanos;
+            }
+        } finally {
+            intervalLock.unlock();
+        }
+    }
+
+    public long inFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    public int inFlightTasks() {
+        return inFlightTasks.get();
+    }
+
+    public boolean overloaded() {
+        return overloaded;
+    }
+
+    /**
+     * Shortest queueing delay seen during the last complete interval.
+     */
+    public Duration minQueueDelay() {
+        return Duration.ofNanos(lastMinDelay);
+    }
+
+    public long rejected(Reason reason) {
+        return reason == Reason.OVERLOADED ? rejectedOverloaded.get() : rejectedOverBudget.get();
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+
+    private void release(long bytes) {
+        inFlightBytes.addAndGet(-bytes);
+        inFlightTasks.decrementAndGet();
+    }
+
+    /**
+     * Budget held by an admitted upload until its publication has finished.
+     */
+    public final class Permit {
+
+        private final long bytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Gives the budget back; calling it more than once has no effect.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                AdmissionController.this.release(bytes);
+            }
+        }
+    }
+}
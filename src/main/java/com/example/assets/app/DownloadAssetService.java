@@ -0,0 +1,37 @@
+package com.example.assets.app;
+
+import com.example.assets.domain.model.AssetContent;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.ports.AssetPublisherPort;
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import com.example.assets.domain.usecase.DownloadAssetUseCase;
+
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Application service for reading the content of a published asset.
+ * Resolves the stored URL through the AssetPublisherPort: to a local file
+ * if the storage keeps one, otherwise to a download URL of the storage.
+ */
+public class DownloadAssetService implements DownloadAssetUseCase {
+
+    private final AssetRepositoryPort repo;
+    private final AssetPublisherPort publisher;
+
+    public DownloadAssetService(AssetRepositoryPort repo, AssetPublisherPort publisher) {
+        this.repo = repo;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public Optional<AssetContent> execute(UUID id) {
+        return repo.findById(id)
+                .filter(asset -> asset.status() == AssetStatus.PUBLISHED && asset.url() != null)
+                .flatMap(asset -> publisher.resolve(asset.url())
+                        .filter(Files::isReadable)
+                        .map(file -> new AssetContent(asset, file))
+                        .or(() -> publisher.locate(asset.url()).map(location -> new AssetContent(asset, location))));
+    }
+}
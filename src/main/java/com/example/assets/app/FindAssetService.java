@@ -4,6 +4,8 @@ import com.example.assets.domain.model.Asset;
 import com.example.assets.domain.ports.AssetRepositoryPort;
 import com.example.assets.domain.usecase.FindAssetUseCase;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,4 +24,9 @@ public class FindAssetService implements FindAssetUseCase {
     public Optional<Asset> execute(UUID id) {
         return repo.findById(id);
     }
+
+    @Override
+    public List<Asset> executeCurrent(Collection<UUID> ids) {
+        return repo.findCurrentByIds(ids);
+    }
 }
\ No newline at end of file
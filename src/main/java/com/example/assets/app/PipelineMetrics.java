@@ -0,0 +1,50 @@
+package com.example.assets.app;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Meters shared by the stages of the upload pipeline, from decoding the
+ * request body to the final status update. Every stage is a series of the
+ * same {@value #STAGE} timer, tagged with its name, so they can be put side
+ * by side; all of them publish histogram buckets for quantiles in Prometheus.
+ * <p>
+ * Stages, in pipeline order: {@code decode} (request body to spool),
+ * {@code enqueue} (spool file forced into the publish queue), {@code insert}
+ * (PENDING row), {@code submit} (handing over to the executor), {@code queue}
+ * (waiting for an executor thread), {@code claim} (PENDING to PROCESSING),
+ * {@code write} (storage), {@code commit} (PROCESSING to PUBLISHED) and
+ * {@code fail} (PROCESSING to FAILED).
+ */
+public final class PipelineMetrics {
+
+    public static final String STAGE = "assets.upload.stage";
+    public static final String SIZE = "assets.upload.size";
+
+    private PipelineMetrics() {
+    }
+
+    public static Timer stage(MeterRegistry registry, String stage) {
+        return Timer.builder(STAGE)
+                .description("Time spent in each stage of the upload pipeline")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(registry);
+    }
+
+    public static DistributionSummary size(MeterRegistry registry) {
+        return DistributionSummary.builder(SIZE)
+                .description("Size of the accepted uploads")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .minimumExpectedValue((double) DataSize.ofKilobytes(1).toBytes())
+                .maximumExpectedValue((double) DataSize.ofGigabytes(10).toBytes())
+                .register(registry);
+    }
+}
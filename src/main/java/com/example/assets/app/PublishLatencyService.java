@@ -0,0 +1,124 @@
+package com.example.assets.app;
+
+import com.example.assets.domain.model.PublishLatencyReport;
+import com.example.assets.domain.model.PublishLatencyReport.Group;
+import com.example.assets.domain.model.PublishLatencyReport.Percentiles;
+import com.example.assets.domain.model.PublishLatencyReport.Phase;
+import com.example.assets.domain.model.PublishTimeline;
+import com.example.assets.domain.model.PublishTimings;
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import com.example.assets.domain.usecase.PublishLatencyUseCase;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Application service for the publication latency report.
+ * Reads the timelines of the assets published in the window, newest first
+ * and at most {@code maxSamples} of them, and computes nearest-rank
+ * percentiles of every phase per content type and size bucket.
+ */
+public class PublishLatencyService implements PublishLatencyUseCase {
+
+    private static final Comparator<GroupKey> GROUP_ORDER = Comparator.comparing(GroupKey::contentType)
+            .thenComparing(GroupKey::sizeBucket);
+
+    private final AssetRepositoryPort repo;
+    private final int maxSamples;
+
+    public PublishLatencyService(AssetRepositoryPort repo, int maxSamples) {
+        this.repo = repo;
+        this.maxSamples = maxSamples;
+    }
+
+    @Override
+    public PublishLatencyReport execute(Duration window) {
+        Instant until = Instant.now();
+        Instant since = until.minus(window);
+        // one extra row tells whether the window held more than the sample
+        List<PublishTimeline> timelines = repo.findPublishTimelines(since, maxSamples + 1);
+        boolean truncated = timelines.size() > maxSamples;
+        if (truncated) {
+            timelines = timelines.subList(0, maxSamples);
+        }
+
+        Map<GroupKey, List<PublishTimeline>> groups = new TreeMap<>(GROUP_ORDER);
+        for (PublishTimeline timeline : timelines) {
+            groups.computeIfAbsent(new GroupKey(String.valueOf(timeline.contentType()),
+                    SizeBucket.of(timeline.size())), key -> new ArrayList<>()).add(timeline);
+        }
+
+        List<Group> report = new ArrayList<>(groups.size());
+        groups.forEach((key, members) -> {
+            Map<Phase, Percentiles> phases = new EnumMap<>(Phase.class);
+            for (Phase phase : Phase.values()) {
+                phases.put(phase, percentiles(members, phase));
+            }
+            report.add(new Group(key.contentType(), key.sizeBucket().label, members.size(), phases));
+        });
+        return new PublishLatencyReport(since, until, timelines.size(), truncated, report);
+    }
+
+    private static Percentiles percentiles(List<PublishTimeline> timelines, Phase phase) {
+        long[] millis = new long[timelines.size()];
+        for (int i = 0; i < millis.length; i++) {
+            millis[i] = duration(timelines.get(i), phase).toMillis();
+        }
+        Arrays.sort(millis);
+        return new Percentiles(rank(millis, 50), rank(millis, 95), rank(millis, 99));
+    }
+
+    private static long rank(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    static Duration duration(PublishTimeline timeline, Phase phase) {
+        PublishTimings timings = timeline.timings();
+        return switch (phase) {
+            case QUEUED -> Duration.between(timeline.accepted(), timings.dequeued());
+            case CLAIM -> Duration.between(timings.dequeued(), timings.writeStarted());
+            case WRITE -> Duration.between(timings.writeStarted(), timings.writeCompleted());
+            case COMMIT -> Duration.between(timings.writeCompleted(), timings.committed());
+            case TOTAL -> Duration.between(timeline.accepted(), timings.committed());
+        };
+    }
+
+    /**
+     * Size ranges, roughly a factor of 16 apart, from small documents to videos.
+     */
+    enum SizeBucket {
+        UNDER_64KB("0-64KB", 64L << 10),
+        UNDER_1MB("64KB-1MB", 1L << 20),
+        UNDER_16MB("1MB-16MB", 16L << 20),
+        UNDER_256MB("16MB-256MB", 256L << 20),
+        LARGER("256MB+", Long.MAX_VALUE);
+
+        private final String label;
+        private final long limit;
+
+        SizeBucket(String label, long limit) {
+            this.label = label;
+            this.limit = limit;
+        }
+
+        static SizeBucket of(long size) {
+            for (SizeBucket bucket : values()) {
+                if (size < bucket.limit) {
+                    return bucket;
+                }
+            }
+            return LARGER;
+        }
+    }
+
+    private record GroupKey(String contentType, SizeBucket sizeBucket) {
+    }
+}
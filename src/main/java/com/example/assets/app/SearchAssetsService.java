@@ -1,16 +1,20 @@
 package com.example.assets.app;
 
 import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetCursor;
+import com.example.assets.domain.model.AssetPage;
 import com.example.assets.domain.ports.AssetRepositoryPort;
 import com.example.assets.domain.usecase.SearchAssetsUseCase;
 import com.example.assets.domain.model.SortDirection;
 
 import java.time.Instant;
-import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Application service for searching assets.
- * Delegates the filtering logic to the AssetRepositoryPort.
+ * Delegates the filtering logic to the AssetRepositoryPort. The search
+ * version is the repository change version.
  */
 public class SearchAssetsService implements SearchAssetsUseCase {
 
@@ -21,13 +25,33 @@ public class SearchAssetsService implements SearchAssetsUseCase {
     }
 
     @Override
-    public List<Asset> execute(
+    public AssetPage execute(
             Instant start,
             Instant end,
             String filenameRegex,
             String filetype,
-            SortDirection direction
+            SortDirection direction,
+            AssetCursor after,
+            int limit
     ) {
-        return repo.search(start, end, filenameRegex, filetype, direction);
+        return repo.search(start, end, filenameRegex, filetype, direction, after, limit);
+    }
+
+    @Override
+    public void execute(
+            Instant start,
+            Instant end,
+            String filenameRegex,
+            String filetype,
+            SortDirection direction,
+            Consumer<Asset> consumer
+    ) {
+        repo.forEach(start, end, filenameRegex, filetype, direction, consumer);
+    }
+
+    @Override
+    public Optional<String> version() {
+        var version = repo.changeVersion();
+        return version.isPresent() ? Optional.of(Long.toHexString(version.getAsLong())) : Optional.empty();
     }
 }
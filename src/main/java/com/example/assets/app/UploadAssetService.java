@@ -1,33 +1,169 @@
 package com.example.assets.app;
 
+import com.example.assets.domain.exception.UploadRejectedException;
 import com.example.assets.domain.model.Asset;
 import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.AssetUpload;
 import com.example.assets.domain.ports.AssetRepositoryPort;
 import com.example.assets.domain.usecase.UploadAssetUseCase;
 import com.example.assets.infra.publisher.PublisherOrchestrator;
+import com.example.assets.infra.spool.UploadSpool;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskRejectedException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * Application service for uploading assets.
- * Creates a pending asset, saves it, and triggers asynchronous publishing.
+ * Admits the upload, moves its content into the durable publish queue,
+ * saves a pending asset and triggers asynchronous publishing. The
+ * admission budget is held until the publication has finished. The
+ * enqueue, insert and submit stages are timed, see {@link PipelineMetrics}.
  */
 public class UploadAssetService implements UploadAssetUseCase {
 
     private final AssetRepositoryPort repo;
     private final PublisherOrchestrator orchestrator;
+    private final AdmissionController admission;
+    private final UploadSpool spool;
+    private final Timer enqueueTimer;
+    private final Timer insertTimer;
+    private final Timer submitTimer;
+    private final DistributionSummary sizes;
 
-    public UploadAssetService(AssetRepositoryPort repo, PublisherOrchestrator orchestrator) {
+    public UploadAssetService(AssetRepositoryPort repo, PublisherOrchestrator orchestrator,
+                              AdmissionController admission, UploadSpool spool, MeterRegistry meterRegistry) {
         this.repo = repo;
         this.orchestrator = orchestrator;
+        this.admission = admission;
+        this.spool = spool;
+        this.enqueueTimer = PipelineMetrics.stage(meterRegistry, "enqueue");
+        this.insertTimer = PipelineMetrics.stage(meterRegistry, "insert");
+        this.submitTimer = PipelineMetrics.stage(meterRegistry, "submit");
+        this.sizes = PipelineMetrics.size(meterRegistry);
     }
 
     @Override
     public UUID execute(String filename, String contentType, byte[] data) {
-        var id = UUID.randomUUID();
+        var pending = pending(filename, contentType);
+        admitted(data.length, List.of(pending), queued -> {
+            Path content = enqueue(queued, () -> spool.enqueue(pending.id(), data));
+            insertTimer.record(() -> repo.save(pending));
+            return submitTimer.record(() -> orchestrator.publishAsync(pending.id(), content, filename, contentType));
+        });
+        sizes.record(data.length);
+        return pending.id();
+    }
+
+    @Override
+    public UUID execute(String filename, String contentType, Path content) {
+        var pending = pending(filename, contentType);
+        long size = sizeOf(content);
+        admitted(size, List.of(pending), queued -> {
+            Path file = enqueue(queued, () -> spool.enqueue(pending.id(), content));
+            insertTimer.record(() -> repo.save(pending));
+            return submitTimer.record(() -> orchestrator.publishAsync(pending.id(), file, filename, contentType));
+        });
+        sizes.record(size);
+        return pending.id();
+    }
+
+    @Override
+    public List<UUID> execute(List<AssetUpload> uploads) {
+        List<Asset> pending = new ArrayList<>(uploads.size());
+        long[] partSizes = new long[uploads.size()];
+        long bytes = 0;
+        for (int i = 0; i < uploads.size(); i++) {
+            var upload = uploads.get(i);
+            pending.add(pending(upload.filename(), upload.contentType()));
+            partSizes[i] = sizeOf(upload.content());
+            bytes += partSizes[i];
+        }
+
+        Map<UUID, AssetUpload> contents = new LinkedHashMap<>();
+        admitted(bytes, pending, queued -> {
+            for (int i = 0; i < uploads.size(); i++) {
+                var asset = pending.get(i);
+                var upload = uploads.get(i);
+                Path file = enqueue(queued, () -> spool.enqueue(asset.id(), upload.content()));
+                contents.put(asset.id(), new AssetUpload(upload.filename(), upload.contentType(), file));
+            }
+            insertTimer.record(() -> repo.insertAll(pending));
+            return submitTimer.record(() -> orchestrator.publishAllAsync(contents));
+        });
+        for (long size : partSizes) {
+            sizes.record(size);
+        }
+        return List.copyOf(contents.keySet());
+    }
+
+    /**
+     * Runs the submission under an admission permit, which is given back
+     * when the publication completes, or straight away if it never starts.
+     * A rejected upload leaves its content with the caller; once admitted,
+     * content that is not submitted leaves the queue. A full executor is
+     * reported as overload, like a long queueing delay, and the assets
+     * already saved are marked as failed.
+     */
+    private void admitted(long bytes, List<Asset> pending,
+                          Function<List<Path>, CompletableFuture<Void>> submission) {
+        var permit = admission.admit(bytes);
+        List<Path> queued = new ArrayList<>(pending.size());
+        try {
+            submission.apply(queued).whenComplete((ignored, error) -> permit.release());
+        } catch (RuntimeException e) {
+            permit.release();
+            queued.forEach(spool::discard);
+            if (e instanceof TaskRejectedException) {
+                pending.forEach(asset -> repo.updateStatus(asset.id(), AssetStatus.PENDING, AssetStatus.FAILED));
+                throw new UploadRejectedException(UploadRejectedException.Reason.OVERLOADED,
+                        admission.retryAfter(), "Publishing queue is full, retry later");
+            }
+            throw e;
+        }
+    }
+
+    private Path enqueue(List<Path> queued, QueueWrite write) {
+        long started = System.nanoTime();
+        try {
+            Path file = write.enqueue();
+            enqueueTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            queued.add(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long sizeOf(Path content) {
+        try {
+            return Files.size(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        var pending = new Asset(
-                id,
+    @FunctionalInterface
+    private interface QueueWrite {
+        Path enqueue() throws IOException;
+    }
+
+    private static Asset pending(String filename, String contentType) {
+        return new Asset(
+                UUID.randomUUID(),
                 filename,
                 contentType,
                 null,
@@ -35,10 +171,5 @@ public class UploadAssetService implements UploadAssetUseCase {
                 null,
                 AssetStatus.PENDING
         );
-
-        repo.save(pending);
-        orchestrator.publishAsync(id, data, filename, contentType);
-
-        return id;
     }
 }
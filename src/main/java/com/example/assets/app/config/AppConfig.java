@@ -1,17 +1,42 @@
 package com.example.assets.app.config;
 
+import com.example.assets.app.AdmissionController;
 import com.example.assets.app.SearchAssetsService;
 import com.example.assets.app.UploadAssetService;
 import com.example.assets.app.FindAssetService;
+import com.example.assets.app.PublishLatencyService;
+import com.example.assets.app.DownloadAssetService;
+import com.example.assets.domain.exception.UploadRejectedException.Reason;
+import com.example.assets.domain.ports.AssetPublisherPort;
 import com.example.assets.domain.ports.AssetRepositoryPort;
 import com.example.assets.domain.usecase.SearchAssetsUseCase;
 import com.example.assets.domain.usecase.UploadAssetUseCase;
 import com.example.assets.domain.usecase.FindAssetUseCase;
+import com.example.assets.domain.usecase.PublishLatencyUseCase;
+import com.example.assets.domain.usecase.DownloadAssetUseCase;
 import com.example.assets.infra.persistence.AssetJpaRepository;
 import com.example.assets.infra.persistence.AssetRepositoryAdapter;
+import com.example.assets.infra.persistence.CachingAssetRepository;
+import com.example.assets.infra.persistence.MeteredAssetRepository;
+import com.example.assets.infra.publisher.LocalPublisherAdapter;
 import com.example.assets.infra.publisher.PublisherOrchestrator;
+import com.example.assets.infra.publisher.S3PublisherAdapter;
+import com.example.assets.infra.spool.UploadSpool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
 
 /**
  * Application configuration class.
@@ -24,9 +49,41 @@ public class AppConfig {
     @Bean
     public UploadAssetUseCase uploadAssetUseCase(
             AssetRepositoryPort repo,
-            PublisherOrchestrator orchestrator
+            PublisherOrchestrator orchestrator,
+            AdmissionController admission,
+            UploadSpool spool,
+            MeterRegistry meterRegistry
+    ) {
+        return new UploadAssetService(repo, orchestrator, admission, spool, meterRegistry);
+    }
+
+    @Bean
+    public AdmissionController admissionController(
+            MeterRegistry meterRegistry,
+            @Value("${assets.admission.max-bytes:2GB}") DataSize maxBytes,
+            @Value("${assets.admission.max-tasks:100}") int maxTasks,
+            @Value("${assets.admission.queue-delay-target:500ms}") Duration queueDelayTarget,
+            @Value("${assets.admission.queue-delay-interval:5s}") Duration queueDelayInterval,
+            @Value("${assets.admission.retry-after:5s}") Duration retryAfter
     ) {
-        return new UploadAssetService(repo, orchestrator);
+        var admission = new AdmissionController(maxBytes.toBytes(), maxTasks,
+                queueDelayTarget, queueDelayInterval, retryAfter);
+        Gauge.builder("assets.admission.inflight.bytes", admission, AdmissionController::inFlightBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("assets.admission.inflight.tasks", admission, AdmissionController::inFlightTasks)
+                .register(meterRegistry);
+        Gauge.builder("assets.admission.queue.delay", admission, a -> a.minQueueDelay().toMillis())
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("assets.admission.overloaded", admission, a -> a.overloaded() ? 1 : 0)
+                .register(meterRegistry);
+        for (Reason reason : Reason.values()) {
+            FunctionCounter.builder("assets.admission.rejected", admission, a -> a.rejected(reason))
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+        return admission;
     }
 
     @Bean
@@ -40,7 +97,67 @@ public class AppConfig {
     }
 
     @Bean
-    public AssetRepositoryPort assetRepositoryPort(AssetJpaRepository jpa) {
-        return new AssetRepositoryAdapter(jpa);
+    public PublishLatencyUseCase publishLatencyUseCase(
+            AssetRepositoryPort repo,
+            @Value("${assets.timings.max-samples:100000}") int maxSamples
+    ) {
+        return new PublishLatencyService(repo, maxSamples);
+    }
+
+    @Bean
+    public DownloadAssetUseCase downloadAssetUseCase(AssetRepositoryPort repo, AssetPublisherPort publisher) {
+        return new DownloadAssetService(repo, publisher);
+    }
+
+    @Bean
+    public AssetRepositoryPort assetRepositoryAdapter(AssetJpaRepository jpa, EntityManager em) {
+        return new AssetRepositoryAdapter(jpa, em);
+    }
+
+    @Bean
+    @Primary
+    public AssetRepositoryPort assetRepositoryPort(
+            @Qualifier("assetRepositoryAdapter") AssetRepositoryPort adapter,
+            MeterRegistry meterRegistry,
+            @Value("${assets.cache.maximum-size:10000}") long maximumSize,
+            @Value("${assets.cache.terminal-ttl:1h}") Duration terminalTtl,
+            @Value("${assets.cache.in-progress-ttl:2s}") Duration inProgressTtl
+    ) {
+        var metered = new MeteredAssetRepository(adapter, meterRegistry);
+        var repo = new CachingAssetRepository(metered, maximumSize, terminalTtl, inProgressTtl);
+        CaffeineCacheMetrics.monitor(meterRegistry, repo.cache(), "assets");
+        return repo;
+    }
+
+    /**
+     * The storage assets are published to, selected with
+     * {@code assets.storage.type}: {@code local} or {@code s3}.
+     */
+    @Bean
+    @Primary
+    public AssetPublisherPort assetPublisherPort(
+            LocalPublisherAdapter local,
+            MeterRegistry meterRegistry,
+            @Value("${assets.storage.type:local}") String type,
+            @Value("${assets.storage.s3.endpoint:}") URI endpoint,
+            @Value("${assets.storage.s3.region:us-east-1}") String region,
+            @Value("${assets.storage.s3.bucket:}") String bucket,
+            @Value("${assets.storage.s3.access-key:}") String accessKey,
+            @Value("${assets.storage.s3.secret-key:}") String secretKey,
+            @Value("${assets.storage.s3.path-style:true}") boolean pathStyle,
+            @Value("${assets.storage.s3.part-size:8MB}") DataSize partSize,
+            @Value("${assets.storage.s3.parallelism:4}") int parallelism,
+            @Value("${assets.storage.s3.max-attempts:3}") int maxAttempts,
+            @Value("${assets.storage.s3.retry-backoff:200ms}") Duration retryBackoff,
+            @Value("${assets.storage.s3.timeout:30s}") Duration timeout,
+            @Value("${assets.storage.s3.presign-expiry:15m}") Duration presignExpiry
+    ) {
+        return switch (type.toLowerCase(Locale.ROOT)) {
+            case "local" -> local;
+            case "s3" -> new S3PublisherAdapter(new S3PublisherAdapter.Settings(endpoint, region, bucket,
+                    accessKey, secretKey, pathStyle, partSize.toBytes(), parallelism, maxAttempts,
+                    retryBackoff, timeout, presignExpiry), meterRegistry);
+            default -> throw new IllegalArgumentException("Unknown assets.storage.type: " + type);
+        };
     }
 }
@@ -1,22 +1,73 @@
 package com.example.assets.app.config;
 
+import com.example.assets.app.AdmissionController;
+import com.example.assets.app.PipelineMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.Locale;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Configuration class for asynchronous execution.
- * Defines the task executor bean used by @Async methods.
+ * Defines the task executor bean used by @Async methods, either a
+ * fixed thread pool or one virtual thread per task (Java 21+),
+ * selected with {@code assets.async.mode}. Either way, the time each task
+ * waits before it starts is reported to the {@link AdmissionController} and
+ * timed as the {@code queue} stage of {@link PipelineMetrics}, and the
+ * number of running and waiting tasks is exposed as
+ * {@code assets.executor.active} and {@code assets.executor.queued}.
  */
 
 @Configuration
 public class AsyncConfig {
 
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    public Executor taskExecutor(@Value("${assets.async.mode:pool}") String mode,
+                                 @Value("${assets.async.max-concurrency:64}") int maxConcurrency,
+                                 AdmissionController admission,
+                                 MeterRegistry meterRegistry) {
+        TaskDecorator queueDelay = new QueueDelay(admission, PipelineMetrics.stage(meterRegistry, "queue"));
+        return switch (ExecutionMode.valueOf(mode.toUpperCase(Locale.ROOT))) {
+            case POOL -> {
+                var executor = pooled(queueDelay);
+                gauges(meterRegistry, executor,
+                        ThreadPoolTaskExecutor::getActiveCount,
+                        e -> e.getThreadPoolExecutor().getQueue().size());
+                yield executor;
+            }
+            case VIRTUAL -> {
+                var limit = new ConcurrencyLimit(maxConcurrency);
+                var executor = virtual(limit, queueDelay);
+                gauges(meterRegistry, limit, ConcurrencyLimit::active, ConcurrencyLimit::waiting);
+                yield executor;
+            }
+        };
+    }
+
+    private static <T> void gauges(MeterRegistry registry, T executor,
+                                   ToDoubleFunction<T> active, ToDoubleFunction<T> queued) {
+        Gauge.builder("assets.executor.active", executor, active)
+                .description("Publications running")
+                .register(registry);
+        Gauge.builder("assets.executor.queued", executor, queued)
+                .description("Publications waiting for a thread")
+                .register(registry);
+    }
+
+    public static ThreadPoolTaskExecutor pooled(TaskDecorator decorator) {
         var executor = new ThreadPoolTaskExecutor();
+        executor.setTaskDecorator(decorator);
         executor.setCorePoolSize(4);
         executor.setMaxPoolSize(8);
         executor.setQueueCapacity(100);
@@ -24,5 +75,82 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
 
+    /**
+     * Starts a virtual thread per task. Concurrency is capped by a semaphore
+     * taken inside the task, so submitting never blocks the caller and
+     * waiting tasks cost a parked virtual thread instead of a queue slot.
+     * The given decorator runs once the semaphore has been taken.
+     */
+    public static SimpleAsyncTaskExecutor virtual(int maxConcurrency, TaskDecorator decorator) {
+        return virtual(new ConcurrencyLimit(maxConcurrency), decorator);
+    }
+
+    private static SimpleAsyncTaskExecutor virtual(ConcurrencyLimit limit, TaskDecorator decorator) {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("assets.async.mode=virtual requires Java 21 or later, running on "
+                    + Runtime.version());
+        }
+        var executor = new SimpleAsyncTaskExecutor("AsyncVirtual-");
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(task -> limit.decorate(decorator.decorate(task)));
+        // let in-flight publications finish on shutdown
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+
+    public enum ExecutionMode {
+        POOL,
+        VIRTUAL
+    }
+
+    /**
+     * Decoration happens on the submitting thread, so the time between
+     * decorating and running a task is how long it waited in the queue.
+     */
+    private record QueueDelay(AdmissionController admission, Timer timer) implements TaskDecorator {
+
+        @Override
+        public Runnable decorate(Runnable task) {
+            long submitted = System.nanoTime();
+            return () -> {
+                long delay = System.nanoTime() - submitted;
+                admission.recordQueueDelay(delay);
+                timer.record(delay, TimeUnit.NANOSECONDS);
+                task.run();
+            };
+        }
+    }
+
+    private static final class ConcurrencyLimit implements TaskDecorator {
+
+        private final int maxConcurrency;
+        private final Semaphore permits;
+
+        ConcurrencyLimit(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            this.permits = new Semaphore(maxConcurrency);
+        }
+
+        int active() {
+            return maxConcurrency - permits.availablePermits();
+        }
+
+        int waiting() {
+            return permits.getQueueLength();
+        }
+
+        @Override
+        public Runnable decorate(Runnable task) {
+            return () -> {
+                // a Semaphore parks without pinning the carrier thread
+                permits.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            };
+        }
+    }
+}
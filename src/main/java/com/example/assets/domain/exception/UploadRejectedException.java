@@ -0,0 +1,34 @@
+package com.example.assets.domain.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when an upload is not admitted because the service is at capacity.
+ * The client may retry the same upload after {@link #getRetryAfter()}.
+ */
+public class UploadRejectedException extends RuntimeException {
+
+    private final Reason reason;
+    private final Duration retryAfter;
+
+    public UploadRejectedException(Reason reason, Duration retryAfter, String message) {
+        super(message);
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public enum Reason {
+        /** The in-flight bytes or tasks budget is used up. */
+        BUDGET_EXHAUSTED,
+        /** Publications are queueing for too long; load is being shed. */
+        OVERLOADED
+    }
+}
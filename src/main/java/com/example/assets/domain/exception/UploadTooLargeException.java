@@ -0,0 +1,19 @@
+package com.example.assets.domain.exception;
+
+/**
+ * Thrown when an upload is larger than the service accepts. Unlike
+ * {@link UploadRejectedException}, retrying the same upload cannot succeed.
+ */
+public class UploadTooLargeException extends RuntimeException {
+
+    private final long maxSize;
+
+    public UploadTooLargeException(long maxSize) {
+        super("Upload must not exceed " + maxSize + " bytes");
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+}
@@ -13,6 +13,8 @@ import java.util.UUID;
  * @param size        size of the file in bytes
  * @param uploadDate  timestamp when the file was uploaded/published
  * @param status      current processing status of the asset
+ * @param contentEncoding content-coding the stored bytes are compressed with
+ *                    (see {@link ContentCoding}), or null if stored as is
  */
 public record Asset(
         UUID id,
@@ -21,6 +23,15 @@ public record Asset(
         String url,
         Long size,
         Instant uploadDate,
-        AssetStatus status
+        AssetStatus status,
+        String contentEncoding
 ) {
+
+    /**
+     * An asset whose content is stored uncompressed.
+     */
+    public Asset(UUID id, String filename, String contentType, String url, Long size, Instant uploadDate,
+                 AssetStatus status) {
+        this(id, filename, contentType, url, size, uploadDate, status, null);
+    }
 }
@@ -0,0 +1,33 @@
+package com.example.assets.domain.model;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+/**
+ * Published asset together with where its bytes can be read: a local file,
+ * or a URL of the storage for storages that serve downloads themselves.
+ *
+ * @param asset    published asset metadata
+ * @param file     readable file with the content of the asset, or null if it is not stored locally
+ * @param location URL the content can be downloaded from when there is no local file, or null
+ */
+public record AssetContent(
+        Asset asset,
+        Path file,
+        URI location
+) {
+
+    /**
+     * Content held in a local file.
+     */
+    public AssetContent(Asset asset, Path file) {
+        this(asset, file, null);
+    }
+
+    /**
+     * Content downloaded straight from the storage.
+     */
+    public AssetContent(Asset asset, URI location) {
+        this(asset, null, location);
+    }
+}
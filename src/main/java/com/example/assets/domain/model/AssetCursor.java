@@ -0,0 +1,17 @@
+package com.example.assets.domain.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Position in a search result ordered by (uploadDate, id).
+ * The next page starts right after the asset identified by this cursor.
+ *
+ * @param uploadDate upload date of the last asset returned, null if it had none
+ * @param id         id of the last asset returned, tie-breaker for equal dates
+ */
+public record AssetCursor(
+        Instant uploadDate,
+        UUID id
+) {
+}
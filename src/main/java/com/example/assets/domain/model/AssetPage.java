@@ -0,0 +1,15 @@
+package com.example.assets.domain.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated asset search.
+ *
+ * @param items      assets of this page, in search order
+ * @param nextCursor where the next page starts, null if this is the last page
+ */
+public record AssetPage(
+        List<Asset> items,
+        AssetCursor nextCursor
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.assets.domain.model;
+
+import java.nio.file.Path;
+
+/**
+ * A file received for upload, already staged on local disk.
+ *
+ * @param filename    original file name
+ * @param contentType MIME type of the file
+ * @param content     staged content
+ */
+public record AssetUpload(
+        String filename,
+        String contentType,
+        Path content
+) {
+}
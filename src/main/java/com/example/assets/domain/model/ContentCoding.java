@@ -0,0 +1,97 @@
+package com.example.assets.domain.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codec an asset can be stored with, named after its HTTP content-coding
+ * (RFC 9110) so stored bytes can be served as they are to clients that
+ * accept that coding. Both codecs stream through the JDK Deflater.
+ */
+public enum ContentCoding {
+
+    GZIP("gzip", ".gz") {
+        @Override
+        public OutputStream encode(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+
+        @Override
+        public InputStream decode(InputStream in) throws IOException {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+    },
+    DEFLATE("deflate", ".zz") {
+        @Override
+        public OutputStream encode(OutputStream out) {
+            return new DeflaterOutputStream(out);
+        }
+
+        @Override
+        public InputStream decode(InputStream in) {
+            return new InflaterInputStream(in);
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String token;
+    private final String extension;
+
+    ContentCoding(String token, String extension) {
+        this.token = token;
+        this.extension = extension;
+    }
+
+    /**
+     * The content-coding name, as stored with the asset and sent in Content-Encoding.
+     */
+    public String token() {
+        return token;
+    }
+
+    /**
+     * Suffix appended to the names of stored files using this codec.
+     */
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Wraps a stream so that what is written to it is compressed into {@code out}.
+     * Closing the returned stream finishes the compressed data and closes {@code out}.
+     */
+    public abstract OutputStream encode(OutputStream out) throws IOException;
+
+    /**
+     * Wraps a stream of compressed data so that reading it yields the original bytes.
+     */
+    public abstract InputStream decode(InputStream in) throws IOException;
+
+    /**
+     * Looks a codec up by its content-coding name.
+     *
+     * @param token content-coding name, case insensitive; null stands for identity
+     * @return the codec, or empty for identity
+     * @throws IllegalArgumentException if the coding is not supported
+     */
+    public static Optional<ContentCoding> of(String token) {
+        if (token == null || token.isBlank() || "identity".equalsIgnoreCase(token) || "none".equalsIgnoreCase(token)) {
+            return Optional.empty();
+        }
+        String name = token.trim().toLowerCase(Locale.ROOT);
+        for (ContentCoding coding : values()) {
+            if (coding.token.equals(name)) {
+                return Optional.of(coding);
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content coding: " + token);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.assets.domain.model;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latency percentiles of each publication phase over the assets published
+ * in a time window, grouped by content type and size bucket.
+ *
+ * @param since     start of the window
+ * @param until     end of the window
+ * @param samples   number of publications the percentiles are computed from
+ * @param truncated true if the window held more publications than were sampled;
+ *                  the most recent ones are kept
+ * @param groups    one entry per content type and size bucket, by content type
+ *                  then increasing size
+ */
+public record PublishLatencyReport(
+        Instant since,
+        Instant until,
+        int samples,
+        boolean truncated,
+        List<Group> groups
+) {
+
+    /**
+     * Phases of a publication, between two consecutive lifecycle timestamps,
+     * plus the whole of it.
+     */
+    public enum Phase {
+        /** accepted until picked up by a worker */
+        QUEUED,
+        /** picked up until claimed as PROCESSING */
+        CLAIM,
+        /** the storage write */
+        WRITE,
+        /** stored until committed as PUBLISHED */
+        COMMIT,
+        /** accepted until committed */
+        TOTAL
+    }
+
+    /**
+     * @param contentType MIME type of the assets
+     * @param sizeBucket  size range of the assets, e.g. {@code 64KB-1MB}
+     * @param count       number of publications in the group
+     * @param phases      percentiles of every phase
+     */
+    public record Group(
+            String contentType,
+            String sizeBucket,
+            int count,
+            Map<Phase, Percentiles> phases
+    ) {
+    }
+
+    /**
+     * Latency percentiles, in milliseconds.
+     */
+    public record Percentiles(
+            long p50,
+            long p95,
+            long p99
+    ) {
+    }
+}
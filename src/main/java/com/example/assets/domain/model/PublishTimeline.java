@@ -0,0 +1,20 @@
+package com.example.assets.domain.model;
+
+import java.time.Instant;
+
+/**
+ * Lifecycle of a published asset, from acceptance to the PUBLISHED commit,
+ * with what its latency depends on.
+ *
+ * @param contentType MIME type of the asset
+ * @param size        size of the content in bytes
+ * @param accepted    the upload was accepted and the asset saved as PENDING
+ * @param timings     the publication steps
+ */
+public record PublishTimeline(
+        String contentType,
+        long size,
+        Instant accepted,
+        PublishTimings timings
+) {
+}
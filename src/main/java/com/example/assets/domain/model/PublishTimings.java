@@ -0,0 +1,20 @@
+package com.example.assets.domain.model;
+
+import java.time.Instant;
+
+/**
+ * When a publication went through each of its steps, as seen by the worker
+ * that performed it.
+ *
+ * @param dequeued       the worker picked the asset up
+ * @param writeStarted   the asset was claimed and the storage write started
+ * @param writeCompleted the content was stored
+ * @param committed      the PUBLISHED update was issued; also the upload date
+ */
+public record PublishTimings(
+        Instant dequeued,
+        Instant writeStarted,
+        Instant writeCompleted,
+        Instant committed
+) {
+}
@@ -1,5 +1,11 @@
 package com.example.assets.domain.ports;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
+
 /**
  * Port for publishing assets to an external storage (e.g., local FS, S3, etc.).
  */
@@ -13,13 +19,56 @@ public interface AssetPublisherPort {
      * @param contentType MIME type of the file
      * @return information about the published asset (URL and size)
      */
-    PublishedInfo publish(byte[] data, String filename, String contentType);
+    default PublishedInfo publish(byte[] data, String filename, String contentType) {
+        return publish(new ByteArrayInputStream(data), filename, contentType);
+    }
+
+    /**
+     * Publishes an asset by streaming its content to the underlying storage system.
+     * Implementations must not buffer the whole stream in memory. The stream is
+     * not closed by this method.
+     *
+     * @param data        file content as a stream
+     * @param filename    name of the file
+     * @param contentType MIME type of the file
+     * @return information about the published asset (URL and size)
+     */
+    PublishedInfo publish(InputStream data, String filename, String contentType);
+
+    /**
+     * Resolves the local file backing a published asset, for storages that
+     * keep content on the local filesystem.
+     *
+     * @param url location returned when the asset was published
+     * @return the file, or empty if the URL is not served from local storage
+     */
+    default Optional<Path> resolve(String url) {
+        return Optional.empty();
+    }
+
+    /**
+     * Gives a URL clients can download a published asset from directly, for
+     * storages that do not keep content on the local filesystem. It may
+     * only be valid for a limited time.
+     *
+     * @param url location returned when the asset was published
+     * @return the download URL, or empty if the URL is not served by this storage
+     */
+    default Optional<URI> locate(String url) {
+        return Optional.empty();
+    }
 
     /**
      * Record representing information of a published asset.
      *
-     * @param url  location of the published asset
-     * @param size size of the asset in bytes
+     * @param url             location of the published asset
+     * @param size            size of the asset in bytes, before any compression
+     * @param contentEncoding content-coding the stored bytes are compressed with, or null
      */
-    record PublishedInfo(String url, long size) {}
+    record PublishedInfo(String url, long size, String contentEncoding) {
+
+        public PublishedInfo(String url, long size) {
+            this(url, size, null);
+        }
+    }
 }
@@ -1,16 +1,26 @@
 package com.example.assets.domain.ports;
 
 import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetCursor;
+import com.example.assets.domain.model.AssetPage;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.PublishTimeline;
+import com.example.assets.domain.model.PublishTimings;
 import com.example.assets.domain.model.SortDirection;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Port for accessing and persisting assets.
  * Abstracts the persistence mechanism (DB, in-memory, etc.).
+ * Assets returned by the read methods are plain values with no link to
+ * the underlying storage; changes are only persisted through {@link #save}.
  */
 public interface AssetRepositoryPort {
 
@@ -21,6 +31,38 @@ public interface AssetRepositoryPort {
      * @return the saved asset
      */
     Asset save(Asset asset);
+
+    /**
+     * Inserts new assets in batches. Unlike {@link #save} it never checks
+     * whether the assets already exist.
+     *
+     * @param assets domain assets that are not stored yet
+     */
+    void insertAll(List<Asset> assets);
+
+    /**
+     * Moves an asset to a new status, only if it is still in the expected one.
+     *
+     * @param id       UUID of the asset
+     * @param expected status the asset must currently have
+     * @param status   new status
+     * @return true if the asset was updated, false if it does not exist or is in another status
+     */
+    boolean updateStatus(UUID id, AssetStatus expected, AssetStatus status);
+
+    /**
+     * Marks a PROCESSING asset as PUBLISHED together with its storage details.
+     *
+     * @param id         UUID of the asset
+     * @param url        location of the published content
+     * @param size       size of the content in bytes
+     * @param contentEncoding content-coding of the stored bytes, or null if stored as is
+     * @param timings    when each publication step happened; the commit is the
+     *                   time the update is issued, also the upload date
+     * @return true if the asset was updated, false if it does not exist or is not PROCESSING
+     */
+    boolean markPublished(UUID id, String url, long size, String contentEncoding, PublishTimings timings);
+
     /**
      * Finds an asset by its ID.
      *
@@ -30,20 +72,90 @@ public interface AssetRepositoryPort {
     Optional<Asset> findById(UUID id);
 
     /**
-     * Searches for assets with optional filters and sorting.
+     * Finds several assets by ID in one read, past any copy kept in front
+     * of the storage, for callers that know they have just changed.
+     *
+     * @param ids UUIDs of the assets
+     * @return the stored assets among them, in no particular order
+     */
+    List<Asset> findCurrentByIds(Collection<UUID> ids);
+
+    /**
+     * Finds assets still PENDING or PROCESSING that were accepted before
+     * the given instant, or before acceptance times were recorded, oldest
+     * first.
+     *
+     * @param acceptedBefore latest acceptance time
+     * @param limit          maximum number of assets
+     * @return the unsettled assets
+     */
+    List<Asset> findUnsettled(Instant acceptedBefore, int limit);
+
+    /**
+     * Searches one page of assets with optional filters, using keyset
+     * pagination on (uploadDate, id). Assets without an upload date
+     * come last, ordered by id.
      *
      * @param start         optional start date filter
      * @param end           optional end date filter
      * @param filenameRegex optional regex for filename
      * @param filetype      optional file type filter
      * @param direction     sort direction by uploadDate
-     * @return list of matching assets
+     * @param after         optional cursor of the last asset of the previous page
+     * @param limit         maximum number of assets in the page
+     * @return page of matching assets with the cursor of the next one
      */
-    List<Asset> search(
+    AssetPage search(
             Instant start,
             Instant end,
             String filenameRegex,
             String filetype,
-            SortDirection direction
+            SortDirection direction,
+            AssetCursor after,
+            int limit
     );
+
+    /**
+     * Reads every asset matching the optional filters from a database
+     * cursor, handing each one to the consumer as soon as it is read.
+     * Nothing is accumulated, so memory use does not depend on the
+     * number of matches.
+     *
+     * @param start         optional start date filter
+     * @param end           optional end date filter
+     * @param filenameRegex optional regex for filename
+     * @param filetype      optional file type filter
+     * @param direction     sort direction by uploadDate
+     * @param consumer      receives the matching assets in order
+     */
+    void forEach(
+            Instant start,
+            Instant end,
+            String filenameRegex,
+            String filetype,
+            SortDirection direction,
+            Consumer<Asset> consumer
+    );
+
+    /**
+     * Reads the lifecycle of the assets published since the given instant,
+     * most recent first. Assets published before their timings were
+     * recorded are left out.
+     *
+     * @param since earliest upload date
+     * @param limit maximum number of timelines
+     * @return timelines by decreasing upload date
+     */
+    List<PublishTimeline> findPublishTimelines(Instant since, int limit);
+
+    /**
+     * A number that changes once any write has committed, whichever
+     * instance made it, so that a search result can be known to be
+     * unchanged without running it again.
+     *
+     * @return the current version, or empty if writes are not tracked
+     */
+    default OptionalLong changeVersion() {
+        return OptionalLong.empty();
+    }
 }
@@ -0,0 +1,22 @@
+package com.example.assets.domain.ports;
+
+import com.example.assets.domain.model.AssetStatus;
+
+import java.util.UUID;
+
+/**
+ * Port notified of the status transitions of the assets being published,
+ * so that clients can be told instead of polling.
+ */
+@FunctionalInterface
+public interface AssetStatusNotifierPort {
+
+    /**
+     * Called right after a transition has been stored. Implementations must
+     * return quickly: they run on the publishing thread.
+     *
+     * @param assetId id of the asset
+     * @param status  status the asset has just reached
+     */
+    void statusChanged(UUID assetId, AssetStatus status);
+}
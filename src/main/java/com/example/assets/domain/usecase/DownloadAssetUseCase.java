@@ -0,0 +1,22 @@
+package com.example.assets.domain.usecase;
+
+import com.example.assets.domain.model.AssetContent;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Use case interface for reading the content of a published asset.
+ */
+public interface DownloadAssetUseCase {
+
+    /**
+     * Locates the stored content of an asset.
+     *
+     * @param id UUID of the asset
+     * @return optional containing the content if the asset is published
+     *         and its bytes are readable from local storage or downloadable
+     *         from the storage
+     */
+    Optional<AssetContent> execute(UUID id);
+}
@@ -2,6 +2,8 @@ package com.example.assets.domain.usecase;
 
 import com.example.assets.domain.model.Asset;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,4 +19,13 @@ public interface FindAssetUseCase {
      * @return optional containing the asset if found
      */
     Optional<Asset> execute(UUID id);
+
+    /**
+     * Finds several assets at once, bypassing any cached copy, for callers
+     * that have just been told they changed.
+     *
+     * @param ids UUIDs of the assets
+     * @return the stored assets among them, in no particular order
+     */
+    List<Asset> executeCurrent(Collection<UUID> ids);
 }
\ No newline at end of file
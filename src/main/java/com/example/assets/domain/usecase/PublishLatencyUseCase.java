@@ -0,0 +1,20 @@
+package com.example.assets.domain.usecase;
+
+import com.example.assets.domain.model.PublishLatencyReport;
+
+import java.time.Duration;
+
+/**
+ * Use case interface for reporting how long publications take.
+ */
+public interface PublishLatencyUseCase {
+
+    /**
+     * Computes the latency percentiles of every publication phase over the
+     * assets published recently.
+     *
+     * @param window how far back to look from now
+     * @return percentiles by content type and size bucket
+     */
+    PublishLatencyReport execute(Duration window);
+}
@@ -1,10 +1,13 @@
 package com.example.assets.domain.usecase;
 
 import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetCursor;
+import com.example.assets.domain.model.AssetPage;
 import com.example.assets.domain.model.SortDirection;
 
 import java.time.Instant;
-import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Use case interface for searching assets.
@@ -13,20 +16,54 @@ import java.util.List;
 public interface SearchAssetsUseCase {
 
     /**
-     * Executes the search for assets based on filters.
+     * Executes a keyset-paginated search for assets based on filters.
+     * Results are ordered by uploadDate and then id, assets without an
+     * upload date come last.
      *
      * @param start         optional start date filter
      * @param end           optional end date filter
      * @param filenameRegex optional filename regex filter
      * @param filetype      optional file type filter
      * @param direction     sort direction by uploadDate
-     * @return list of matching assets
+     * @param after         optional cursor returned with the previous page
+     * @param limit         maximum number of assets in the page
+     * @return page of matching assets
      */
-    List<Asset> execute(
+    AssetPage execute(
             Instant start,
             Instant end,
             String filenameRegex,
             String filetype,
-            SortDirection direction
+            SortDirection direction,
+            AssetCursor after,
+            int limit
     );
+
+    /**
+     * Executes the search for assets based on filters, streaming every
+     * match to the consumer while it is read instead of collecting it.
+     *
+     * @param start         optional start date filter
+     * @param end           optional end date filter
+     * @param filenameRegex optional filename regex filter
+     * @param filetype      optional file type filter
+     * @param direction     sort direction by uploadDate
+     * @param consumer      receives the matching assets in order
+     */
+    void execute(
+            Instant start,
+            Instant end,
+            String filenameRegex,
+            String filetype,
+            SortDirection direction,
+            Consumer<Asset> consumer
+    );
+
+    /**
+     * An opaque value that changes whenever the result of a search may have
+     * changed, cheap enough to be checked before running the search.
+     *
+     * @return the current version, or empty if changes are not tracked
+     */
+    Optional<String> version();
 }
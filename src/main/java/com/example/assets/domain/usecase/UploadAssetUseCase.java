@@ -1,5 +1,9 @@
 package com.example.assets.domain.usecase;
 
+import com.example.assets.domain.model.AssetUpload;
+
+import java.nio.file.Path;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -17,4 +21,27 @@ public interface UploadAssetUseCase {
      * @return UUID of the newly created asset
      */
     UUID execute(String filename, String contentType, byte[] data);
+
+    /**
+     * Executes the upload of a new asset whose content has already been
+     * staged on local disk. The content is streamed from the file when
+     * published, so it is never loaded into memory as a whole.
+     *
+     * @param filename    name of the uploaded file
+     * @param contentType MIME type of the file
+     * @param content     staged file; ownership passes to the use case, which deletes it once published.
+     *                    If the upload is rejected for lack of capacity the file is left untouched.
+     * @return UUID of the newly created asset
+     */
+    UUID execute(String filename, String contentType, Path content);
+
+    /**
+     * Executes the upload of several assets at once. All pending assets are
+     * created together and published in the background as a single unit of
+     * work, one after the other.
+     *
+     * @param uploads staged files; ownership passes to the use case, which deletes them once published
+     * @return UUIDs of the newly created assets, in the order of the uploads
+     */
+    List<UUID> execute(List<AssetUpload> uploads);
 }
@@ -34,4 +34,17 @@ public class AssetEntity {
 
     @Enumerated(EnumType.STRING)
     private AssetStatus status;
+
+    private String contentEncoding;
+
+    // publication lifecycle, offsets in milliseconds from dequeuedAt
+    private Instant acceptedAt;
+
+    private Instant dequeuedAt;
+
+    private Integer writeStartedMs;
+
+    private Integer writeCompletedMs;
+
+    private Integer committedMs;
 }
@@ -1,8 +1,14 @@
 package com.example.assets.infra.persistence;
 
+import com.example.assets.domain.model.AssetStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.UUID;
 
 /**
@@ -12,4 +18,30 @@ import java.util.UUID;
  */
 public interface AssetJpaRepository
         extends JpaRepository<AssetEntity, UUID>, JpaSpecificationExecutor<AssetEntity> {
+
+    @Modifying
+    @Transactional
+    @Query("update AssetEntity a set a.status = :status where a.id = :id and a.status = :expected")
+    int updateStatus(@Param("id") UUID id,
+                     @Param("expected") AssetStatus expected,
+                     @Param("status") AssetStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("update AssetEntity a set a.status = :status, a.url = :url, a.size = :size,"
+            + " a.contentEncoding = :contentEncoding, a.uploadDate = :uploadDate,"
+            + " a.dequeuedAt = :dequeuedAt, a.writeStartedMs = :writeStartedMs,"
+            + " a.writeCompletedMs = :writeCompletedMs, a.committedMs = :committedMs"
+            + " where a.id = :id and a.status = :expected")
+    int updatePublished(@Param("id") UUID id,
+                        @Param("expected") AssetStatus expected,
+                        @Param("status") AssetStatus status,
+                        @Param("url") String url,
+                        @Param("size") long size,
+                        @Param("contentEncoding") String contentEncoding,
+                        @Param("uploadDate") Instant uploadDate,
+                        @Param("dequeuedAt") Instant dequeuedAt,
+                        @Param("writeStartedMs") int writeStartedMs,
+                        @Param("writeCompletedMs") int writeCompletedMs,
+                        @Param("committedMs") int committedMs);
 }
@@ -1,30 +1,63 @@
 package com.example.assets.infra.persistence;
 
 import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetCursor;
+import com.example.assets.domain.model.AssetPage;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.PublishTimeline;
+import com.example.assets.domain.model.PublishTimings;
 import com.example.assets.domain.ports.AssetRepositoryPort;
 import com.example.assets.domain.model.SortDirection;
-import org.springframework.data.domain.Sort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
-
-import static java.util.stream.Collectors.toList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Adapter implementation of AssetRepositoryPort that uses JPA.
+ * New assets are stamped with the time they are accepted; the publication
+ * timings are kept as millisecond offsets from the moment the asset was
+ * dequeued, three integers instead of three more timestamps. Every write
+ * also bumps one slot of {@code asset_changes} in its own transaction; the
+ * sum of the slots is the {@link #changeVersion} of all instances.
  */
 public class AssetRepositoryAdapter implements AssetRepositoryPort {
 
+    // rows per round trip when streaming; also makes the PostgreSQL driver use a cursor
+    static final int STREAM_FETCH_SIZE = 500;
+
+    // rows per flush when inserting, in line with hibernate.jdbc.batch_size
+    static final int INSERT_BATCH_SIZE = 50;
+
+    // rows of asset_changes, as inserted by V5__asset_change_version.sql
+    static final int CHANGE_SLOTS = 16;
+
     private final AssetJpaRepository jpa;
+    private final EntityManager em;
 
-    public AssetRepositoryAdapter(AssetJpaRepository jpa) {
+    public AssetRepositoryAdapter(AssetJpaRepository jpa, EntityManager em) {
         this.jpa = jpa;
+        this.em = em;
     }
 
-    private static AssetEntity toEntity(Asset asset) {
+    static AssetEntity toEntity(Asset asset) {
         return AssetEntity.builder()
                 .id(asset.id())
                 .filename(asset.filename())
@@ -33,10 +66,11 @@ public class AssetRepositoryAdapter implements AssetRepositoryPort {
                 .size(asset.size())
                 .uploadDate(asset.uploadDate())
                 .status(asset.status())
+                .contentEncoding(asset.contentEncoding())
                 .build();
     }
 
-    private static Asset toDomain(AssetEntity entity) {
+    static Asset toDomain(AssetEntity entity) {
         return new Asset(
                 entity.getId(),
                 entity.getFilename(),
@@ -44,44 +78,294 @@ public class AssetRepositoryAdapter implements AssetRepositoryPort {
                 entity.getUrl(),
                 entity.getSize(),
                 entity.getUploadDate(),
-                entity.getStatus()
+                entity.getStatus(),
+                entity.getContentEncoding()
         );
     }
 
     @Override
+    @Transactional
     public Asset save(Asset asset) {
-        return toDomain(jpa.save(toEntity(asset)));
+        Asset saved = toDomain(jpa.save(accepted(toEntity(asset), Instant.now())));
+        bumpChangeVersion();
+        return saved;
+    }
+
+    /**
+     * Persists instead of merging, so no SELECT precedes each INSERT, and
+     * flushes every {@link #INSERT_BATCH_SIZE} rows so the inserts go out
+     * as JDBC batches while the persistence context stays small.
+     */
+    @Override
+    @Transactional
+    public void insertAll(List<Asset> assets) {
+        Instant now = Instant.now();
+        for (int i = 0; i < assets.size(); i++) {
+            em.persist(accepted(toEntity(assets.get(i)), now));
+            if ((i + 1) % INSERT_BATCH_SIZE == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        bumpChangeVersion();
+    }
+
+    @Override
+    @Transactional
+    public boolean updateStatus(UUID id, AssetStatus expected, AssetStatus status) {
+        boolean updated = jpa.updateStatus(id, expected, status) == 1;
+        if (updated) {
+            bumpChangeVersion();
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public boolean markPublished(UUID id, String url, long size, String contentEncoding, PublishTimings timings) {
+        Instant dequeued = timings.dequeued();
+        boolean updated = jpa.updatePublished(id, AssetStatus.PROCESSING, AssetStatus.PUBLISHED, url, size,
+                contentEncoding, timings.committed(), dequeued, offset(dequeued, timings.writeStarted()),
+                offset(dequeued, timings.writeCompleted()), offset(dequeued, timings.committed())) == 1;
+        if (updated) {
+            bumpChangeVersion();
+        }
+        return updated;
+    }
+
+    /**
+     * Every committed write has added one to a slot, so the sum only grows
+     * and no commit can leave it unchanged, however late it lands. Reading
+     * it is a scan of {@link #CHANGE_SLOTS} rows.
+     */
+    @Override
+    public OptionalLong changeVersion() {
+        Number version = (Number) em.createNativeQuery("SELECT sum(version) FROM asset_changes")
+                .getSingleResult();
+        return OptionalLong.of(version.longValue());
+    }
+
+    /**
+     * Issued last, so that the row lock it takes is only held until the
+     * commit that follows. The slot comes from the thread, so writers on
+     * different threads mostly lock different rows, and a transaction,
+     * which stays on one thread, never locks two slots and cannot deadlock
+     * on them.
+     */
+    private void bumpChangeVersion() {
+        em.createNativeQuery("UPDATE asset_changes SET version = version + 1 WHERE slot = :slot")
+                .setParameter("slot", (int) Math.floorMod(Thread.currentThread().getId(), CHANGE_SLOTS))
+                .executeUpdate();
+    }
+
+    /**
+     * A bounded range scan of the upload date index, reading only the
+     * lifecycle columns.
+     */
+    @Override
+    public List<PublishTimeline> findPublishTimelines(Instant since, int limit) {
+        var cb = em.getCriteriaBuilder();
+        var query = cb.createTupleQuery();
+        var root = query.from(AssetEntity.class);
+        query.multiselect(
+                        root.get("contentType"),
+                        root.get("size"),
+                        root.get("acceptedAt"),
+                        root.get("dequeuedAt"),
+                        root.get("writeStartedMs"),
+                        root.get("writeCompletedMs"),
+                        root.get("committedMs"))
+                .where(cb.greaterThanOrEqualTo(root.get("uploadDate"), since),
+                        cb.equal(root.get("status"), AssetStatus.PUBLISHED),
+                        cb.isNotNull(root.get("acceptedAt")),
+                        cb.isNotNull(root.get("dequeuedAt")))
+                .orderBy(cb.desc(root.get("uploadDate")));
+
+        List<Tuple> rows = em.createQuery(query).setMaxResults(limit).getResultList();
+        List<PublishTimeline> timelines = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Instant dequeued = row.get(3, Instant.class);
+            timelines.add(new PublishTimeline(
+                    row.get(0, String.class),
+                    row.get(1, Long.class),
+                    row.get(2, Instant.class),
+                    new PublishTimings(
+                            dequeued,
+                            dequeued.plusMillis(row.get(4, Integer.class)),
+                            dequeued.plusMillis(row.get(5, Integer.class)),
+                            dequeued.plusMillis(row.get(6, Integer.class)))));
+        }
+        return timelines;
+    }
+
+    private static AssetEntity accepted(AssetEntity entity, Instant acceptedAt) {
+        entity.setAcceptedAt(acceptedAt);
+        return entity;
+    }
+
+    // an int holds almost 25 days of milliseconds, far beyond any publication
+    private static int offset(Instant from, Instant to) {
+        return (int) Math.min(Integer.MAX_VALUE, Duration.between(from, to).toMillis());
     }
 
     @Override
     public Optional<Asset> findById(UUID id) {
-        return jpa.findById(id).map(AssetRepositoryAdapter::toDomain);
+        var cb = em.getCriteriaBuilder();
+        var query = cb.createQuery(Asset.class);
+        var root = query.from(AssetEntity.class);
+        query.select(projection(cb, root)).where(cb.equal(root.get("id"), id));
+
+        return em.createQuery(query).getResultList().stream().findFirst();
+    }
+
+    @Override
+    public List<Asset> findCurrentByIds(Collection<UUID> ids) {
+        var cb = em.getCriteriaBuilder();
+        var query = cb.createQuery(Asset.class);
+        var root = query.from(AssetEntity.class);
+        query.select(projection(cb, root)).where(root.get("id").in(ids));
+
+        return em.createQuery(query).getResultList();
+    }
+
+    /**
+     * A scan of the partial index over the unsettled statuses, which only
+     * ever holds the assets still being published.
+     */
+    @Override
+    public List<Asset> findUnsettled(Instant acceptedBefore, int limit) {
+        var cb = em.getCriteriaBuilder();
+        var query = cb.createQuery(Asset.class);
+        var root = query.from(AssetEntity.class);
+        query.select(projection(cb, root))
+                .where(root.get("status").in(AssetStatus.PENDING, AssetStatus.PROCESSING),
+                        cb.or(cb.isNull(root.get("acceptedAt")),
+                                cb.lessThan(root.get("acceptedAt"), acceptedBefore)))
+                .orderBy(cb.asc(root.get("acceptedAt")));
+
+        return em.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Keyset pagination in two index-friendly segments: rows with an upload
+     * date ordered by (uploadDate, id), then rows without one ordered by id.
+     * Each segment is a bounded range scan, never an OFFSET.
+     */
+    @Override
+    public AssetPage search(
+            Instant start,
+            Instant end,
+            String filenameRegex,
+            String filetype,
+            SortDirection direction,
+            AssetCursor after,
+            int limit
+    ) {
+        boolean ascending = direction == SortDirection.ASC;
+        Specification<AssetEntity> filters = filters(start, end, filenameRegex, filetype);
+
+        // fetch one extra row to know whether there is a next page
+        List<Asset> rows = new ArrayList<>(limit + 1);
+        boolean inDatedSegment = after == null || after.uploadDate() != null;
+        if (inDatedSegment) {
+            var dated = filters
+                    .and(AssetSpecifications.uploadDatePresent())
+                    .and(after == null ? null
+                            : AssetSpecifications.after(after.uploadDate(), after.id(), ascending));
+            rows.addAll(fetch(select(dated, ascending, "uploadDate", "id"), limit + 1));
+        }
+        // a date filter never matches rows without a date
+        if (rows.size() <= limit && start == null && end == null) {
+            var undated = filters
+                    .and(AssetSpecifications.uploadDateMissing())
+                    .and(inDatedSegment ? null : AssetSpecifications.idAfter(after.id(), ascending));
+            rows.addAll(fetch(select(undated, ascending, "id"), limit + 1 - rows.size()));
+        }
+
+        List<Asset> items = rows.size() > limit ? rows.subList(0, limit) : rows;
+        AssetCursor next = null;
+        if (rows.size() > limit) {
+            Asset last = items.get(items.size() - 1);
+            next = new AssetCursor(last.uploadDate(), last.id());
+        }
+        return new AssetPage(items, next);
     }
 
+    /**
+     * Streams the matches from a server-side cursor inside a read-only
+     * transaction. Rows are projected, so nothing accumulates in the
+     * persistence context however large the result is.
+     */
     @Override
-    public List<Asset> search(
+    @Transactional(readOnly = true)
+    public void forEach(
             Instant start,
             Instant end,
             String filenameRegex,
             String filetype,
-            SortDirection direction
+            SortDirection direction,
+            Consumer<Asset> consumer
     ) {
-        Specification<AssetEntity> spec = Specification.allOf(
+        try (Stream<Asset> rows = select(filters(start, end, filenameRegex, filetype),
+                direction == SortDirection.ASC, "uploadDate", "id")
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream()) {
+            rows.forEach(consumer);
+        }
+    }
+
+    /**
+     * Read queries select the columns straight into {@link Asset} records
+     * instead of loading entities: no persistence-context registration, no
+     * dirty-checking snapshot and no second copy into the domain model.
+     */
+    private TypedQuery<Asset> select(Specification<AssetEntity> spec, boolean ascending, String... orderBy) {
+        var cb = em.getCriteriaBuilder();
+        var query = cb.createQuery(Asset.class);
+        var root = query.from(AssetEntity.class);
+        query.select(projection(cb, root));
+        var predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        List<Order> order = new ArrayList<>(orderBy.length);
+        for (String attribute : orderBy) {
+            order.add(ascending ? cb.asc(root.get(attribute)) : cb.desc(root.get(attribute)));
+        }
+        query.orderBy(order);
+        return em.createQuery(query);
+    }
+
+    private static CompoundSelection<Asset> projection(CriteriaBuilder cb, Root<AssetEntity> root) {
+        return cb.construct(Asset.class,
+                root.get("id"),
+                root.get("filename"),
+                root.get("contentType"),
+                root.get("url"),
+                root.get("size"),
+                root.get("uploadDate"),
+                root.get("status"),
+                root.get("contentEncoding"));
+    }
+
+    private static List<Asset> fetch(TypedQuery<Asset> query, int limit) {
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    static Specification<AssetEntity> filters(
+            Instant start,
+            Instant end,
+            String filenameRegex,
+            String filetype
+    ) {
+        return Specification.allOf(
                 AssetSpecifications.uploadDateStart(start),
                 AssetSpecifications.uploadDateEnd(end),
                 AssetSpecifications.filenameLike(filenameRegex),
                 AssetSpecifications.filetypeEq(filetype)
         );
-
-        var sort = Sort.by(
-                direction == SortDirection.ASC ? Sort.Direction.ASC : Sort.Direction.DESC,
-                "uploadDate"
-        );
-
-        return jpa.findAll(spec, sort)
-                .stream()
-                .map(AssetRepositoryAdapter::toDomain)
-                .collect(toList());
     }
 
 }
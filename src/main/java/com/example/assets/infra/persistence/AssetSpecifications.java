@@ -2,6 +2,7 @@ package com.example.assets.infra.persistence;
 
 import org.springframework.data.jpa.domain.Specification;
 import java.time.Instant;
+import java.util.UUID;
 
 /**
  * Specifications for filtering AssetEntity in JPA queries.
@@ -32,4 +33,39 @@ public final class AssetSpecifications {
         return (root, query, cb) ->
                 filetype == null ? null : cb.equal(root.get("contentType"), filetype);
     }
+
+    public static Specification<AssetEntity> uploadDatePresent() {
+        return (root, query, cb) -> cb.isNotNull(root.get("uploadDate"));
+    }
+
+    public static Specification<AssetEntity> uploadDateMissing() {
+        return (root, query, cb) -> cb.isNull(root.get("uploadDate"));
+    }
+
+    /**
+     * Keyset predicate: rows strictly after (uploadDate, id) in the given order.
+     * The redundant bound on uploadDate alone lets the planner start an index
+     * range scan at the cursor instead of filtering the OR row by row.
+     */
+    public static Specification<AssetEntity> after(Instant uploadDate, UUID id, boolean ascending) {
+        if (uploadDate == null) return null;
+        return (root, query, cb) -> {
+            var date = root.<Instant>get("uploadDate");
+            var key = root.<UUID>get("id");
+            return ascending
+                    ? cb.and(cb.greaterThanOrEqualTo(date, uploadDate),
+                            cb.or(cb.greaterThan(date, uploadDate),
+                                    cb.and(cb.equal(date, uploadDate), cb.greaterThan(key, id))))
+                    : cb.and(cb.lessThanOrEqualTo(date, uploadDate),
+                            cb.or(cb.lessThan(date, uploadDate),
+                                    cb.and(cb.equal(date, uploadDate), cb.lessThan(key, id))));
+        };
+    }
+
+    public static Specification<AssetEntity> idAfter(UUID id, boolean ascending) {
+        if (id == null) return null;
+        return (root, query, cb) -> ascending
+                ? cb.greaterThan(root.<UUID>get("id"), id)
+                : cb.lessThan(root.<UUID>get("id"), id);
+    }
 }
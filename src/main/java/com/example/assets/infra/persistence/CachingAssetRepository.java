@@ -0,0 +1,185 @@
+package com.example.assets.infra.persistence;
+
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetCursor;
+import com.example.assets.domain.model.AssetPage;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.PublishTimeline;
+import com.example.assets.domain.model.PublishTimings;
+import com.example.assets.domain.model.SortDirection;
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache in front of {@link AssetRepositoryPort#findById}.
+ * Every write goes through this decorator: saves refresh the entry with
+ * the saved state once their transaction commits (and simply drop it if it
+ * rolls back), status updates evict it. Assets in a terminal state are kept for a long time; the
+ * in-progress ones only briefly, bounding staleness when several
+ * instances share the database. Searches are not cached.
+ */
+public class CachingAssetRepository implements AssetRepositoryPort {
+
+    private final AssetRepositoryPort delegate;
+    private final Cache<UUID, Asset> cache;
+
+    public CachingAssetRepository(AssetRepositoryPort delegate, long maximumSize,
+                                  Duration terminalTtl, Duration inProgressTtl) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new StatusExpiry(terminalTtl, inProgressTtl))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The underlying cache, exposed for metrics binding.
+     */
+    public Cache<UUID, Asset> cache() {
+        return cache;
+    }
+
+    @Override
+    public Asset save(Asset asset) {
+        Asset saved = delegate.save(asset);
+        cacheOnCommit(List.of(saved));
+        return saved;
+    }
+
+    @Override
+    public void insertAll(List<Asset> assets) {
+        delegate.insertAll(assets);
+        cacheOnCommit(assets);
+    }
+
+    @Override
+    public boolean updateStatus(UUID id, AssetStatus expected, AssetStatus status) {
+        boolean updated = delegate.updateStatus(id, expected, status);
+        evictOnCommit(id);
+        return updated;
+    }
+
+    @Override
+    public boolean markPublished(UUID id, String url, long size, String contentEncoding, PublishTimings timings) {
+        boolean updated = delegate.markPublished(id, url, size, contentEncoding, timings);
+        evictOnCommit(id);
+        return updated;
+    }
+
+    /**
+     * Loads outside of the cache's compute lock: a JDBC round trip inside it
+     * would pin a virtual thread to its carrier. A racing load can only put
+     * back an in-progress state, which expires within the short TTL, since
+     * terminal states never change.
+     */
+    @Override
+    public Optional<Asset> findById(UUID id) {
+        Asset cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // misses are not cached: an id can start existing at any moment
+        Optional<Asset> loaded = delegate.findById(id);
+        loaded.ifPresent(asset -> cache.put(id, asset));
+        return loaded;
+    }
+
+    /**
+     * Always loads, and replaces whatever entries a racing load may have put
+     * back before the change.
+     */
+    @Override
+    public List<Asset> findCurrentByIds(Collection<UUID> ids) {
+        List<Asset> loaded = delegate.findCurrentByIds(ids);
+        cache.invalidateAll(ids);
+        loaded.forEach(asset -> cache.put(asset.id(), asset));
+        return loaded;
+    }
+
+    @Override
+    public List<Asset> findUnsettled(Instant acceptedBefore, int limit) {
+        return delegate.findUnsettled(acceptedBefore, limit);
+    }
+
+    @Override
+    public AssetPage search(Instant start, Instant end, String filenameRegex, String filetype,
+                            SortDirection direction, AssetCursor after, int limit) {
+        return delegate.search(start, end, filenameRegex, filetype, direction, after, limit);
+    }
+
+    @Override
+    public void forEach(Instant start, Instant end, String filenameRegex, String filetype,
+                        SortDirection direction, Consumer<Asset> consumer) {
+        delegate.forEach(start, end, filenameRegex, filetype, direction, consumer);
+    }
+
+    @Override
+    public List<PublishTimeline> findPublishTimelines(Instant since, int limit) {
+        return delegate.findPublishTimelines(since, limit);
+    }
+
+    @Override
+    public OptionalLong changeVersion() {
+        return delegate.changeVersion();
+    }
+
+    private void cacheOnCommit(List<Asset> assets) {
+        assets.forEach(asset -> cache.invalidate(asset.id()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    assets.forEach(asset -> cache.put(asset.id(), asset));
+                }
+            });
+        } else {
+            assets.forEach(asset -> cache.put(asset.id(), asset));
+        }
+    }
+
+    // a partial update does not give the whole asset back, so the next lookup reloads it
+    private void evictOnCommit(UUID id) {
+        cache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+
+    private record StatusExpiry(Duration terminalTtl, Duration inProgressTtl) implements Expiry<UUID, Asset> {
+
+        @Override
+        public long expireAfterCreate(UUID id, Asset asset, long currentTime) {
+            boolean terminal = asset.status() == AssetStatus.PUBLISHED || asset.status() == AssetStatus.FAILED;
+            return (terminal ? terminalTtl : inProgressTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID id, Asset asset, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, asset, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID id, Asset asset, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.assets.infra.persistence;
+
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetCursor;
+import com.example.assets.domain.model.AssetPage;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.PublishTimeline;
+import com.example.assets.domain.model.PublishTimings;
+import com.example.assets.domain.model.SortDirection;
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Metrics decorator for {@link AssetRepositoryPort}. Since every write goes
+ * through the repository, this is where status transitions are counted
+ * ({@code assets.status.transitions}, tagged {@code from} and {@code to},
+ * {@code none} for new assets), whichever component performs them.
+ * Searches are timed as {@code assets.search}, tagged with the combination
+ * of filters used ({@code filetype,date,filename} or {@code none}) and
+ * whether the results were paged or streamed; a stream is timed
+ * until its last row has been handed over.
+ */
+public class MeteredAssetRepository implements AssetRepositoryPort {
+
+    private static final String NONE = "none";
+
+    private final AssetRepositoryPort delegate;
+    private final MeterRegistry registry;
+
+    public MeteredAssetRepository(AssetRepositoryPort delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+    }
+
+    @Override
+    public Asset save(Asset asset) {
+        Asset saved = delegate.save(asset);
+        transition(NONE, saved.status());
+        return saved;
+    }
+
+    @Override
+    public void insertAll(List<Asset> assets) {
+        delegate.insertAll(assets);
+        assets.forEach(asset -> transition(NONE, asset.status()));
+    }
+
+    @Override
+    public boolean updateStatus(UUID id, AssetStatus expected, AssetStatus status) {
+        boolean updated = delegate.updateStatus(id, expected, status);
+        if (updated) {
+            transition(name(expected), status);
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean markPublished(UUID id, String url, long size, String contentEncoding, PublishTimings timings) {
+        boolean updated = delegate.markPublished(id, url, size, contentEncoding, timings);
+        if (updated) {
+            transition(name(AssetStatus.PROCESSING), AssetStatus.PUBLISHED);
+        }
+        return updated;
+    }
+
+    @Override
+    public Optional<Asset> findById(UUID id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Asset> findCurrentByIds(Collection<UUID> ids) {
+        return delegate.findCurrentByIds(ids);
+    }
+
+    @Override
+    public List<Asset> findUnsettled(Instant acceptedBefore, int limit) {
+        return delegate.findUnsettled(acceptedBefore, limit);
+    }
+
+    @Override
+    public AssetPage search(Instant start, Instant end, String filenameRegex, String filetype,
+                            SortDirection direction, AssetCursor after, int limit) {
+        return timed("page", start, end, filenameRegex, filetype,
+                () -> delegate.search(start, end, filenameRegex, filetype, direction, after, limit));
+    }
+
+    @Override
+    public void forEach(Instant start, Instant end, String filenameRegex, String filetype,
+                        SortDirection direction, Consumer<Asset> consumer) {
+        timed("stream", start, end, filenameRegex, filetype, () -> {
+            delegate.forEach(start, end, filenameRegex, filetype, direction, consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public List<PublishTimeline> findPublishTimelines(Instant since, int limit) {
+        return delegate.findPublishTimelines(since, limit);
+    }
+
+    @Override
+    public OptionalLong changeVersion() {
+        return delegate.changeVersion();
+    }
+
+    private <T> T timed(String mode, Instant start, Instant end, String filenameRegex, String filetype,
+                        Supplier<T> search) {
+        return Timer.builder("assets.search")
+                .description("Search latency by filter combination")
+                .tag("filters", filters(start, end, filenameRegex, filetype))
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry)
+                .record(search);
+    }
+
+    static String filters(Instant start, Instant end, String filenameRegex, String filetype) {
+        List<String> filters = new ArrayList<>(3);
+        if (filetype != null) {
+            filters.add("filetype");
+        }
+        if (start != null || end != null) {
+            filters.add("date");
+        }
+        if (filenameRegex != null) {
+            filters.add("filename");
+        }
+        return filters.isEmpty() ? NONE : String.join(",", filters);
+    }
+
+    private void transition(String from, AssetStatus to) {
+        Counter.builder("assets.status.transitions")
+                .description("Asset status changes")
+                .tag("from", from)
+                .tag("to", name(to))
+                .register(registry)
+                .increment();
+    }
+
+    private static String name(AssetStatus status) {
+        return status.name().toLowerCase(Locale.ROOT);
+    }
+}
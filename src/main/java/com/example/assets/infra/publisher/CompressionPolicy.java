@@ -0,0 +1,65 @@
+package com.example.assets.infra.publisher;
+
+import com.example.assets.domain.model.ContentCoding;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decides which uploads are compressed at rest. Only content types matching
+ * {@code assets.storage.compression.types} are, so formats that are already
+ * compressed (images, video, zip, pdf...) are stored as they come instead of
+ * paying for a second, useless pass. Wildcards and structured suffixes such
+ * as {@code application/*+json} are allowed.
+ */
+@Component
+public class CompressionPolicy {
+
+    private final ContentCoding codec;
+    private final List<MediaType> types;
+
+    @Autowired
+    public CompressionPolicy(@Value("${assets.storage.compression.codec:none}") String codec,
+                             @Value("${assets.storage.compression.types:text/*,application/json,application/*+json,"
+                                     + "application/xml,application/*+xml,application/javascript,"
+                                     + "application/x-ndjson}") String[] types) {
+        this(ContentCoding.of(codec).orElse(null), Arrays.stream(types).map(MediaType::parseMediaType).toList());
+    }
+
+    CompressionPolicy(ContentCoding codec, List<MediaType> types) {
+        this.codec = codec;
+        this.types = List.copyOf(types);
+    }
+
+    /**
+     * A policy that stores everything as is.
+     */
+    public static CompressionPolicy none() {
+        return new CompressionPolicy(null, List.of());
+    }
+
+    /**
+     * The codec to store content of the given type with.
+     *
+     * @param contentType MIME type of the upload, possibly with parameters
+     * @return the codec, or empty to store the content as is
+     */
+    public Optional<ContentCoding> codecFor(String contentType) {
+        if (codec == null || contentType == null) {
+            return Optional.empty();
+        }
+        MediaType type;
+        try {
+            type = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return Optional.empty();
+        }
+        return types.stream().anyMatch(pattern -> pattern.includes(type)) ? Optional.of(codec) : Optional.empty();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.assets.infra.publisher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies an {@link FsyncPolicy} to files that are written to a temporary
+ * name and then renamed into place.
+ */
+final class FileSync implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FileSync.class);
+
+    private final FsyncPolicy policy;
+    private final ConcurrentLinkedQueue<Path> dirty = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flusher;
+
+    FileSync(FsyncPolicy policy, Duration interval) {
+        this.policy = policy;
+        if (policy == FsyncPolicy.PERIODIC) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+                var thread = new Thread(task, "storage-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = interval.toMillis();
+            flusher.scheduleWithFixedDelay(this::flush, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Called once the content is complete, before the rename: a file must
+     * not become visible under its final name before its content is durable.
+     */
+    void written(Path temp) throws IOException {
+        if (policy == FsyncPolicy.PER_FILE) {
+            force(temp, StandardOpenOption.WRITE);
+        }
+    }
+
+    /**
+     * Called after the rename, to make the new directory entry durable.
+     */
+    void renamed(Path file) {
+        switch (policy) {
+            case PER_FILE -> forceDirectory(file.getParent());
+            case PERIODIC -> dirty.add(file);
+            case NONE -> { }
+        }
+    }
+
+    /**
+     * Forces every file renamed since the last flush, then their directories.
+     */
+    void flush() {
+        Set<Path> directories = new LinkedHashSet<>();
+        Path file;
+        while ((file = dirty.poll()) != null) {
+            try {
+                force(file, StandardOpenOption.READ);
+                directories.add(file.getParent());
+            } catch (NoSuchFileException e) {
+                // deleted or moved since; nothing left to make durable
+            } catch (IOException e) {
+                log.warn("Could not force {} to disk", file, e);
+            }
+        }
+        directories.forEach(FileSync::forceDirectory);
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flush();
+        }
+    }
+
+    private static void force(Path file, StandardOpenOption mode) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, mode)) {
+            channel.force(true);
+        }
+    }
+
+    // not every platform can open a directory
+    private static void forceDirectory(Path directory) {
+        try {
+            force(directory, StandardOpenOption.READ);
+        } catch (IOException ignored) {
+            // best effort
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.assets.infra.publisher;
+
+/**
+ * When files written to local storage are forced to disk.
+ */
+public enum FsyncPolicy {
+    /** Left to the operating system; fastest, recent files may be lost on a crash. */
+    NONE,
+    /** Each file and its directory entry are durable before its publication completes. */
+    PER_FILE,
+    /** Files are forced in the background every interval, bounding what a crash can lose. */
+    PERIODIC
+}
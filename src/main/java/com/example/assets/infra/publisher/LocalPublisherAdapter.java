@@ -1,40 +1,326 @@
 package com.example.assets.infra.publisher;
 
+import com.example.assets.domain.model.ContentCoding;
 import com.example.assets.domain.ports.AssetPublisherPort;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Local implementation of AssetPublisherPort that writes files
  * to the local "uploads" directory.
+ * <p>
+ * Files are spread over fan-out subdirectories ({@code assets.storage.shard-depth}
+ * levels, see {@link ShardedLayout}) so that no directory grows to millions of
+ * entries. Every file is written under a temporary name and renamed into place
+ * once complete, so a half-written file is never visible; when it is forced to
+ * disk is set by {@code assets.storage.fsync}. Temporary files left behind by a
+ * previous run that stopped mid-write are deleted on startup.
+ * <p>
+ * With {@code assets.storage.deduplicate} enabled the storage is content
+ * addressed: content is hashed while it is written, kept once per SHA-256
+ * digest under {@code uploads/blobs}, and every asset file is a hard link
+ * to its blob. The link count of a blob is its reference count, so
+ * deleting an asset file releases its reference. Asset URLs keep their
+ * usual form either way.
+ * <p>
+ * Content types selected by the {@link CompressionPolicy} are compressed
+ * while they stream to disk. The codec is reported with the published info
+ * so it is stored with the asset, and the file name gets the codec's suffix;
+ * the reported size stays the original one.
  */
 @Component
-public class LocalPublisherAdapter implements AssetPublisherPort {
+public class LocalPublisherAdapter implements AssetPublisherPort, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalPublisherAdapter.class);
 
     private final Path root = Paths.get(System.getProperty("user.dir"), "uploads");
+    private final Path temp = root.resolve(".tmp");
+    private final ShardedLayout layout;
+    private final ShardedLayout blobs;
+    private final boolean deduplicate;
+    private final CompressionPolicy compression;
+    private final FileSync sync;
+
+    private final AtomicLong publishedBytes = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final AtomicLong deduplicatedBytes = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    public LocalPublisherAdapter(@Value("${assets.storage.deduplicate:false}") boolean deduplicate,
+                                 @Value("${assets.storage.shard-depth:2}") int shardDepth,
+                                 @Value("${assets.storage.fsync:none}") FsyncPolicy fsync,
+                                 @Value("${assets.storage.fsync-interval:1s}") Duration fsyncInterval,
+                                 CompressionPolicy compression)
+            throws IOException {
+        this.deduplicate = deduplicate;
+        this.compression = compression;
+        this.layout = new ShardedLayout(root, shardDepth);
+        this.blobs = new ShardedLayout(root.resolve("blobs"), shardDepth);
+        Files.createDirectories(temp);
+        purgeTemp();
+        this.sync = new FileSync(fsync, fsyncInterval);
+    }
 
-    public LocalPublisherAdapter() throws IOException {
-        Files.createDirectories(root);
+    private void purgeTemp() throws IOException {
+        try (DirectoryStream<Path> staged = Files.newDirectoryStream(temp, "*.tmp")) {
+            for (Path file : staged) {
+                log.info("Deleting file left half-written by a previous run: {}", file);
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    /**
+     * The layouts of asset files and blobs, for {@link StorageLayoutMigration}.
+     */
+    ShardedLayout layout() {
+        return layout;
+    }
+
+    ShardedLayout blobLayout() {
+        return blobs;
+    }
+
+    Path tempDirectory() {
+        return temp;
     }
 
     @Override
     public PublishedInfo publish(byte[] data, String filename, String contentType) {
-        try {
-            String ext = filename.contains(".")
-                    ? filename.substring(filename.lastIndexOf('.'))
-                    : "";
+        if (deduplicate || compression.codecFor(contentType).isPresent()) {
+            return AssetPublisherPort.super.publish(data, filename, contentType);
+        }
+        return store(filename, null, file -> {
+            Files.write(file, data);
+            return data.length;
+        });
+    }
+
+    @Override
+    public PublishedInfo publish(InputStream data, String filename, String contentType) {
+        ContentCoding codec = compression.codecFor(contentType).orElse(null);
+        if (deduplicate) {
+            return publishDeduplicated(data, filename, codec);
+        }
+        return store(filename, codec, file -> write(data, file, codec));
+    }
 
-            Path path = root.resolve(UUID.randomUUID() + ext);
-            Files.write(path, data);
+    private PublishedInfo store(String filename, ContentCoding codec, ContentWriter writer) {
+        Path staged = temp.resolve(UUID.randomUUID() + ".tmp");
+        try {
+            long size = writer.write(staged);
+            sync.written(staged);
+            long stored = Files.size(staged);
+            Path path = layout.prepare(UUID.randomUUID() + extension(filename) + suffix(codec));
+            Files.move(staged, path, StandardCopyOption.ATOMIC_MOVE);
+            sync.renamed(path);
 
-            return new PublishedInfo(path.toUri().toString(), data.length);
+            publishedBytes.addAndGet(size);
+            storedBytes.addAndGet(stored);
+            return new PublishedInfo(path.toUri().toString(), size, token(codec));
         } catch (IOException e) {
+            deleteQuietly(staged);
             throw new RuntimeException("Error writing file to local storage", e);
         }
     }
+
+    /**
+     * Writes to a temporary file while hashing, then either makes it the
+     * blob for its digest or, if that blob already exists, drops it and
+     * links the asset to the existing one. Creating a link fails if the
+     * target name exists, so concurrent uploads of the same content agree
+     * on a single blob without locking. The digest is that of the original
+     * content; blobs of each codec are told apart by their suffix.
+     * <p>
+     * A blob can only take as many links as the file system allows per
+     * inode (65000 on ext4). Once a popular blob is full, the upload keeps
+     * its own copy, which also replaces the blob so that later uploads link
+     * to it; the asset files of the old blob keep their inode.
+     */
+    private PublishedInfo publishDeduplicated(InputStream data, String filename, ContentCoding codec) {
+        Path staged = temp.resolve(UUID.randomUUID() + ".tmp");
+        Path path = null;
+        try {
+            MessageDigest sha256 = sha256();
+            long size;
+            try (var hashing = new DigestInputStream(data, sha256)) {
+                size = write(hashing, staged, codec);
+            }
+            sync.written(staged);
+            Path blob = blobs.prepare(HexFormat.of().formatHex(sha256.digest()) + suffix(codec));
+            path = layout.prepare(UUID.randomUUID() + extension(filename) + suffix(codec));
+            publishedBytes.addAndGet(size);
+            long stored = Files.size(staged);
+            try {
+                Files.createLink(blob, staged);
+                storedBytes.addAndGet(stored);
+                sync.renamed(blob);
+                Files.move(staged, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                try {
+                    Files.createLink(path, blob);
+                    Files.delete(staged);
+                    deduplicated.incrementAndGet();
+                    deduplicatedBytes.addAndGet(size);
+                } catch (FileSystemException full) {
+                    storedBytes.addAndGet(stored);
+                    Files.move(staged, path, StandardCopyOption.ATOMIC_MOVE);
+                    replaceBlob(blob, path);
+                }
+            }
+            sync.renamed(path);
+            return new PublishedInfo(path.toUri().toString(), size, token(codec));
+        } catch (IOException | UnsupportedOperationException e) {
+            deleteQuietly(staged);
+            if (path != null) {
+                deleteQuietly(path);
+            }
+            throw new RuntimeException("Error writing file to local storage", e);
+        }
+    }
+
+    /**
+     * Makes the given asset file the blob for its digest, by linking it
+     * under a temporary name and renaming that over the blob. Best effort:
+     * the asset is stored either way, and if this fails the next upload of
+     * the same content simply tries again.
+     */
+    private void replaceBlob(Path blob, Path file) {
+        Path next = temp.resolve(UUID.randomUUID() + ".tmp");
+        try {
+            Files.createLink(next, file);
+            Files.move(next, blob, StandardCopyOption.ATOMIC_MOVE);
+            sync.renamed(blob);
+        } catch (IOException | UnsupportedOperationException e) {
+            deleteQuietly(next);
+        }
+    }
+
+    @Override
+    public Optional<Path> resolve(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (!"file".equals(uri.getScheme())) {
+                return Optional.empty();
+            }
+            Path path = Paths.get(uri).normalize();
+            // never serve anything outside of the storage root
+            if (!path.startsWith(root)) {
+                return Optional.empty();
+            }
+            // URLs keep pointing where a file was first written, also after it was re-sharded
+            return Optional.of(Files.exists(path) ? path : layout.locate(path.getFileName().toString()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Copies the content into a new file, compressed with the given codec if any.
+     *
+     * @return the number of bytes read, that is the original size
+     */
+    private static long write(InputStream data, Path file, ContentCoding codec) throws IOException {
+        if (codec == null) {
+            return Files.copy(data, file);
+        }
+        try (OutputStream out = codec.encode(Files.newOutputStream(file))) {
+            return data.transferTo(out);
+        }
+    }
+
+    /**
+     * Share of the published bytes that did not have to be stored again.
+     */
+    public double dedupeRatio() {
+        long published = publishedBytes.get();
+        return published == 0 ? 0 : (double) deduplicatedBytes.get() / published;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("assets.storage.published", publishedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("assets.storage.stored", storedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("assets.storage.deduplicated", deduplicatedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("assets.storage.deduplicated.files", deduplicated, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("assets.storage.dedupe.ratio", this, LocalPublisherAdapter::dedupeRatio)
+                .register(registry);
+    }
+
+    /**
+     * Forces any pending writes to disk on shutdown.
+     */
+    @PreDestroy
+    public void close() {
+        sync.close();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String suffix(ContentCoding codec) {
+        return codec == null ? "" : codec.extension();
+    }
+
+    private static String token(ContentCoding codec) {
+        return codec == null ? null : codec.token();
+    }
+
+    private static String extension(String filename) {
+        return filename.contains(".")
+                ? filename.substring(filename.lastIndexOf('.'))
+                : "";
+    }
+
+    @FunctionalInterface
+    private interface ContentWriter {
+        long write(Path file) throws IOException;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // best effort: a partial file is left behind
+        }
+    }
 }
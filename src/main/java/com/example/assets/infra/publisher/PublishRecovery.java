@@ -0,0 +1,196 @@
+package com.example.assets.infra.publisher;
+
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import com.example.assets.domain.ports.AssetStatusNotifierPort;
+import com.example.assets.infra.spool.UploadSpool;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-publishes the uploads a previous run accepted but did not finish.
+ * Every file left in the publish queue belongs to an asset that is still
+ * PENDING, or PROCESSING if the previous run stopped halfway through
+ * publishing it; those are published again, several at a time. Only the
+ * files of this instance are considered, so assets that another instance
+ * is publishing are left alone.
+ * <p>
+ * An asset can also be left PENDING or PROCESSING with no content to
+ * publish, e.g. after a crash between discarding its file and settling
+ * its status. After the queued uploads, and then every minute, assets
+ * accepted more than {@code assets.recovery.orphan-age} ago that are still
+ * unsettled and have no file here are marked FAILED. With several
+ * instances the age must exceed the longest time an upload waits to be
+ * published, or the sweep would fail uploads queued on another instance.
+ */
+@Component
+public class PublishRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(PublishRecovery.class);
+    private static final long RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final Duration SWEEP_INTERVAL = Duration.ofMinutes(1);
+    private static final int SWEEP_BATCH = 500;
+
+    private final UploadSpool spool;
+    private final AssetRepositoryPort repo;
+    private final PublisherOrchestrator orchestrator;
+    private final AssetStatusNotifierPort notifier;
+    private final int parallelism;
+    private final Duration orphanAge;
+    private final Clock clock;
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public PublishRecovery(UploadSpool spool, AssetRepositoryPort repo, PublisherOrchestrator orchestrator,
+                           AssetStatusNotifierPort notifier,
+                           @Value("${assets.recovery.parallelism:8}") int parallelism,
+                           @Value("${assets.recovery.orphan-age:1h}") Duration orphanAge) {
+        this(spool, repo, orchestrator, notifier, parallelism, orphanAge, Clock.systemUTC());
+    }
+
+    PublishRecovery(UploadSpool spool, AssetRepositoryPort repo, PublisherOrchestrator orchestrator,
+                    AssetStatusNotifierPort notifier, int parallelism, Duration orphanAge, Clock clock) {
+        this.spool = spool;
+        this.repo = repo;
+        this.orchestrator = orchestrator;
+        this.notifier = notifier;
+        this.parallelism = parallelism;
+        this.orphanAge = orphanAge;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs in the background so a long backlog does not hold up startup.
+     * The sweep runs on the same thread, so it never sees an upload that
+     * is still being recovered.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+            var thread = new Thread(task, "publish-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<UUID, Path> queued = spool.recovered();
+        if (!queued.isEmpty()) {
+            log.info("Recovering {} queued uploads", queued.size());
+            sweeper.execute(() -> recover(queued));
+        }
+        long millis = SWEEP_INTERVAL.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweep, 0, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Submits the queued uploads to the publishing executor, keeping at most
+     * {@code parallelism} of them in flight, and returns once all are done.
+     */
+    public void recover(Map<UUID, Path> queued) {
+        var inFlight = new Semaphore(parallelism);
+        queued.forEach((id, content) -> {
+            Optional<Asset> asset = resumable(id);
+            if (asset.isEmpty()) {
+                spool.discard(content);
+                return;
+            }
+            inFlight.acquireUninterruptibly();
+            submit(asset.get(), content).whenComplete((ignored, error) -> inFlight.release());
+        });
+        inFlight.acquireUninterruptibly(parallelism);
+        log.info("Recovery of {} queued uploads finished", queued.size());
+    }
+
+    /**
+     * Marks FAILED the assets that have been unsettled for longer than the
+     * orphan age and whose content is not queued here. The update only
+     * applies from the status that was read, so an asset that got published
+     * in the meantime keeps its new status.
+     *
+     * @return the number of assets marked FAILED
+     */
+    public int failOrphans() {
+        int failed = 0;
+        List<Asset> unsettled;
+        do {
+            unsettled = repo.findUnsettled(clock.instant().minus(orphanAge), SWEEP_BATCH);
+            int before = failed;
+            for (Asset asset : unsettled) {
+                if (!spool.isQueued(asset.id())
+                        && repo.updateStatus(asset.id(), asset.status(), AssetStatus.FAILED)) {
+                    log.warn("Failing asset {}, {} without content to publish", asset.id(), asset.status());
+                    notifier.statusChanged(asset.id(), AssetStatus.FAILED);
+                    failed++;
+                }
+            }
+            // the rest of a full batch is left for the next sweep if none of it could be failed
+            if (failed == before) {
+                break;
+            }
+        } while (unsettled.size() == SWEEP_BATCH);
+        return failed;
+    }
+
+    private void sweep() {
+        try {
+            failOrphans();
+        } catch (RuntimeException e) {
+            log.warn("Could not sweep unsettled assets", e);
+        }
+    }
+
+    private Optional<Asset> resumable(UUID id) {
+        Optional<Asset> asset = repo.findById(id);
+        if (asset.isEmpty()) {
+            // the upload was rejected or its request failed before the asset was saved
+            log.info("Dropping queued upload {} without asset", id);
+            return Optional.empty();
+        }
+        AssetStatus status = asset.get().status();
+        if (status == AssetStatus.PROCESSING) {
+            repo.updateStatus(id, AssetStatus.PROCESSING, AssetStatus.PENDING);
+        } else if (status != AssetStatus.PENDING) {
+            log.info("Dropping queued upload {} already {}", id, status);
+            return Optional.empty();
+        }
+        return asset;
+    }
+
+    private CompletableFuture<Void> submit(Asset asset, Path content) {
+        while (true) {
+            try {
+                return orchestrator.publishAsync(asset.id(), content, asset.filename(), asset.contentType());
+            } catch (TaskRejectedException e) {
+                // new uploads are filling the executor; wait for room
+                LockSupport.parkNanos(RETRY_NANOS);
+            }
+        }
+    }
+}
@@ -1,22 +1,38 @@
 package com.example.assets.infra.publisher;
 
-import com.example.assets.domain.model.Asset;
+import com.example.assets.app.PipelineMetrics;
 import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.AssetUpload;
+import com.example.assets.domain.model.PublishTimings;
 import com.example.assets.domain.ports.AssetPublisherPort;
+import com.example.assets.domain.ports.AssetPublisherPort.PublishedInfo;
 import com.example.assets.domain.ports.AssetRepositoryPort;
+import com.example.assets.domain.ports.AssetStatusNotifierPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Orchestrates the asynchronous publishing of assets.
  * It updates the asset status in the repository and delegates publishing
- * to the configured AssetPublisherPort.
+ * to the configured AssetPublisherPort. It runs outside of any transaction
+ * on purpose, see {@link #publish}. The returned futures complete once
+ * the background task has finished, whatever the outcome. The claim,
+ * write, commit and fail stages are timed, see {@link PipelineMetrics}.
+ * Every transition it makes is passed on to the {@link AssetStatusNotifierPort}.
  */
 @Component
 public class PublisherOrchestrator {
@@ -25,39 +41,133 @@ public class PublisherOrchestrator {
 
     private final AssetRepositoryPort repo;
     private final AssetPublisherPort publisher;
+    private final AssetStatusNotifierPort notifier;
+    private final Timer claimTimer;
+    private final Timer writeTimer;
+    private final Timer commitTimer;
+    private final Timer failTimer;
 
-    public PublisherOrchestrator(AssetRepositoryPort repo, AssetPublisherPort publisher) {
+    public PublisherOrchestrator(AssetRepositoryPort repo, AssetPublisherPort publisher,
+                                 AssetStatusNotifierPort notifier, MeterRegistry meterRegistry) {
         this.repo = repo;
         this.publisher = publisher;
+        this.notifier = notifier;
+        this.claimTimer = PipelineMetrics.stage(meterRegistry, "claim");
+        this.writeTimer = PipelineMetrics.stage(meterRegistry, "write");
+        this.commitTimer = PipelineMetrics.stage(meterRegistry, "commit");
+        this.failTimer = PipelineMetrics.stage(meterRegistry, "fail");
     }
 
+    /**
+     * Publishes content staged on local disk, streaming it to the publisher.
+     * The staged file is deleted once the asset is PUBLISHED or FAILED, or
+     * when it was not PENDING to begin with. If the repository fails it is
+     * kept, so that {@link PublishRecovery} publishes it again.
+     */
     @Async
-    @Transactional
-    public void publishAsync(UUID assetId, byte[] data, String filename, String contentType) {
-        repo.findById(assetId).ifPresent(asset -> {
-            repo.save(copy(asset, AssetStatus.PROCESSING, null, null, null));
+    public CompletableFuture<Void> publishAsync(UUID assetId, Path content, String filename, String contentType) {
+        if (publish(assetId, () -> {
+            try (InputStream in = Files.newInputStream(content)) {
+                return publisher.publish(in, filename, contentType);
+            }
+        })) {
+            deleteQuietly(content);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
 
+    /**
+     * Publishes a batch of staged uploads one after the other in a single
+     * background task. A failure only affects its own asset: the rest of
+     * the batch is still published, and staged files are deleted as in
+     * {@link #publishAsync(UUID, Path, String, String)}.
+     */
+    @Async
+    public CompletableFuture<Void> publishAllAsync(Map<UUID, AssetUpload> uploads) {
+        uploads.forEach((assetId, upload) -> {
             try {
-                log.info("Publishing asset {}", asset.id());
-                var info = publisher.publish(data, filename, contentType);
-                log.info("Successfully published asset {}", asset.id());
-                repo.save(copy(asset, AssetStatus.PUBLISHED, info.url(), info.size(), Instant.now()));
-            } catch (Exception e) {
-                log.error("Failed to publish asset {}", asset.id(), e);
-                repo.save(copy(asset, AssetStatus.FAILED, null, null, null));
+                if (publish(assetId, () -> {
+                    try (InputStream in = Files.newInputStream(upload.content())) {
+                        return publisher.publish(in, upload.filename(), upload.contentType());
+                    }
+                })) {
+                    deleteQuietly(upload.content());
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not publish asset {}, leaving it queued", assetId, e);
             }
         });
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Each status transition is a single conditional UPDATE in its own short
+     * transaction, so no connection is held while the content is written to
+     * storage. Claiming PENDING -> PROCESSING also guarantees that an asset
+     * is published at most once. When each step happened is stored with
+     * the PUBLISHED status, in the same update; how long its transaction
+     * took is only measured by the {@code commit} stage timer.
+     * <p>
+     * Only a failed write to storage marks the asset FAILED. If the
+     * repository cannot be updated once the write has succeeded, the asset
+     * is left PROCESSING and its staged file kept, so that
+     * {@link PublishRecovery} publishes it again.
+     *
+     * @return true once there is nothing left to publish: the asset ended
+     * PUBLISHED or FAILED, or was not PENDING; false if it may still need
+     * its content
+     */
+    private boolean publish(UUID assetId, PublishAction action) {
+        Instant dequeued = Instant.now();
+        if (!claimTimer.record(() -> repo.updateStatus(assetId, AssetStatus.PENDING, AssetStatus.PROCESSING))) {
+            log.warn("Asset {} not found or not pending, skipping publication", assetId);
+            return true;
+        }
+        notifier.statusChanged(assetId, AssetStatus.PROCESSING);
+
+        log.info("Publishing asset {}", assetId);
+        Instant writeStarted = Instant.now();
+        PublishedInfo info;
+        try {
+            long started = System.nanoTime();
+            info = action.publish();
+            writeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            log.error("Failed to publish asset {}", assetId, e);
+            if (failTimer.record(() -> repo.updateStatus(assetId, AssetStatus.PROCESSING, AssetStatus.FAILED))) {
+                notifier.statusChanged(assetId, AssetStatus.FAILED);
+                return true;
+            }
+            return false;
+        }
+        Instant writeCompleted = Instant.now();
+
+        try {
+            if (commitTimer.record(() -> repo.markPublished(assetId, info.url(), info.size(), info.contentEncoding(),
+                    new PublishTimings(dequeued, writeStarted, writeCompleted, Instant.now())))) {
+                log.info("Successfully published asset {}", assetId);
+                notifier.statusChanged(assetId, AssetStatus.PUBLISHED);
+                return true;
+            }
+            log.warn("Asset {} left PROCESSING while it was being published", assetId);
+            return false;
+        } catch (RuntimeException e) {
+            // the write succeeded, so the asset has not failed; its staged file is published again
+            log.error("Could not mark asset {} published, leaving it PROCESSING", assetId, e);
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete staged upload {}", file, e);
+        }
     }
 
-    private Asset copy(Asset source, AssetStatus status, String url, Long size, Instant uploadDate) {
-        return new Asset(
-                source.id(),
-                source.filename(),
-                source.contentType(),
-                url != null ? url : source.url(),
-                size != null ? size : source.size(),
-                uploadDate != null ? uploadDate : source.uploadDate(),
-                status
-        );
+    @FunctionalInterface
+    private interface PublishAction {
+        PublishedInfo publish() throws IOException;
     }
 }
@@ -0,0 +1,344 @@
+package com.example.assets.infra.publisher;
+
+import com.example.assets.domain.ports.AssetPublisherPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of AssetPublisherPort that stores assets in an S3-compatible
+ * object store (AWS S3, MinIO, Ceph...), selected with {@code assets.storage.type=s3}.
+ * <p>
+ * An asset that fits in one part is sent with a single PUT. A larger one is
+ * sent as a multipart upload: parts are read off the stream one after the
+ * other and uploaded concurrently, with at most {@code parallelism} of them
+ * in flight per asset, so no more than {@code parallelism + 1} parts are
+ * ever held in memory. Each request is retried on its own on I/O errors,
+ * throttling and server errors; once a part has failed for good the upload
+ * is aborted, so the store keeps no orphaned parts.
+ * <p>
+ * All requests share one HTTP client, which keeps its connections alive
+ * and reuses them. Published URLs are the object URLs. Downloads do not go
+ * through this service: {@link #locate(String)} presigns a GET of the
+ * object, which clients are redirected to.
+ */
+public class S3PublisherAdapter implements AssetPublisherPort {
+
+    private static final Logger log = LoggerFactory.getLogger(S3PublisherAdapter.class);
+
+    /** Smallest part S3 accepts, but for the last one. */
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    /** Parts are held in byte arrays. */
+    static final long MAX_PART_SIZE = 1024L * 1024 * 1024;
+    private static final int MAX_PARTS = 10_000;
+    /** Longest validity SigV4 accepts for a presigned URL. */
+    private static final Duration MAX_PRESIGN_EXPIRY = Duration.ofDays(7);
+    private static final String EMPTY_SHA256 = S3RequestSigner.sha256Hex(new byte[0]);
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+
+    private final Settings settings;
+    private final S3RequestSigner signer;
+    private final HttpClient http;
+    private final ExecutorService parts;
+    private final Counter uploadedBytes;
+    private final Counter uploadedParts;
+    private final Counter retries;
+
+    /**
+     * @param endpoint      base URL of the store, e.g. {@code https://s3.eu-west-1.amazonaws.com}
+     * @param region        signing region
+     * @param bucket        bucket the assets are stored in
+     * @param accessKey     access key id
+     * @param secretKey     secret access key
+     * @param pathStyle     address the bucket as {@code endpoint/bucket} rather than
+     *                      {@code bucket.endpoint}; most S3-compatible stores need it
+     * @param partSize      bytes per part, from 5MB to 1GB; smaller assets take a single PUT
+     * @param parallelism   parts of one asset uploaded at the same time
+     * @param maxAttempts   attempts per request, the first one included
+     * @param retryBackoff  wait before the first retry, doubled on each one
+     * @param timeout       limit for each request, connecting included
+     * @param presignExpiry how long a download URL given by {@link #locate(String)} stays valid,
+     *                      from 1 second to 7 days
+     */
+    public record Settings(URI endpoint, String region, String bucket, String accessKey, String secretKey,
+                           boolean pathStyle, long partSize, int parallelism, int maxAttempts,
+                           Duration retryBackoff, Duration timeout, Duration presignExpiry) {
+
+        public Settings {
+            if (endpoint == null || endpoint.getHost() == null || bucket == null || bucket.isBlank()) {
+                throw new IllegalArgumentException("assets.storage.s3 needs an endpoint URL and a bucket");
+            }
+            if (partSize < MIN_PART_SIZE || partSize > MAX_PART_SIZE) {
+                throw new IllegalArgumentException("S3 parts must be between 5MB and 1GB, got " + partSize + " bytes");
+            }
+            if (parallelism < 1 || maxAttempts < 1) {
+                throw new IllegalArgumentException("S3 parallelism and max attempts must be positive");
+            }
+            if (presignExpiry.toSeconds() < 1 || presignExpiry.compareTo(MAX_PRESIGN_EXPIRY) > 0) {
+                throw new IllegalArgumentException("S3 presigned URLs must expire within 1 second to 7 days");
+            }
+        }
+    }
+
+    public S3PublisherAdapter(Settings settings, MeterRegistry meterRegistry) {
+        this(settings, meterRegistry, Clock.systemUTC());
+    }
+
+    S3PublisherAdapter(Settings settings, MeterRegistry meterRegistry, Clock clock) {
+        this.settings = settings;
+        this.signer = new S3RequestSigner(settings.accessKey(), settings.secretKey(), settings.region(), clock);
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.timeout())
+                .build();
+        var threads = new AtomicInteger();
+        // parts in flight are bounded per asset, so threads are only kept while busy
+        this.parts = Executors.newCachedThreadPool(task -> {
+            var thread = new Thread(task, "s3-part-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.uploadedBytes = Counter.builder("assets.storage.s3.uploaded")
+                .description("Bytes uploaded to the object store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.uploadedParts = Counter.builder("assets.storage.s3.parts")
+                .description("Parts of multipart uploads sent to the object store")
+                .register(meterRegistry);
+        this.retries = Counter.builder("assets.storage.s3.retries")
+                .description("Object store requests sent again after a failed attempt")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public PublishedInfo publish(InputStream data, String filename, String contentType) {
+        String key = UUID.randomUUID() + extension(filename);
+        String type = contentType == null || contentType.isBlank() ? "application/octet-stream" : contentType;
+        try {
+            byte[] first = data.readNBytes((int) settings.partSize());
+            long size = first.length < settings.partSize()
+                    ? putObject(key, type, first)
+                    : multipartUpload(key, type, first, data);
+            uploadedBytes.increment(size);
+            return new PublishedInfo(objectUri(key, null).toString(), size);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing file to S3 storage", e);
+        }
+    }
+
+    private long putObject(String key, String contentType, byte[] content) throws IOException {
+        send("PUT", objectUri(key, null), Map.of("Content-Type", contentType), content);
+        return content.length;
+    }
+
+    private long multipartUpload(String key, String contentType, byte[] first, InputStream data)
+            throws IOException {
+        String uploadId = createMultipartUpload(key, contentType);
+        String query = "uploadId=" + S3RequestSigner.encode(uploadId, false);
+        var inFlight = new Semaphore(settings.parallelism());
+        var failed = new AtomicBoolean();
+        List<CompletableFuture<String>> etags = new ArrayList<>();
+        try {
+            long size = 0;
+            byte[] part = first;
+            while (part.length > 0 && !failed.get()) {
+                if (etags.size() == MAX_PARTS) {
+                    throw new IOException("Asset needs more than " + MAX_PARTS + " parts, raise the part size");
+                }
+                inFlight.acquire();
+                int number = etags.size() + 1;
+                byte[] content = part;
+                etags.add(CompletableFuture
+                        .supplyAsync(() -> uploadPart(key, query, number, content), parts)
+                        .whenComplete((etag, e) -> {
+                            if (e != null) {
+                                failed.set(true);
+                            }
+                            inFlight.release();
+                        }));
+                size += part.length;
+                part = data.readNBytes((int) settings.partSize());
+            }
+            List<String> done = new ArrayList<>(etags.size());
+            for (CompletableFuture<String> etag : etags) {
+                done.add(etag.join());
+            }
+            completeMultipartUpload(key, query, done);
+            return size;
+        } catch (IOException | RuntimeException | InterruptedException e) {
+            // let the parts still running finish before the upload is dropped
+            CompletableFuture.allOf(etags.toArray(CompletableFuture[]::new))
+                    .exceptionally(ignored -> null)
+                    .join();
+            abortMultipartUpload(key, query);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while uploading " + key);
+            }
+            if (e instanceof CompletionException && e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e instanceof IOException io ? io : new IOException(e);
+        }
+    }
+
+    private String createMultipartUpload(String key, String contentType) throws IOException {
+        String body = send("POST", objectUri(key, "uploads"), Map.of("Content-Type", contentType), new byte[0])
+                .body();
+        Matcher uploadId = UPLOAD_ID.matcher(body);
+        if (!uploadId.find()) {
+            throw new IOException("No upload id in the response to CreateMultipartUpload");
+        }
+        return uploadId.group(1);
+    }
+
+    private String uploadPart(String key, String uploadQuery, int number, byte[] content) {
+        try {
+            HttpResponse<String> response = send("PUT",
+                    objectUri(key, "partNumber=" + number + '&' + uploadQuery), Map.of(), content);
+            uploadedParts.increment();
+            return response.headers().firstValue("ETag")
+                    .orElseThrow(() -> new IOException("No ETag for part " + number + " of " + key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void completeMultipartUpload(String key, String uploadQuery, List<String> etags) throws IOException {
+        var body = new StringBuilder("<CompleteMultipartUpload>");
+        for (int i = 0; i < etags.size(); i++) {
+            body.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                    .append(etags.get(i)).append("</ETag></Part>");
+        }
+        body.append("</CompleteMultipartUpload>");
+        send("POST", objectUri(key, uploadQuery), Map.of("Content-Type", "application/xml"),
+                body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void abortMultipartUpload(String key, String uploadQuery) {
+        try {
+            send("DELETE", objectUri(key, uploadQuery), Map.of(), new byte[0]);
+        } catch (IOException e) {
+            // the bucket's lifecycle rules are left to clean up the parts
+            log.warn("Could not abort the multipart upload of {}", key, e);
+        }
+    }
+
+    /**
+     * Sends a signed request, retrying it with exponential backoff on I/O
+     * errors, 408, 429 and 5xx responses. A 200 with an error document,
+     * which S3 may answer CompleteMultipartUpload with, is a failure too.
+     */
+    private HttpResponse<String> send(String method, URI uri, Map<String, String> headers, byte[] content)
+            throws IOException {
+        String payloadHash = content.length == 0 ? EMPTY_SHA256 : S3RequestSigner.sha256Hex(content);
+        for (int attempt = 1; ; attempt++) {
+            var request = HttpRequest.newBuilder(uri)
+                    .timeout(settings.timeout())
+                    .method(method, content.length == 0
+                            ? BodyPublishers.noBody()
+                            : BodyPublishers.ofByteArray(content));
+            signer.sign(method, uri, headers, payloadHash).forEach(request::header);
+            IOException failure;
+            boolean retryable;
+            try {
+                HttpResponse<String> response = http.send(request.build(), BodyHandlers.ofString());
+                int status = response.statusCode();
+                if (status / 100 == 2 && !response.body().contains("<Error>")) {
+                    return response;
+                }
+                failure = new IOException(method + ' ' + uri.getRawPath() + " failed with HTTP " + status
+                        + ": " + abbreviate(response.body()));
+                retryable = status / 100 == 2 || status / 100 == 5 || status == 408 || status == 429;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while sending " + method + ' ' + uri.getRawPath());
+            } catch (IOException e) {
+                failure = e;
+                retryable = true;
+            }
+            if (!retryable || attempt >= settings.maxAttempts()) {
+                throw failure;
+            }
+            retries.increment();
+            log.debug("Retrying {} {} after attempt {}: {}", method, uri.getRawPath(), attempt, failure.getMessage());
+            backoff(attempt);
+        }
+    }
+
+    private void backoff(int attempt) throws InterruptedIOException {
+        try {
+            Thread.sleep(settings.retryBackoff().toMillis() << Math.min(attempt - 1, 10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+
+    /**
+     * Presigns a GET of the object, if the URL is one of this bucket.
+     */
+    @Override
+    public Optional<URI> locate(String url) {
+        if (url == null || !url.startsWith(objectUri("", null).toString())) {
+            return Optional.empty();
+        }
+        return Optional.of(signer.presign("GET", URI.create(url), settings.presignExpiry()));
+    }
+
+    URI objectUri(String key, String query) {
+        URI endpoint = settings.endpoint();
+        String base = endpoint.toString().replaceAll("/+$", "");
+        String path = '/' + S3RequestSigner.encode(key, true);
+        String url = settings.pathStyle()
+                ? base + '/' + S3RequestSigner.encode(settings.bucket(), false) + path
+                : endpoint.getScheme() + "://" + settings.bucket() + '.' + endpoint.getRawAuthority() + path;
+        return URI.create(query == null ? url : url + '?' + query);
+    }
+
+    /**
+     * Stops the part uploads on shutdown.
+     */
+    public void close() {
+        parts.shutdownNow();
+    }
+
+    private static String abbreviate(String body) {
+        return body.length() > 200 ? body.substring(0, 200) + "..." : body;
+    }
+
+    private static String extension(String filename) {
+        return filename.contains(".")
+                ? filename.substring(filename.lastIndexOf('.'))
+                : "";
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.assets.infra.publisher;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Signs S3 requests with AWS Signature Version 4, which every
+ * S3-compatible store accepts. URIs must already be encoded with
+ * {@link #encode(String, boolean)}, so that their raw path and query are
+ * the canonical ones.
+ */
+final class S3RequestSigner {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+    private final Clock clock;
+
+    S3RequestSigner(String accessKey, String secretKey, String region, Clock clock) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+        this.clock = clock;
+    }
+
+    /**
+     * Signs a request.
+     *
+     * @param method      HTTP method
+     * @param uri         request URI
+     * @param headers     headers sent with the request, all of them signed
+     * @param payloadHash hex SHA-256 of the body
+     * @return the headers to send: the given ones plus {@code x-amz-date},
+     * {@code x-amz-content-sha256} and {@code Authorization}; never Host,
+     * which the HTTP client sets from the URI
+     */
+    Map<String, String> sign(String method, URI uri, Map<String, String> headers, String payloadHash) {
+        ZonedDateTime now = ZonedDateTime.now(clock.withZone(ZoneOffset.UTC));
+        String date = DATE.format(now);
+        String dateTime = DATE_TIME.format(now);
+
+        Map<String, String> signed = new TreeMap<>();
+        headers.forEach((name, value) -> signed.put(name.toLowerCase(Locale.ROOT), value.trim()));
+        signed.put("host", host(uri));
+        signed.put("x-amz-content-sha256", payloadHash);
+        signed.put("x-amz-date", dateTime);
+        String signedHeaders = String.join(";", signed.keySet());
+
+        String canonicalRequest = method + '\n'
+                + path(uri) + '\n'
+                + canonicalQuery(uri.getRawQuery()) + '\n'
+                + signed.entrySet().stream()
+                .map(header -> header.getKey() + ':' + header.getValue() + '\n')
+                .collect(Collectors.joining()) + '\n'
+                + signedHeaders + '\n'
+                + payloadHash;
+        String scope = scope(date);
+        String signature = signature(date, dateTime, scope, canonicalRequest);
+
+        Map<String, String> result = new LinkedHashMap<>(headers);
+        result.put("x-amz-content-sha256", payloadHash);
+        result.put("x-amz-date", dateTime);
+        result.put("Authorization", ALGORITHM + " Credential=" + accessKey + '/' + scope
+                + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+        return result;
+    }
+
+    /**
+     * Presigns a request: the signature goes in the query string, so the
+     * returned URI can be sent by anyone holding it, with no header but
+     * Host, until it expires. The payload is not signed.
+     *
+     * @param method HTTP method
+     * @param uri    request URI
+     * @param expiry how long the URI stays valid, at most 7 days
+     * @return the URI with the signing parameters and the signature added
+     */
+    URI presign(String method, URI uri, Duration expiry) {
+        ZonedDateTime now = ZonedDateTime.now(clock.withZone(ZoneOffset.UTC));
+        String date = DATE.format(now);
+        String dateTime = DATE_TIME.format(now);
+        String scope = scope(date);
+
+        String query = (uri.getRawQuery() == null || uri.getRawQuery().isEmpty() ? "" : uri.getRawQuery() + '&')
+                + "X-Amz-Algorithm=" + ALGORITHM
+                + "&X-Amz-Credential=" + encode(accessKey + '/' + scope, false)
+                + "&X-Amz-Date=" + dateTime
+                + "&X-Amz-Expires=" + expiry.toSeconds()
+                + "&X-Amz-SignedHeaders=host";
+        String canonicalRequest = method + '\n'
+                + path(uri) + '\n'
+                + canonicalQuery(query) + '\n'
+                + "host:" + host(uri) + "\n\n"
+                + "host\n"
+                + UNSIGNED_PAYLOAD;
+        String signature = signature(date, dateTime, scope, canonicalRequest);
+
+        return URI.create(uri.getScheme() + "://" + uri.getRawAuthority() + path(uri)
+                + '?' + query + "&X-Amz-Signature=" + signature);
+    }
+
+    /**
+     * URI-encodes as SigV4 expects: everything but unreserved characters,
+     * and also slashes unless {@code path}.
+     */
+    static String encode(String value, boolean path) {
+        StringBuilder encoded = new StringBuilder(value.length());
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (path && c == '/')) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(HEX.withUpperCase().toHexDigits(b));
+            }
+        }
+        return encoded.toString();
+    }
+
+    static String sha256Hex(byte[] data) {
+        return HEX.formatHex(sha256().digest(data));
+    }
+
+    private static String sha256Hex(String data) {
+        return sha256Hex(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String scope(String date) {
+        return date + '/' + region + "/s3/aws4_request";
+    }
+
+    private String signature(String date, String dateTime, String scope, String canonicalRequest) {
+        String stringToSign = ALGORITHM + '\n' + dateTime + '\n' + scope + '\n' + sha256Hex(canonicalRequest);
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, region);
+        key = hmac(key, "s3");
+        key = hmac(key, "aws4_request");
+        return HEX.formatHex(hmac(key, stringToSign));
+    }
+
+    private static String path(URI uri) {
+        return uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+    }
+
+    private static String canonicalQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        return Arrays.stream(rawQuery.split("&"))
+                .map(parameter -> parameter.contains("=") ? parameter : parameter + '=')
+                .sorted()
+                .collect(Collectors.joining("&"));
+    }
+
+    private static String host(URI uri) {
+        int port = uri.getPort();
+        boolean defaultPort = port == -1
+                || ("http".equals(uri.getScheme()) && port == 80)
+                || ("https".equals(uri.getScheme()) && port == 443);
+        return defaultPort ? uri.getHost() : uri.getHost() + ':' + port;
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
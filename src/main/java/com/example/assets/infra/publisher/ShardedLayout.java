@@ -0,0 +1,59 @@
+package com.example.assets.infra.publisher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Fan-out directory layout for stored files. Each level is named after the
+ * next two characters of the file name, so for the random hex names used
+ * here (UUIDs and digests) files spread evenly over up to 256 directories
+ * per level. A depth of 0 keeps every file directly under the root.
+ */
+public final class ShardedLayout {
+
+    private static final int CHARS_PER_LEVEL = 2;
+
+    private final Path root;
+    private final int depth;
+
+    public ShardedLayout(Path root, int depth) {
+        if (depth < 0 || depth > 8) {
+            throw new IllegalArgumentException("Shard depth must be between 0 and 8, was " + depth);
+        }
+        this.root = root;
+        this.depth = depth;
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /**
+     * Where a file of the given name lives.
+     */
+    public Path locate(String name) {
+        Path dir = root;
+        for (int level = 0; level < depth; level++) {
+            int start = level * CHARS_PER_LEVEL;
+            // names shorter than the layout share the last directory
+            int end = Math.min(start + CHARS_PER_LEVEL, name.length());
+            String shard = start < end ? name.substring(start, end) : "_";
+            dir = dir.resolve(shard.toLowerCase(Locale.ROOT));
+        }
+        return dir.resolve(name);
+    }
+
+    /**
+     * Like {@link #locate}, creating the parent directories if needed.
+     */
+    public Path prepare(String name) throws IOException {
+        Path path = locate(name);
+        // createDirectories alone throws and catches an exception when the directory exists
+        if (!Files.isDirectory(path.getParent())) {
+            Files.createDirectories(path.getParent());
+        }
+        return path;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.assets.infra.publisher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Set;
+
+/**
+ * Moves stored files into the current {@link ShardedLayout}: files written
+ * flat, before the storage was sharded, or with another shard depth.
+ * Enabled with {@code assets.storage.migrate-layout}, it runs in the
+ * background after startup. URLs stay valid because
+ * {@link LocalPublisherAdapter#resolve} finds a file by name when it is no
+ * longer where it was first written, so the database is not touched and
+ * the service keeps serving while files move.
+ */
+@Component
+public class StorageLayoutMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageLayoutMigration.class);
+
+    private final LocalPublisherAdapter storage;
+    private final boolean enabled;
+
+    public StorageLayoutMigration(LocalPublisherAdapter storage,
+                                  @Value("${assets.storage.migrate-layout:false}") boolean enabled) {
+        this.storage = storage;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        var migration = new Thread(this::run, "storage-migration");
+        migration.setDaemon(true);
+        migration.start();
+    }
+
+    /**
+     * Migrates asset files and blobs.
+     *
+     * @return number of files moved
+     */
+    public long run() {
+        log.info("Migrating stored files to the sharded layout");
+        try {
+            ShardedLayout blobs = storage.blobLayout();
+            long moved = migrate(storage.layout(), Set.of(storage.tempDirectory(), blobs.root()))
+                    + migrate(blobs, Set.of());
+            log.info("Storage layout migration finished, {} files moved", moved);
+            return moved;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Storage layout migration failed", e);
+        }
+    }
+
+    private static long migrate(ShardedLayout layout, Set<Path> excluded) throws IOException {
+        if (!Files.isDirectory(layout.root())) {
+            return 0;
+        }
+        long[] moved = {0};
+        Files.walkFileTree(layout.root(), new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return excluded.contains(dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path target = layout.locate(file.getFileName().toString());
+                if (!attrs.isRegularFile() || file.equals(target)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                if (Files.exists(target)) {
+                    log.warn("Not moving {}, {} already exists", file, target);
+                    return FileVisitResult.CONTINUE;
+                }
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+                moved[0]++;
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return moved[0];
+    }
+}
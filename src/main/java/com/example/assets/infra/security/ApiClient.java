@@ -0,0 +1,90 @@
+package com.example.assets.infra.security;
+
+import com.example.assets.infra.security.ApiKeyProperties.Limits;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A caller identified by its API key, with its own request and upload
+ * byte buckets (null when unlimited) and consumption counters, all built
+ * once at startup so a request only touches atomics.
+ */
+final class ApiClient {
+
+    static final String ALLOWED = "allowed";
+    static final String REQUEST_LIMITED = "request-limited";
+    static final String UPLOAD_LIMITED = "upload-limited";
+
+    private final String name;
+    private final TokenBucket requests;
+    private final TokenBucket uploads;
+    private final Counter allowed;
+    private final Counter requestLimited;
+    private final Counter uploadLimited;
+    private final Counter uploadBytes;
+
+    ApiClient(String name, Limits limits, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.name = name;
+        this.requests = limits.requestsPerSecond() > 0
+                ? new TokenBucket(limits.requestsPerSecond(),
+                burst(limits.requestBurst(), (long) Math.ceil(limits.requestsPerSecond())), nanoClock)
+                : null;
+        long bytesPerSecond = limits.uploadBytesPerSecond() == null ? 0 : limits.uploadBytesPerSecond().toBytes();
+        this.uploads = bytesPerSecond > 0
+                ? new TokenBucket(bytesPerSecond,
+                burst(limits.uploadBurst() == null ? 0 : limits.uploadBurst().toBytes(), bytesPerSecond), nanoClock)
+                : null;
+        this.allowed = requestCounter(meterRegistry, ALLOWED);
+        this.requestLimited = requestCounter(meterRegistry, REQUEST_LIMITED);
+        this.uploadLimited = requestCounter(meterRegistry, UPLOAD_LIMITED);
+        this.uploadBytes = Counter.builder("assets.api.upload.bytes")
+                .description("Request body bytes charged to an API key")
+                .baseUnit("bytes")
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+
+    private Counter requestCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("assets.api.requests")
+                .description("Requests made with an API key, by rate limiting outcome")
+                .tag("client", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static long burst(long configured, long oneSecond) {
+        return configured > 0 ? configured : Math.max(oneSecond, 1);
+    }
+
+    String name() {
+        return name;
+    }
+
+    /** Request bucket, null when requests are unlimited. */
+    TokenBucket requests() {
+        return requests;
+    }
+
+    /** Upload byte bucket, null when uploads are unlimited. */
+    TokenBucket uploads() {
+        return uploads;
+    }
+
+    void allowed() {
+        allowed.increment();
+    }
+
+    void requestLimited() {
+        requestLimited.increment();
+    }
+
+    void uploadLimited() {
+        uploadLimited.increment();
+    }
+
+    void uploaded(long bytes) {
+        uploadBytes.increment(bytes);
+    }
+}
@@ -1,40 +1,130 @@
 package com.example.assets.infra.security;
 
+import com.example.assets.infra.security.ApiKeyProperties.Limits;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
 
+/**
+ * Authenticates requests by their {@code X-API-KEY} and applies the
+ * per-key token-bucket limits of {@link ApiKeyProperties}: one request
+ * token per request, and one upload token per request body byte. A key
+ * over its limit gets 429 with {@code Retry-After}; keys with a request
+ * limit also get {@code RateLimit-Limit}, {@code RateLimit-Remaining} and
+ * {@code RateLimit-Reset} on every response.
+ */
 @Component
 public class ApiKeyAuthFilter extends OncePerRequestFilter {
 
     private static final Logger log =
             LoggerFactory.getLogger(ApiKeyAuthFilter.class);
 
-    private final String expectedKey;
+    static final String LIMIT_HEADER = "RateLimit-Limit";
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+    static final String RESET_HEADER = "RateLimit-Reset";
+
+    private final Map<String, ApiClient> clients;
     private final String swaggerUiPath;
     private final String apiDocsPath;
 
-    public ApiKeyAuthFilter(@Value("${security.api.key}") String expectedKey,
+    @Autowired
+    public ApiKeyAuthFilter(Environment environment,
+                            ObjectProvider<MeterRegistry> meterRegistry,
                             @Value("${springdoc.swagger-ui.path:/swagger-ui}") String swaggerUiPath,
                             @Value("${springdoc.api-docs.path:/v3/api-docs}") String apiDocsPath) {
-        this.expectedKey = expectedKey;
+        this(Binder.get(environment).bind("security.api", ApiKeyProperties.class)
+                        .orElseGet(() -> new ApiKeyProperties(null, null, null)),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new), System::nanoTime,
+                swaggerUiPath, apiDocsPath);
+    }
+
+    /**
+     * A single unlimited key.
+     */
+    public ApiKeyAuthFilter(String expectedKey, String swaggerUiPath, String apiDocsPath) {
+        this(new ApiKeyProperties(expectedKey, null, null), new SimpleMeterRegistry(), System::nanoTime,
+                swaggerUiPath, apiDocsPath);
+    }
+
+    ApiKeyAuthFilter(ApiKeyProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock,
+                     String swaggerUiPath, String apiDocsPath) {
+        this.clients = clients(properties, meterRegistry, nanoClock);
         this.swaggerUiPath = swaggerUiPath;
         this.apiDocsPath = apiDocsPath;
     }
 
+    private static Map<String, ApiClient> clients(ApiKeyProperties properties, MeterRegistry meterRegistry,
+                                                  LongSupplier nanoClock) {
+        Map<String, ApiClient> byKey = new HashMap<>();
+        Set<String> names = new HashSet<>();
+        if (StringUtils.hasText(properties.key())) {
+            names.add(ApiKeyProperties.DEFAULT_CLIENT);
+            byKey.put(properties.key(), new ApiClient(ApiKeyProperties.DEFAULT_CLIENT,
+                    limits(properties.limits()), meterRegistry, nanoClock));
+        }
+        List<ApiKeyProperties.Client> configured = properties.clients() == null ? List.of() : properties.clients();
+        for (ApiKeyProperties.Client client : configured) {
+            if (!StringUtils.hasText(client.name()) || !StringUtils.hasText(client.key())) {
+                throw new IllegalStateException("Every API client needs a name and a key");
+            }
+            if (!names.add(client.name())) {
+                throw new IllegalStateException("Duplicate API client name: " + client.name());
+            }
+            if (byKey.containsKey(client.key())) {
+                throw new IllegalStateException("API client " + client.name() + " reuses the key of another client");
+            }
+            byKey.put(client.key(), new ApiClient(client.name(), limits(client.limits()), meterRegistry, nanoClock));
+        }
+        if (byKey.isEmpty()) {
+            throw new IllegalStateException("No API key configured: set security.api.key or security.api.clients");
+        }
+        return Map.copyOf(byKey);
+    }
+
+    private static Limits limits(Limits limits) {
+        return limits == null ? Limits.NONE : limits;
+    }
+
+    /**
+     * Streamed responses end with an async dispatch, which goes through the
+     * authorization filter again; nothing of the first dispatch is kept
+     * since sessions are stateless, so the key is checked once more.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
@@ -46,7 +136,8 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
         }
 
         String key = request.getHeader("X-API-KEY");
-        if (key == null || !key.equals(expectedKey)) {
+        ApiClient client = key == null ? null : clients.get(key);
+        if (client == null) {
             log.warn("Invalid or missing API Key for {} {}", request.getMethod(), request.getRequestURI());
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("Invalid or missing API Key");
@@ -55,10 +146,132 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
 
         // mark as authenticated (avoids subsequent 403s)
         var auth = new UsernamePasswordAuthenticationToken(
-                "api-key-user", null, List.of(new SimpleGrantedAuthority("ROLE_API"))
+                client.name(), null, List.of(new SimpleGrantedAuthority("ROLE_API"))
         );
+
+        // the request was already charged on its first dispatch
+        if (isAsyncDispatch(request)) {
+            SecurityContextHolder.getContext().setAuthentication(auth);
+            chain.doFilter(request, response);
+            return;
+        }
+
+        TokenBucket requests = client.requests();
+        if (requests != null) {
+            long wait = requests.tryTake(1);
+            rateLimitHeaders(response, requests);
+            if (wait > 0) {
+                client.requestLimited();
+                tooManyRequests(response, wait, client, "Request rate limit exceeded");
+                return;
+            }
+        }
+
+        long length = request.getContentLengthLong();
+        // chunked bodies are charged once read
+        CountingRequest counting = length < 0 && request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null
+                ? new CountingRequest(request)
+                : null;
+        TokenBucket uploads = client.uploads();
+        if (uploads != null && (length > 0 || counting != null)) {
+            long wait = uploads.tryTakeOnCredit(Math.max(length, 0));
+            if (wait > 0) {
+                client.uploadLimited();
+                tooManyRequests(response, wait, client, "Upload rate limit exceeded");
+                return;
+            }
+        }
+        client.allowed();
+        if (length > 0) {
+            client.uploaded(length);
+        }
+
         SecurityContextHolder.getContext().setAuthentication(auth);
+        try {
+            chain.doFilter(counting == null ? request : counting, response);
+        } finally {
+            if (counting != null && counting.read > 0) {
+                if (uploads != null) {
+                    uploads.takeAnyway(counting.read);
+                }
+                client.uploaded(counting.read);
+            }
+        }
+    }
 
-        chain.doFilter(request, response);
+    private static void rateLimitHeaders(HttpServletResponse response, TokenBucket bucket) {
+        response.setHeader(LIMIT_HEADER, String.valueOf(bucket.capacity()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(bucket.available()));
+        response.setHeader(RESET_HEADER, String.valueOf(seconds(bucket.nanosUntilFull())));
+    }
+
+    private static void tooManyRequests(HttpServletResponse response, long waitNanos, ApiClient client,
+                                        String message) throws IOException {
+        log.debug("{} for API client {}", message, client.name());
+        response.setStatus(429);
+        // Retry-After takes whole seconds
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, seconds(waitNanos))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + 999_999_999) / 1_000_000_000;
+    }
+
+    /**
+     * Counts the body bytes read by the application. Multipart bodies are
+     * parsed by the container itself, so only a Content-Length charges them.
+     */
+    private static final class CountingRequest extends HttpServletRequestWrapper {
+
+        private long read;
+        private ServletInputStream stream;
+
+        CountingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                ServletInputStream delegate = super.getInputStream();
+                stream = new ServletInputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        int b = delegate.read();
+                        if (b >= 0) {
+                            read++;
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int n = delegate.read(buffer, offset, length);
+                        if (n > 0) {
+                            read += n;
+                        }
+                        return n;
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return delegate.isFinished();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setReadListener(ReadListener listener) {
+                        delegate.setReadListener(listener);
+                    }
+                };
+            }
+            return stream;
+        }
     }
 }
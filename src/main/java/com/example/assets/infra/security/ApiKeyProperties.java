@@ -0,0 +1,44 @@
+package com.example.assets.infra.security;
+
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * API keys accepted by {@link ApiKeyAuthFilter}, bound from {@code security.api}.
+ * The shared {@code key} is the client named {@value #DEFAULT_CLIENT}; each
+ * entry of {@code clients} adds a key of its own, with its own limits.
+ *
+ * @param key     shared key, may be blank when every caller has its own
+ * @param limits  limits of the shared key
+ * @param clients further keys
+ */
+record ApiKeyProperties(String key, Limits limits, List<Client> clients) {
+
+    static final String DEFAULT_CLIENT = "default";
+
+    /**
+     * @param name   names the client in logs and metrics, never the key itself
+     * @param key    the {@code X-API-KEY} value
+     * @param limits limits of this key
+     */
+    record Client(String name, String key, Limits limits) {
+    }
+
+    /**
+     * Token-bucket limits; a rate of 0 is unlimited and a burst of 0 is one
+     * second worth of the rate.
+     *
+     * @param requestsPerSecond     sustained requests
+     * @param requestBurst          requests allowed at once
+     * @param uploadBytesPerSecond  sustained request body bytes
+     * @param uploadBurst           request body bytes allowed at once; a
+     *                              larger upload is still let through, and
+     *                              the next ones wait until it is paid back
+     */
+    record Limits(double requestsPerSecond, long requestBurst,
+                  DataSize uploadBytesPerSecond, DataSize uploadBurst) {
+
+        static final Limits NONE = new Limits(0, 0, null, null);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.assets.infra.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket. Its whole state is the clock reading at which it
+ * will be full again (as in GCRA): taking tokens pushes that instant forward
+ * by their refill time, with a single compare-and-set and no refill task.
+ */
+final class TokenBucket {
+
+    private final long capacity;
+    private final double nanosPerToken;
+    private final long capacityNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong fullAt;
+
+    TokenBucket(double tokensPerSecond, long capacity, LongSupplier nanoClock) {
+        if (tokensPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Rate and capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = 1_000_000_000d / tokensPerSecond;
+        this.capacityNanos = (long) (capacity * nanosPerToken);
+        this.nanoClock = nanoClock;
+        this.fullAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Takes the tokens if the bucket holds all of them.
+     *
+     * @return 0 if they were taken, otherwise the nanos until they will be there
+     */
+    long tryTake(long tokens) {
+        return take(tokens, false);
+    }
+
+    /**
+     * Takes the tokens if the bucket is not empty, leaving it in debt when
+     * it holds fewer: the debt is paid back before anything else gets in.
+     * For costs that may exceed the capacity, such as a large upload.
+     *
+     * @return 0 if they were taken, otherwise the nanos until there is a token
+     */
+    long tryTakeOnCredit(long tokens) {
+        return take(tokens, true);
+    }
+
+    /**
+     * Takes the tokens whatever the bucket holds, for costs only known once paid.
+     */
+    void takeAnyway(long tokens) {
+        long cost = cost(tokens);
+        long now = nanoClock.getAsLong();
+        fullAt.updateAndGet(current -> now + missingNanos(current, now) + cost);
+    }
+
+    /**
+     * @return the whole tokens left now, 0 while in debt
+     */
+    long available() {
+        long missing = missingNanos(fullAt.get(), nanoClock.getAsLong());
+        return Math.max((long) ((capacityNanos - missing) / nanosPerToken), 0);
+    }
+
+    /**
+     * @return the nanos until the bucket is full again
+     */
+    long nanosUntilFull() {
+        return missingNanos(fullAt.get(), nanoClock.getAsLong());
+    }
+
+    private long take(long tokens, boolean onCredit) {
+        long cost = cost(tokens);
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = fullAt.get();
+            long missing = missingNanos(current, now);
+            long wait = onCredit
+                    ? missing - capacityNanos + (long) Math.ceil(nanosPerToken)
+                    : missing + cost - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, now + missing + cost)) {
+                return 0;
+            }
+        }
+    }
+
+    private long cost(long tokens) {
+        return (long) Math.ceil(tokens * nanosPerToken);
+    }
+
+    private static long missingNanos(long fullAt, long now) {
+        return Math.max(fullAt - now, 0);
+    }
+}
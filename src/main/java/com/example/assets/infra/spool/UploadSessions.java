@@ -0,0 +1,391 @@
+package com.example.assets.infra.spool;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Resumable upload sessions. A session declares its size up front and gets
+ * a file of that length in the spool; chunks are then written at their
+ * offset with positional writes, in any order and concurrently, and the
+ * session tracks which ranges have arrived. A chunk cut short still counts
+ * for the bytes it delivered, so a client resumes from what is missing
+ * instead of starting over. Once complete, a session is sealed against
+ * further writes and its file handed over for publishing. Sessions live in
+ * memory and expire after {@code assets.upload.session.ttl} without
+ * activity, checked every minute in the background; a restart drops them.
+ */
+@Component
+public class UploadSessions {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSessions.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Duration EXPIRY_INTERVAL = Duration.ofMinutes(1);
+
+    private final Path dir;
+    private final long maxSize;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+    private ScheduledExecutorService expiry;
+
+    @Autowired
+    public UploadSessions(@Value("${assets.upload.spool-dir:${user.dir}/spool}") String spoolDir,
+                          @Value("${assets.upload.session.max-size:1GB}") DataSize maxSize,
+                          @Value("${assets.upload.session.ttl:24h}") Duration ttl) throws IOException {
+        this(Paths.get(spoolDir).resolve("sessions"), maxSize.toBytes(), ttl, Clock.systemUTC());
+        this.expiry = Executors.newSingleThreadScheduledExecutor(task -> {
+            var thread = new Thread(task, "upload-session-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = Math.min(ttl.toMillis(), EXPIRY_INTERVAL.toMillis());
+        expiry.scheduleWithFixedDelay(this::expire, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    UploadSessions(Path dir, long maxSize, Duration ttl, Clock clock) throws IOException {
+        this.dir = dir;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.clock = clock;
+        Files.createDirectories(dir);
+        // sessions are not kept across restarts
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Opens a session and sizes its file to the declared length.
+     *
+     * @throws IllegalArgumentException if the size is not positive or above the maximum
+     */
+    public SessionInfo create(String filename, String contentType, long size) throws IOException {
+        if (size <= 0 || size > maxSize) {
+            throw new IllegalArgumentException("Size must be between 1 and " + maxSize + " bytes");
+        }
+        UUID id = UUID.randomUUID();
+        Path file = dir.resolve(id + ".part");
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // sparse on most filesystems: blocks are allocated as chunks arrive
+            channel.write(ByteBuffer.allocate(1), size - 1);
+        } catch (IOException e) {
+            channel.close();
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        var session = new Session(id, filename, contentType, size, file, channel, clock.instant());
+        sessions.put(id, session);
+        return session.info();
+    }
+
+    public Optional<SessionInfo> find(UUID id) {
+        return Optional.ofNullable(sessions.get(id)).map(Session::info);
+    }
+
+    /**
+     * Writes a chunk at the given offset, reading the stream until EOF.
+     *
+     * @return the session after the write
+     * @throws NoSuchElementException   if there is no such session
+     * @throws IllegalArgumentException if the chunk does not fit in the declared size
+     */
+    public SessionInfo write(UUID id, long offset, InputStream data) throws IOException {
+        Session session = require(id);
+        if (offset < 0 || offset >= session.size) {
+            throw new IllegalArgumentException("Offset must be between 0 and " + (session.size - 1));
+        }
+        session.writes.readLock().lock();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long position = offset;
+        try {
+            if (sessions.get(id) != session) {
+                throw new NoSuchElementException("Upload session " + id + " not found");
+            }
+            if (session.sealed) {
+                throw new IllegalStateException("Upload session " + id + " is being committed");
+            }
+            int read;
+            while ((read = data.read(buffer, 0, (int) Math.min(buffer.length, session.size - position + 1))) != -1) {
+                if (position + read > session.size) {
+                    throw new IllegalArgumentException("Chunk goes past the declared size of " + session.size + " bytes");
+                }
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    position += session.channel.write(chunk, position);
+                }
+            }
+        } finally {
+            session.received(offset, position, clock.instant());
+            session.writes.readLock().unlock();
+        }
+        return session.info();
+    }
+
+    /**
+     * Seals a complete session, waiting for chunks still being written, and
+     * gives access to its content. The session must then be either
+     * {@linkplain #finish finished} or {@linkplain #unseal unsealed}.
+     *
+     * @throws NoSuchElementException if there is no such session
+     * @throws IllegalStateException  if some ranges are still missing or it is already sealed
+     */
+    public Completed seal(UUID id) {
+        Session session = require(id);
+        session.writes.writeLock().lock();
+        try {
+            if (session.sealed) {
+                throw new IllegalStateException("Upload session " + id + " is already being committed");
+            }
+            long missing = session.size - session.info().received();
+            if (missing > 0) {
+                throw new IllegalStateException("Upload session " + id + " is missing " + missing + " bytes");
+            }
+            session.sealed = true;
+        } finally {
+            session.writes.writeLock().unlock();
+        }
+        return new Completed(session.filename, session.contentType, session.file);
+    }
+
+    /**
+     * Reopens a sealed session whose content could not be handed over, so
+     * the commit can be retried.
+     */
+    public void unseal(UUID id) {
+        Session session = require(id);
+        session.writes.writeLock().lock();
+        try {
+            session.sealed = false;
+        } finally {
+            session.writes.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets a sealed session whose file now belongs to someone else.
+     */
+    public void finish(UUID id) {
+        Session session = sessions.remove(id);
+        if (session != null) {
+            session.close();
+        }
+    }
+
+    /**
+     * Discards a session and its content, waiting for chunks still being
+     * written.
+     *
+     * @return whether the session existed
+     */
+    public boolean abort(UUID id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            return false;
+        }
+        session.writes.writeLock().lock();
+        try {
+            if (!sessions.remove(id, session)) {
+                return false;
+            }
+            session.discard();
+        } finally {
+            session.writes.writeLock().unlock();
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (expiry != null) {
+            expiry.shutdownNow();
+        }
+    }
+
+    private Session require(UUID id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new NoSuchElementException("Upload session " + id + " not found");
+        }
+        return session;
+    }
+
+    /**
+     * Discards the sessions idle for longer than the ttl. A session with a
+     * chunk being written is not idle, so it is skipped rather than waited for.
+     */
+    void expire() {
+        Instant cutoff = clock.instant().minus(ttl);
+        sessions.values().removeIf(session -> {
+            if (!session.lastActivity().isBefore(cutoff) || !session.writes.writeLock().tryLock()) {
+                return false;
+            }
+            try {
+                if (session.sealed) {
+                    return false;
+                }
+                log.info("Upload session {} expired", session.id);
+                session.discard();
+                return true;
+            } finally {
+                session.writes.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Snapshot of a session.
+     *
+     * @param missing ranges not received yet, as {@code [start, end)} pairs
+     */
+    public record SessionInfo(UUID id, String filename, String contentType, long size, long received,
+                              List<Range> missing) { }
+
+    public record Range(long start, long end) { }
+
+    /**
+     * A finished upload; the file belongs to the caller.
+     */
+    public record Completed(String filename, String contentType, Path content) { }
+
+    private static final class Session {
+
+        private final UUID id;
+        private final String filename;
+        private final String contentType;
+        private final long size;
+        private final Path file;
+        private final FileChannel channel;
+        // received ranges, start -> end, never overlapping or touching
+        private final TreeMap<Long, Long> ranges = new TreeMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        // chunks write under the read lock, sealing takes the write lock
+        private final ReadWriteLock writes = new ReentrantReadWriteLock();
+        private volatile boolean sealed;
+        private Instant lastActivity;
+
+        Session(UUID id, String filename, String contentType, long size, Path file, FileChannel channel,
+                Instant now) {
+            this.id = id;
+            this.filename = filename;
+            this.contentType = contentType;
+            this.size = size;
+            this.file = file;
+            this.channel = channel;
+            this.lastActivity = now;
+        }
+
+        void received(long start, long end, Instant now) {
+            lock.lock();
+            try {
+                lastActivity = now;
+                if (end <= start) {
+                    return;
+                }
+                var before = ranges.floorEntry(start);
+                if (before != null && before.getValue() >= start) {
+                    start = before.getKey();
+                    end = Math.max(end, before.getValue());
+                }
+                var next = ranges.ceilingEntry(start);
+                while (next != null && next.getKey() <= end) {
+                    end = Math.max(end, next.getValue());
+                    ranges.remove(next.getKey());
+                    next = ranges.ceilingEntry(start);
+                }
+                ranges.put(start, end);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Instant lastActivity() {
+            lock.lock();
+            try {
+                return lastActivity;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long receivedBytes() {
+            return ranges.entrySet().stream().mapToLong(range -> range.getValue() - range.getKey()).sum();
+        }
+
+        List<Range> missing() {
+            List<Range> missing = new ArrayList<>();
+            long position = 0;
+            for (var range : ranges.entrySet()) {
+                if (range.getKey() > position) {
+                    missing.add(new Range(position, range.getKey()));
+                }
+                position = range.getValue();
+            }
+            if (position < size) {
+                missing.add(new Range(position, size));
+            }
+            return missing;
+        }
+
+        SessionInfo info() {
+            lock.lock();
+            try {
+                return new SessionInfo(id, filename, contentType, size, receivedBytes(), missing());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close upload session file {}", file, e);
+            }
+        }
+
+        void discard() {
+            close();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete upload session file {}", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.assets.infra.spool;
+
+import com.example.assets.domain.exception.UploadTooLargeException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stages incoming upload bodies on local disk so they can be published
+ * asynchronously after the HTTP request has completed.
+ * Content is copied with a fixed-size buffer, so heap usage does not
+ * depend on the size of the upload, and no spool file grows beyond the
+ * maximum upload size, however long the body goes on.
+ * <p>
+ * Once an upload is accepted its file is moved into the {@code queue}
+ * subdirectory, named after the asset id, where it stays until it has
+ * been published. The queue is durable: files found there on startup
+ * belong to uploads a previous run accepted but did not finish, and are
+ * handed over through {@link #recovered()}. Files still being received
+ * when the previous run stopped are deleted. The spool directory must
+ * therefore be on persistent storage; it defaults to {@code spool} next to
+ * the {@code uploads} storage root.
+ */
+@Component
+public class UploadSpool {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSpool.class);
+
+    private final Path dir;
+    private final Path queue;
+    private final long maxSize;
+    private final Map<UUID, Path> recovered;
+
+    @Autowired
+    public UploadSpool(@Value("${assets.upload.spool-dir:${user.dir}/spool}") String dir,
+                       @Value("${assets.upload.max-size:1GB}") DataSize maxSize) throws IOException {
+        this(dir, maxSize.toBytes());
+    }
+
+    public UploadSpool(String dir) throws IOException {
+        this(dir, Long.MAX_VALUE);
+    }
+
+    public UploadSpool(String dir, long maxSize) throws IOException {
+        this.dir = Paths.get(dir);
+        this.maxSize = maxSize;
+        this.queue = this.dir.resolve("queue");
+        Files.createDirectories(queue);
+        purgeStaged();
+        this.recovered = scanQueue();
+    }
+
+    /**
+     * Largest upload, in bytes, that a spool file may hold.
+     */
+    public long maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Copies the given stream into a new spool file.
+     *
+     * @param data content to stage; it is read until EOF but not closed
+     * @return path of the spool file, owned by the caller from now on
+     * @throws UploadTooLargeException as soon as more than {@link #maxSize()}
+     *                                 bytes have been read
+     */
+    public Path spool(InputStream data) throws IOException {
+        return spool(data::transferTo);
+    }
+
+    /**
+     * Creates a new spool file and lets the writer fill it, e.g. while
+     * decoding content incrementally.
+     *
+     * @param writer producer of the content; must write in bounded chunks
+     * @return path of the spool file, owned by the caller from now on
+     * @throws UploadTooLargeException as soon as more than {@link #maxSize()}
+     *                                 bytes have been written
+     */
+    public Path spool(ContentWriter writer) throws IOException {
+        Path file = Files.createTempFile(dir, "upload-", ".part");
+        try (OutputStream out = new BoundedOutputStream(Files.newOutputStream(file), maxSize)) {
+            writer.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            discard(file);
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Moves a staged file into the publish queue under the asset id. The
+     * content is forced to disk first, so the upload survives a crash once
+     * this returns.
+     *
+     * @return path of the queued file, deleted by the publisher once done
+     */
+    public Path enqueue(UUID assetId, Path staged) throws IOException {
+        try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Path queued = queue.resolve(assetId.toString());
+        Files.move(staged, queued, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(queue);
+        return queued;
+    }
+
+    /**
+     * Writes in-memory content straight into the publish queue, so it does
+     * not stay on the heap while it waits to be published.
+     */
+    public Path enqueue(UUID assetId, byte[] data) throws IOException {
+        Path staged = spool(new ByteArrayInputStream(data));
+        try {
+            return enqueue(assetId, staged);
+        } catch (IOException | RuntimeException e) {
+            discard(staged);
+            throw e;
+        }
+    }
+
+    /**
+     * Whether the publish queue of this instance still holds the content
+     * of the given asset.
+     */
+    public boolean isQueued(UUID assetId) {
+        return Files.exists(queue.resolve(assetId.toString()));
+    }
+
+    /**
+     * Files that were in the publish queue when this instance started, by
+     * asset id, in no particular order.
+     */
+    public Map<UUID, Path> recovered() {
+        return recovered;
+    }
+
+    /**
+     * Deletes a spool file that will not be handed over for publishing.
+     */
+    public void discard(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // a queued file left behind is published again on the next start
+            log.warn("Could not delete spool file {}", file, e);
+        }
+    }
+
+    private void purgeStaged() throws IOException {
+        try (DirectoryStream<Path> staged = Files.newDirectoryStream(dir, "upload-*.part")) {
+            for (Path file : staged) {
+                log.info("Deleting upload left incomplete by a previous run: {}", file);
+                discard(file);
+            }
+        }
+    }
+
+    private Map<UUID, Path> scanQueue() throws IOException {
+        Map<UUID, Path> queued = new LinkedHashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(queue)) {
+            for (Path file : files) {
+                try {
+                    queued.put(UUID.fromString(file.getFileName().toString()), file);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Ignoring unexpected file in publish queue: {}", file);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(queued);
+    }
+
+    // makes the rename itself durable; not every platform can open a directory
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // best effort
+        }
+    }
+
+    /**
+     * Fails a write that would take the file past the limit, before any of
+     * it reaches the disk.
+     */
+    private static final class BoundedOutputStream extends FilterOutputStream {
+
+        private final long limit;
+        private long written;
+
+        BoundedOutputStream(OutputStream out, long limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            admit(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            admit(len);
+            out.write(b, off, len);
+        }
+
+        private void admit(int len) {
+            if (len > limit - written) {
+                throw new UploadTooLargeException(limit);
+            }
+            written += len;
+        }
+    }
+
+    /**
+     * Producer of spooled content.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -1,14 +1,25 @@
 package com.example.assets.web;
 
+import com.example.assets.app.PipelineMetrics;
+import com.example.assets.domain.exception.UploadTooLargeException;
 import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetCursor;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.AssetUpload;
 import com.example.assets.domain.model.SortDirection;
 import com.example.assets.domain.usecase.SearchAssetsUseCase;
 import com.example.assets.domain.usecase.UploadAssetUseCase;
 import com.example.assets.domain.usecase.FindAssetUseCase;
+import com.example.assets.domain.usecase.DownloadAssetUseCase;
+import com.example.assets.infra.spool.UploadSpool;
+import com.example.assets.web.dto.AssetBatchUploadResponse;
 import com.example.assets.web.dto.AssetDto;
 import com.example.assets.domain.model.SortDirection;
 import com.example.assets.web.dto.AssetFileUploadRequest;
 import com.example.assets.web.dto.AssetFileUploadResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -16,22 +27,35 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.server.ResponseStatusException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.Base64;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST controller for managing assets.
@@ -44,18 +68,42 @@ public class AssetController {
     private static final Logger log =
             LoggerFactory.getLogger(AssetController.class);
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    // PUBLISHED and FAILED assets never change again
+    private static final String TERMINAL_CACHE_CONTROL =
+            CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable().getHeaderValue();
+    private static final String REVALIDATE_CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
     private final UploadAssetUseCase uploadUC;
     private final SearchAssetsUseCase searchUC;
     private final FindAssetUseCase findUC;
+    private final DownloadAssetUseCase downloadUC;
+    private final UploadSpool spool;
+    private final JsonUploadReader jsonReader;
+    private final ObjectMapper objectMapper;
+    private final ContentRangeWriter contentWriter = new ContentRangeWriter();
+    private final Timer decodeTimer;
 
-    public AssetController(UploadAssetUseCase uploadUC, SearchAssetsUseCase searchUC, FindAssetUseCase findUC) {
+    public AssetController(UploadAssetUseCase uploadUC, SearchAssetsUseCase searchUC, FindAssetUseCase findUC,
+                           DownloadAssetUseCase downloadUC, UploadSpool spool, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
         this.uploadUC = uploadUC;
         this.searchUC = searchUC;
         this.findUC = findUC;
+        this.downloadUC = downloadUC;
+        this.spool = spool;
+        this.jsonReader = new JsonUploadReader(objectMapper.getFactory(), spool);
+        this.objectMapper = objectMapper;
+        this.decodeTimer = PipelineMetrics.stage(meterRegistry, "decode");
     }
 
     /**
      * Uploads a new asset (async publishing).
+     * The Base64 content is decoded while the body is parsed, so the request
+     * is never bound to a String or decoded into a single byte array.
      */
     @PostMapping(value = "/actions/upload", consumes = "application/json")
     @Operation(
@@ -73,35 +121,192 @@ public class AssetController {
                             content = @Content(schema = @Schema(implementation = AssetFileUploadResponse.class))
                     ),
                     @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content),
+                    @ApiResponse(responseCode = "413", description = "Larger than the maximum upload size",
+                            content = @Content),
                     @ApiResponse(responseCode = "415", description = "Unsupported media type", content = @Content)
             }
     )
-    public ResponseEntity<AssetFileUploadResponse> upload(
-            @Valid @RequestBody AssetFileUploadRequest req
-    ) {
-        log.info("Uploading {}", req.getFilename());
-        byte[] data = Base64.getDecoder().decode(req.getEncodedFile());
-        var id = uploadUC.execute(req.getFilename(), req.getContentType(), data);
+    public ResponseEntity<AssetFileUploadResponse> upload(InputStream body) throws IOException {
+        var req = decode(() -> jsonReader.read(body));
+        log.info("Uploading {}", req.filename());
+        return accept(req.filename(), req.contentType(), req.content());
+    }
+
+    /**
+     * Uploads a new asset sent as the raw request body (async publishing).
+     * The body is streamed to a disk spool, never held in memory as a whole.
+     * A declared length over the maximum upload size is refused before
+     * anything is read, and the spool stops a body that turns out longer.
+     */
+    @PostMapping(value = "/actions/upload", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(
+            summary = "Upload a raw binary file (asynchronous)",
+            description = "Streams the request body to storage. Returns 202 Accepted with the generated ID and continues publishing in the background.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "202",
+                            description = "Accepted; background processing started",
+                            content = @Content(schema = @Schema(implementation = AssetFileUploadResponse.class))
+                    ),
+                    @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content),
+                    @ApiResponse(responseCode = "413", description = "Larger than the maximum upload size",
+                            content = @Content)
+            }
+    )
+    public ResponseEntity<AssetFileUploadResponse> uploadBinary(
+            @Parameter(description = "Name of the file", example = "video.mp4")
+            @RequestParam String filename,
+
+            @Parameter(description = "MIME type of the file", example = "video/mp4")
+            @RequestParam(required = false, defaultValue = MediaType.APPLICATION_OCTET_STREAM_VALUE) String contentType,
+
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+
+            InputStream body
+    ) throws IOException {
+        log.info("Uploading {} (binary)", filename);
+        requireFileMetadata(filename, contentType);
+        if (contentLength != null && contentLength > spool.maxSize()) {
+            throw new UploadTooLargeException(spool.maxSize());
+        }
+        return accept(filename, contentType, decode(() -> spool.spool(body)));
+    }
+
+    /**
+     * Uploads a new asset sent as a multipart form (async publishing).
+     */
+    @PostMapping(value = "/actions/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            summary = "Upload a multipart file (asynchronous)",
+            description = "Streams the 'file' part to storage. Filename and content type default to those of the part. Returns 202 Accepted with the generated ID.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "202",
+                            description = "Accepted; background processing started",
+                            content = @Content(schema = @Schema(implementation = AssetFileUploadResponse.class))
+                    ),
+                    @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content),
+                    @ApiResponse(responseCode = "413", description = "Larger than the maximum upload size",
+                            content = @Content)
+            }
+    )
+    public ResponseEntity<AssetFileUploadResponse> uploadMultipart(
+            @RequestPart("file") MultipartFile file,
+
+            @Parameter(description = "Overrides the filename of the part", example = "report.pdf")
+            @RequestParam(required = false) String filename,
+
+            @Parameter(description = "Overrides the content type of the part", example = "application/pdf")
+            @RequestParam(required = false) String contentType
+    ) throws IOException {
+        String name = filename != null ? filename : file.getOriginalFilename();
+        String type = contentType != null ? contentType : contentType(file);
+        log.info("Uploading {} (multipart)", name);
+        requireFileMetadata(name, type);
+
+        try (InputStream in = file.getInputStream()) {
+            return accept(name, type, decode(() -> spool.spool(in)));
+        }
+    }
+
+    @PostMapping(value = "/actions/upload-batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            summary = "Upload several files at once (asynchronous)",
+            description = "Accepts any number of 'files' parts, named and typed after each part. All assets are created in one go and published in the background. Returns 202 Accepted with the generated IDs in part order.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "202",
+                            description = "Accepted; background processing started",
+                            content = @Content(schema = @Schema(implementation = AssetBatchUploadResponse.class))
+                    ),
+                    @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content)
+            }
+    )
+    public ResponseEntity<AssetBatchUploadResponse> uploadBatch(
+            @RequestPart("files") List<MultipartFile> files
+    ) throws IOException {
+        log.info("Uploading a batch of {} files", files.size());
+        for (MultipartFile file : files) {
+            requireFileMetadata(file.getOriginalFilename(), contentType(file));
+        }
+
+        List<AssetUpload> uploads = new ArrayList<>(files.size());
+        try {
+            for (MultipartFile file : files) {
+                try (InputStream in = file.getInputStream()) {
+                    uploads.add(new AssetUpload(file.getOriginalFilename(), contentType(file),
+                            decode(() -> spool.spool(in))));
+                }
+            }
+            List<UUID> ids = uploadUC.execute(uploads);
+            log.info("Batch upload accepted: {} assets", ids.size());
+            return ResponseEntity.accepted().body(new AssetBatchUploadResponse(ids));
+        } catch (IOException | RuntimeException e) {
+            uploads.forEach(upload -> spool.discard(upload.content()));
+            throw e;
+        }
+    }
+
+    /**
+     * Times the {@code decode} stage: the request body read into the spool.
+     */
+    private <T> T decode(Decoding<T> decoding) throws IOException {
+        long started = System.nanoTime();
+        T decoded = decoding.decode();
+        decodeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return decoded;
+    }
+
+    @FunctionalInterface
+    private interface Decoding<T> {
+        T decode() throws IOException;
+    }
+
+    private static String contentType(MultipartFile file) {
+        return file.getContentType() != null ? file.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    private void requireFileMetadata(String filename, String contentType) {
+        if (filename == null || filename.isBlank() || contentType.isBlank()) {
+            log.warn("Filename and content type must not be empty");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Filename and content type must not be empty");
+        }
+    }
+
+    private ResponseEntity<AssetFileUploadResponse> accept(String filename, String contentType, Path content) {
+        UUID id;
+        try {
+            id = uploadUC.execute(filename, contentType, content);
+        } catch (RuntimeException e) {
+            spool.discard(content);
+            throw e;
+        }
         log.info("Upload accepted: {}", id);
         return ResponseEntity.accepted().body(new AssetFileUploadResponse(id));
     }
 
     /**
-     * Searches for assets with optional filters.
+     * Searches for assets with optional filters, one page at a time.
+     * The ETag is the search version, so a poller that already has the
+     * page is answered 304 before the query runs.
      */
     @GetMapping("/")
     @Operation(
             summary = "Search assets",
-            description = "Returns a list of assets filterable by upload date range, filename pattern ('*' wildcard), and MIME type. Sorted by upload date.",
+            description = "Returns a page of assets filterable by upload date range, filename pattern ('*' wildcard), and MIME type. "
+                    + "Sorted by upload date, assets not yet published come last. When more results exist, the "
+                    + "X-Next-Cursor header (and a rel=\"next\" Link) holds the cursor of the next page.",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
-                            description = "List of assets",
+                            description = "Page of assets",
                             content = @Content(array = @ArraySchema(schema = @Schema(implementation = AssetDto.class)))
-                    )
+                    ),
+                    @ApiResponse(responseCode = "304", description = "Unchanged since the page with the given ETag",
+                            content = @Content)
             }
     )
-    public List<AssetDto> search(
+    public ResponseEntity<List<AssetDto>> search(
             @Parameter(description = "Start of upload date range (UTC, ISO-8601)", example = "2025-08-21T00:00:00Z")
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant uploadDateStart,
@@ -120,35 +325,106 @@ public class AssetController {
                     description = "Sort direction by upload date",
                     schema = @Schema(allowableValues = {"ASC", "DESC"}, example = "DESC")
             )
-            @RequestParam(required = false, defaultValue = "DESC") SortDirection sortDirection
+            @RequestParam(required = false, defaultValue = "DESC") SortDirection sortDirection,
+
+            @Parameter(description = "Opaque cursor returned in X-Next-Cursor by the previous page")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Maximum number of assets in the page (1-" + MAX_PAGE_SIZE + ")", example = "100")
+            @RequestParam(required = false, defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+
+            @Parameter(hidden = true) ServletWebRequest request
     ) {
-        log.info("Searching assets with uploadDateStart={}, uploadDateEnd={}, filename={}, filetype={}, sortDirection={}",
-                uploadDateStart, uploadDateEnd, filename, filetype, sortDirection);
+        log.info("Searching assets with uploadDateStart={}, uploadDateEnd={}, filename={}, filetype={}, sortDirection={}, cursor={}, limit={}",
+                uploadDateStart, uploadDateEnd, filename, filetype, sortDirection, cursor, limit);
 
-        if (filename != null && filename.isBlank()) {
-            log.warn("Filename must not be empty");
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Filename must not be empty");
-        }
-        if (filetype != null && filetype.isBlank()) {
-            log.warn("Filetype must not be empty");
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Filetype must not be empty");
-        }
-        if (uploadDateStart != null && uploadDateEnd != null && uploadDateStart.isAfter(uploadDateEnd)) {
-            log.warn("Invalid upload date range: {} to {}", uploadDateStart, uploadDateEnd);
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid upload date range");
+        validateFilters(uploadDateStart, uploadDateEnd, filename, filetype);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            log.warn("Invalid page size: {}", limit);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
         }
 
         Instant start = uploadDateStart == null ? null : uploadDateStart.truncatedTo(ChronoUnit.MILLIS);
         Instant end = uploadDateEnd == null ? null : uploadDateEnd.truncatedTo(ChronoUnit.MILLIS);
+        AssetCursor after = cursor == null ? null : SearchCursors.decode(cursor);
 
-        return searchUC.execute(start, end, filename, filetype, sortDirection)
+        // read before the search: a write committed in between only makes the next response a 200
+        var version = searchUC.version();
+        if (version.isPresent()) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE_CACHE_CONTROL);
+            if (request.checkNotModified("\"" + version.get() + "\"")) {
+                return null;
+            }
+        }
+
+        var page = searchUC.execute(start, end, filename, filetype, sortDirection, after, limit);
+        var body = page.items()
                 .stream()
-                .map(this::toDto)
+                .map(AssetController::toDto)
                 .collect(Collectors.toList());
+
+        var response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            String next = SearchCursors.encode(page.nextCursor());
+            String nextUri = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", next)
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, next)
+                    .header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Streams every asset matching the filters as newline-delimited JSON.
+     * Rows are written while they are read from the database, so the first
+     * bytes are sent before the query completes and nothing is collected.
+     */
+    @GetMapping(value = "/", produces = NDJSON_VALUE)
+    @Operation(
+            summary = "Stream all matching assets",
+            description = "Same filters as the search, but returns every match as one JSON object per line (application/x-ndjson), without paging.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Matching assets, one per line",
+                            content = @Content(mediaType = NDJSON_VALUE, schema = @Schema(implementation = AssetDto.class))
+                    )
+            }
+    )
+    public void searchStream(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant uploadDateStart,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant uploadDateEnd,
+
+            @RequestParam(required = false) String filename,
+
+            @RequestParam(required = false) String filetype,
+
+            @RequestParam(required = false, defaultValue = "DESC") SortDirection sortDirection,
+
+            HttpServletResponse response
+    ) throws IOException {
+        log.info("Streaming assets with uploadDateStart={}, uploadDateEnd={}, filename={}, filetype={}, sortDirection={}",
+                uploadDateStart, uploadDateEnd, filename, filetype, sortDirection);
+        validateFilters(uploadDateStart, uploadDateEnd, filename, filetype);
+
+        Instant start = uploadDateStart == null ? null : uploadDateStart.truncatedTo(ChronoUnit.MILLIS);
+        Instant end = uploadDateEnd == null ? null : uploadDateEnd.truncatedTo(ChronoUnit.MILLIS);
+
+        response.setContentType(NDJSON_VALUE);
+        try (var lines = new NdjsonWriter(objectMapper, response.getOutputStream())) {
+            searchUC.execute(start, end, filename, filetype, sortDirection, asset -> lines.write(toDto(asset)));
+        }
     }
 
     /**
      * Retrieves a single asset by its ID.
+     * The representation of an asset only depends on its status, which
+     * makes the status a strong ETag. Once PUBLISHED or FAILED an asset is
+     * cacheable for good; before, clients have to revalidate.
      */
     @GetMapping("/{id}")
     @Operation(
@@ -156,29 +432,89 @@ public class AssetController {
             description = "Returns the asset status and URL if found",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Asset found", content = @Content(schema = @Schema(implementation = AssetDto.class))),
+                    @ApiResponse(responseCode = "304", description = "Unchanged since the given ETag or date", content = @Content),
                     @ApiResponse(responseCode = "404", description = "Asset not found", content = @Content)
             }
     )
-    public AssetDto getById(@PathVariable UUID id) {
+    public AssetDto getById(@PathVariable UUID id, @Parameter(hidden = true) ServletWebRequest request) {
         log.info("Fetching asset {}", id);
-        return findUC.execute(id)
-                .map(this::toDto)
+        Asset asset = findUC.execute(id)
                 .orElseThrow(() -> {
                     log.warn("Asset {} not found", id);
                     return new ResponseStatusException(HttpStatus.NOT_FOUND);
                 });
+
+        boolean terminal = asset.status() == AssetStatus.PUBLISHED || asset.status() == AssetStatus.FAILED;
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL,
+                terminal ? TERMINAL_CACHE_CONTROL : REVALIDATE_CACHE_CONTROL);
+        String etag = "\"" + asset.status().name().toLowerCase(Locale.ROOT) + "\"";
+        boolean notModified = asset.uploadDate() == null
+                ? request.checkNotModified(etag)
+                : request.checkNotModified(etag, asset.uploadDate().toEpochMilli());
+        return notModified ? null : toDto(asset);
     }
 
 
-    private AssetDto toDto(Asset asset) {
-        return AssetDto.builder()
-                .id(asset.id())
-                .filename(asset.filename())
-                .contentType(asset.contentType())
-                .url(asset.url())
-                .size(asset.size())
-                .uploadDate(asset.uploadDate())
-                .status(asset.status())
-                .build();
+    /**
+     * Streams the content of a published asset, supporting HTTP range requests.
+     * Content not kept on local disk is not proxied: the client is redirected
+     * to a short-lived download URL of the storage, which serves the ranges.
+     */
+    @GetMapping(value = "/{id}/content", produces = MediaType.ALL_VALUE)
+    @Operation(
+            summary = "Download asset content",
+            description = "Returns the stored bytes with the asset content type. Supports single and multiple byte ranges (Range header). Content in object storage is a redirect to a presigned URL.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Full content", content = @Content),
+                    @ApiResponse(responseCode = "206", description = "Requested range(s)", content = @Content),
+                    @ApiResponse(responseCode = "302", description = "Download from the storage at the Location URL", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "Asset not found or not published", content = @Content),
+                    @ApiResponse(responseCode = "416", description = "Range not satisfiable", content = @Content)
+            }
+    )
+    public void getContent(@PathVariable UUID id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        log.info("Streaming content of asset {}", id);
+        var content = downloadUC.execute(id)
+                .orElseThrow(() -> {
+                    log.warn("Content of asset {} not available", id);
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Asset content not available");
+                });
+        if (content.location() != null) {
+            // the URL expires, so neither it nor the redirect may be cached
+            response.setStatus(HttpStatus.FOUND.value());
+            response.setHeader(HttpHeaders.LOCATION, content.location().toString());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            return;
+        }
+        contentWriter.write(content, request, response);
+    }
+
+    private void validateFilters(Instant uploadDateStart, Instant uploadDateEnd, String filename, String filetype) {
+        if (filename != null && filename.isBlank()) {
+            log.warn("Filename must not be empty");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Filename must not be empty");
+        }
+        if (filetype != null && filetype.isBlank()) {
+            log.warn("Filetype must not be empty");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Filetype must not be empty");
+        }
+        if (uploadDateStart != null && uploadDateEnd != null && uploadDateStart.isAfter(uploadDateEnd)) {
+            log.warn("Invalid upload date range: {} to {}", uploadDateStart, uploadDateEnd);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid upload date range");
+        }
+    }
+
+    // called once per search row, so skip the intermediate builder
+    static AssetDto toDto(Asset asset) {
+        return new AssetDto(
+                asset.id(),
+                asset.filename(),
+                asset.contentType(),
+                asset.url(),
+                asset.size(),
+                asset.uploadDate(),
+                asset.status()
+        );
     }
 }
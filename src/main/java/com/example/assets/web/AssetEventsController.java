@@ -0,0 +1,62 @@
+package com.example.assets.web;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * REST controller for following the publication of assets as Server-Sent
+ * Events, instead of polling {@code GET /{id}} until they leave PENDING.
+ */
+@RestController
+@RequestMapping(path = "/api/mgmt/1/assets/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+@Tag(name = "Asset events", description = "Asset status changes as Server-Sent Events")
+public class AssetEventsController {
+
+    private final AssetStatusBroadcaster broadcaster;
+    private final int maxIds;
+
+    public AssetEventsController(AssetStatusBroadcaster broadcaster,
+                                 @Value("${assets.events.max-ids:100}") int maxIds) {
+        this.broadcaster = broadcaster;
+        this.maxIds = maxIds;
+    }
+
+    @GetMapping
+    @Operation(
+            summary = "Follow the status of assets",
+            description = "Opens a text/event-stream. Sends an 'asset' event with the current state of each asset, "
+                    + "then one on every status change, and 'not-found' with the id of an unknown asset. "
+                    + "The stream ends once every asset is PUBLISHED or FAILED.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Event stream"),
+                    @ApiResponse(responseCode = "400", description = "No ids, too many or malformed", content = @Content)
+            }
+    )
+    public SseEmitter follow(
+            @Parameter(description = "Asset ids, comma separated or repeated")
+            @RequestParam List<UUID> ids
+    ) {
+        Set<UUID> unique = new LinkedHashSet<>(ids);
+        if (unique.isEmpty() || unique.size() > maxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Between 1 and " + maxIds + " ids are allowed");
+        }
+        return broadcaster.subscribe(unique);
+    }
+}
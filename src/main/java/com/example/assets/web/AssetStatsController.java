@@ -0,0 +1,87 @@
+package com.example.assets.web;
+
+import com.example.assets.domain.model.PublishLatencyReport;
+import com.example.assets.domain.usecase.PublishLatencyUseCase;
+import com.example.assets.web.dto.PublishLatencyDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * REST controller for statistics about the assets.
+ */
+@RestController
+@RequestMapping(path = "/api/mgmt/1/assets/stats", produces = "application/json")
+@Tag(name = "Asset statistics", description = "Publication latency")
+public class AssetStatsController {
+
+    private static final Duration MAX_WINDOW = Duration.ofDays(30);
+
+    private final PublishLatencyUseCase publishLatencyUC;
+
+    public AssetStatsController(PublishLatencyUseCase publishLatencyUC) {
+        this.publishLatencyUC = publishLatencyUC;
+    }
+
+    @GetMapping("/publish-latency")
+    @Operation(
+            summary = "Publication latency percentiles",
+            description = "Returns p50/p95/p99, in milliseconds, of every publication phase (queued, claim, write, "
+                    + "commit and total) over the assets published in the window, by content type and size bucket.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Latency report",
+                            content = @Content(schema = @Schema(implementation = PublishLatencyDto.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid window", content = @Content)
+            }
+    )
+    public PublishLatencyDto publishLatency(
+            @Parameter(description = "How far back to look, e.g. 15m, 1h or 7d (up to 30d)", example = "1h")
+            @RequestParam(defaultValue = "1h") String window
+    ) {
+        return toDto(publishLatencyUC.execute(window(window)));
+    }
+
+    private static Duration window(String value) {
+        Duration window;
+        try {
+            window = DurationStyle.detectAndParse(value);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid window " + value);
+        }
+        if (window.isNegative() || window.isZero() || window.compareTo(MAX_WINDOW) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Window must be between 1ms and 30d");
+        }
+        return window;
+    }
+
+    private static PublishLatencyDto toDto(PublishLatencyReport report) {
+        return new PublishLatencyDto(report.since(), report.until(), report.samples(), report.truncated(),
+                report.groups().stream()
+                        .map(group -> new PublishLatencyDto.Group(group.contentType(), group.sizeBucket(),
+                                group.count(), phases(group.phases())))
+                        .toList());
+    }
+
+    private static Map<String, PublishLatencyDto.Percentiles> phases(
+            Map<PublishLatencyReport.Phase, PublishLatencyReport.Percentiles> phases) {
+        Map<String, PublishLatencyDto.Percentiles> dto = new LinkedHashMap<>();
+        phases.forEach((phase, percentiles) -> dto.put(phase.name().toLowerCase(Locale.ROOT),
+                new PublishLatencyDto.Percentiles(percentiles.p50(), percentiles.p95(), percentiles.p99())));
+        return dto;
+    }
+}
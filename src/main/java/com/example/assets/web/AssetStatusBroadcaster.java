@@ -0,0 +1,332 @@
+package com.example.assets.web;
+
+import com.example.assets.app.config.AsyncConfig.ExecutionMode;
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.ports.AssetStatusNotifierPort;
+import com.example.assets.domain.usecase.FindAssetUseCase;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process fan-out of asset status changes to Server-Sent Events
+ * subscribers. A subscriber is an async request that holds no thread while
+ * it waits; only its emitter is kept, indexed by the ids it watches.
+ * <p>
+ * The publishing thread only checks whether anyone watches the asset and
+ * adds the id to a set of changed ids for a single dispatcher thread. The
+ * dispatcher reads all the ids gathered since its last pass in one query,
+ * past the cache since they have just changed, and queues each asset for
+ * every subscriber of its id, so a subscriber always gets the current
+ * state of the asset, at most once per status; the more changes arrive
+ * while a read runs, the more the next read covers. Each subscriber's
+ * queue is drained by one sender task at a time, in order, so a client that
+ * reads slowly only holds up its own stream. Senders run on a fixed pool of
+ * {@code senders} threads, or on virtual threads with
+ * {@code assets.async.mode=virtual}, where a client whose socket is full
+ * only parks its own. A subscriber is first sent the state of each of its
+ * assets, then every change, and is completed once all of them are
+ * PUBLISHED or FAILED. Idle streams get a comment every {@code heartbeat},
+ * which also detects clients that left.
+ */
+@Component
+public class AssetStatusBroadcaster implements AssetStatusNotifierPort {
+
+    private static final Logger log = LoggerFactory.getLogger(AssetStatusBroadcaster.class);
+
+    static final String ASSET_EVENT = "asset";
+    static final String NOT_FOUND_EVENT = "not-found";
+
+    // ids per query, well below the bind parameter limits of the databases
+    static final int READ_BATCH_SIZE = 500;
+
+    private final FindAssetUseCase findUC;
+    private final Duration timeout;
+    private final Map<UUID, Set<Subscription>> watchers = new ConcurrentHashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> changed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean deliveryScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService dispatcher;
+    private final TaskExecutor senders;
+
+    public AssetStatusBroadcaster(FindAssetUseCase findUC, MeterRegistry meterRegistry,
+                                  @Value("${assets.events.timeout:30m}") Duration timeout,
+                                  @Value("${assets.events.heartbeat:30s}") Duration heartbeat,
+                                  @Value("${assets.async.mode:pool}") String mode,
+                                  @Value("${assets.events.senders:16}") int senders) {
+        this.findUC = findUC;
+        this.timeout = timeout;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(task -> {
+            var thread = new Thread(task, "asset-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.senders = senders(ExecutionMode.valueOf(mode.toUpperCase(Locale.ROOT)), senders);
+        long millis = heartbeat.toMillis();
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, millis, millis, TimeUnit.MILLISECONDS);
+        Gauge.builder("assets.events.subscribers", subscriptions, Set::size)
+                .description("Open asset status streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of the status changes of the given assets.
+     */
+    public SseEmitter subscribe(Set<UUID> ids) {
+        var emitter = new SseEmitter(timeout.toMillis());
+        var subscription = new Subscription(emitter, ids);
+        // registered before the current state is read, so no change falls in between
+        subscriptions.add(subscription);
+        ids.forEach(id -> watchers.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(subscription));
+        emitter.onCompletion(() -> unregister(subscription));
+        emitter.onTimeout(() -> unregister(subscription));
+        emitter.onError(e -> unregister(subscription));
+        dispatch(() -> {
+            Map<UUID, Asset> current = read(ids);
+            ids.forEach(id -> subscription.send(id, Optional.ofNullable(current.get(id))));
+        });
+        return emitter;
+    }
+
+    @Override
+    public void statusChanged(UUID assetId, AssetStatus status) {
+        if (watchers.containsKey(assetId)) {
+            changed.add(assetId);
+            if (deliveryScheduled.compareAndSet(false, true)) {
+                dispatch(this::deliverChanged);
+            }
+        }
+    }
+
+    // the notified statuses are not needed: the read is always at least as recent
+    private void deliverChanged() {
+        // cleared first, so an id added from now on gets another pass
+        deliveryScheduled.set(false);
+        List<UUID> ids = new ArrayList<>();
+        for (Iterator<UUID> it = changed.iterator(); it.hasNext(); ) {
+            UUID id = it.next();
+            it.remove();
+            if (watchers.containsKey(id)) {
+                ids.add(id);
+            }
+        }
+        for (int from = 0; from < ids.size(); from += READ_BATCH_SIZE) {
+            List<UUID> batch = ids.subList(from, Math.min(from + READ_BATCH_SIZE, ids.size()));
+            Map<UUID, Asset> current = read(batch);
+            for (UUID id : batch) {
+                Optional<Asset> asset = Optional.ofNullable(current.get(id));
+                for (Subscription subscription : watchers.getOrDefault(id, Set.of())) {
+                    subscription.send(id, asset);
+                }
+            }
+        }
+    }
+
+    private Map<UUID, Asset> read(Collection<UUID> ids) {
+        Map<UUID, Asset> current = new HashMap<>();
+        findUC.executeCurrent(ids).forEach(asset -> current.put(asset.id(), asset));
+        return current;
+    }
+
+    private void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.ping();
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            dispatcher.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.warn("Could not deliver asset status events", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Asset status events are shut down");
+        }
+    }
+
+    private void unregister(Subscription subscription) {
+        if (subscriptions.remove(subscription)) {
+            subscription.ids.forEach(id -> watchers.computeIfPresent(id, (key, watching) -> {
+                watching.remove(subscription);
+                return watching.isEmpty() ? null : watching;
+            }));
+        }
+    }
+
+    int subscribers() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Ends the open streams on shutdown; clients reconnect to another instance.
+     */
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdownNow();
+        if (senders instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (senders instanceof SimpleAsyncTaskExecutor perTask) {
+            perTask.close();
+        }
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    /**
+     * At most one drain task per stream is ever submitted, so the pool's
+     * queue never holds more tasks than there are streams.
+     */
+    private static TaskExecutor senders(ExecutionMode mode, int threads) {
+        return switch (mode) {
+            case POOL -> {
+                var executor = new ThreadPoolTaskExecutor();
+                executor.setCorePoolSize(threads);
+                executor.setMaxPoolSize(threads);
+                executor.setDaemon(true);
+                executor.setThreadNamePrefix("asset-events-send-");
+                executor.initialize();
+                yield executor;
+            }
+            case VIRTUAL -> {
+                var executor = new SimpleAsyncTaskExecutor("asset-events-send-");
+                executor.setVirtualThreads(true);
+                yield executor;
+            }
+        };
+    }
+
+    private static boolean terminal(AssetStatus status) {
+        return status == AssetStatus.PUBLISHED || status == AssetStatus.FAILED;
+    }
+
+    /**
+     * One stream. Events are queued from the dispatcher thread and written
+     * by at most one sender task at a time, which alone touches the
+     * emitter and the state below.
+     */
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        private final Set<UUID> ids;
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final Map<UUID, AssetStatus> sent = new HashMap<>();
+        private final Set<UUID> open;
+
+        Subscription(SseEmitter emitter, Set<UUID> ids) {
+            this.emitter = emitter;
+            this.ids = ids;
+            this.open = new LinkedHashSet<>(ids);
+        }
+
+        void send(UUID id, Optional<Asset> asset) {
+            enqueue(() -> write(id, asset));
+        }
+
+        // a stream still busy writing gives no sign of idleness to report
+        void ping() {
+            if (pending.isEmpty() && !draining.get()) {
+                enqueue(this::writePing);
+            }
+        }
+
+        private void enqueue(Runnable event) {
+            pending.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!pending.isEmpty() && draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    log.debug("Asset status events are shut down");
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Runnable event;
+                while ((event = pending.poll()) != null) {
+                    event.run();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not deliver asset status events", e);
+            } finally {
+                draining.set(false);
+            }
+            // an event queued after the last poll, but before the flag was cleared
+            schedule();
+        }
+
+        private void write(UUID id, Optional<Asset> asset) {
+            if (!open.contains(id)) {
+                return;
+            }
+            try {
+                if (asset.isEmpty()) {
+                    emitter.send(SseEmitter.event().name(NOT_FOUND_EVENT).data(id.toString()));
+                    open.remove(id);
+                } else if (asset.get().status() != sent.put(id, asset.get().status())) {
+                    emitter.send(SseEmitter.event().name(ASSET_EVENT)
+                            .data(AssetController.toDto(asset.get()), MediaType.APPLICATION_JSON));
+                    if (terminal(asset.get().status())) {
+                        open.remove(id);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client went away, or the stream already ended
+                unregister(this);
+                return;
+            }
+            if (open.isEmpty()) {
+                unregister(this);
+                emitter.complete();
+            }
+        }
+
+        private void writePing() {
+            try {
+                emitter.send(SseEmitter.event().comment(""));
+            } catch (IOException | IllegalStateException e) {
+                unregister(this);
+            }
+        }
+    }
+}
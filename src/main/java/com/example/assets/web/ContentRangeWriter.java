@@ -0,0 +1,248 @@
+package com.example.assets.web;
+
+import com.example.assets.domain.model.AssetContent;
+import com.example.assets.domain.model.ContentCoding;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the content of a published asset to the HTTP response, honouring
+ * single and multiple byte ranges (RFC 9110).
+ * Whole files and single ranges are handed to the servlet container as a
+ * sendfile when it supports it, so the bytes never enter the JVM; otherwise,
+ * and for multipart/byteranges responses, FileChannel.transferTo is used.
+ * <p>
+ * Content stored compressed is sent as it is, with its Content-Encoding,
+ * to clients whose Accept-Encoding allows it; ranges then refer to the
+ * compressed bytes. Other clients get it decompressed on the fly, whole.
+ */
+final class ContentRangeWriter {
+
+    // Tomcat's sendfile contract, see org.apache.coyote.Constants
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    void write(AssetContent content, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String encoding = content.asset().contentEncoding();
+        if (encoding != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (!accepts(request.getHeader(HttpHeaders.ACCEPT_ENCODING), encoding)) {
+                writeDecoded(content, ContentCoding.of(encoding).orElseThrow(), request, response);
+                return;
+            }
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        try (FileChannel channel = FileChannel.open(content.file(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            MediaType type = mediaType(content.asset().contentType());
+            boolean head = "HEAD".equals(request.getMethod());
+
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(request.getHeader(HttpHeaders.RANGE));
+            } catch (IllegalArgumentException e) {
+                // a Range header that does not parse is ignored (RFC 9110 14.2)
+                ranges = List.of();
+            }
+            List<Region> regions;
+            try {
+                regions = regions(ranges, length);
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            if (regions.isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                response.setContentType(type.toString());
+                response.setContentLengthLong(length);
+                if (!head) {
+                    send(content, channel, new Region(0, length), request, response);
+                }
+            } else if (regions.size() == 1) {
+                Region region = regions.get(0);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setContentType(type.toString());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, region.contentRange(length));
+                response.setContentLengthLong(region.count());
+                if (!head) {
+                    send(content, channel, region, request, response);
+                }
+            } else {
+                writeMultipart(channel, regions, type, length, head, response);
+            }
+        }
+    }
+
+    private static void writeDecoded(AssetContent content, ContentCoding codec, HttpServletRequest request,
+                                     HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "none");
+        response.setContentType(mediaType(content.asset().contentType()).toString());
+        if (content.asset().size() != null) {
+            response.setContentLengthLong(content.asset().size());
+        }
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        try (InputStream in = codec.decode(Files.newInputStream(content.file()))) {
+            in.transferTo(response.getOutputStream());
+        }
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows the given coding, explicitly
+     * or through {@code *}. Without the header the content is decompressed:
+     * RFC 9110 would allow any coding, but clients such as plain curl send
+     * none and could not read the result.
+     */
+    static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double explicit = null;
+        double wildcard = 0;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (name.equals(coding) || ("gzip".equals(coding) && "x-gzip".equals(name))) {
+                explicit = quality;
+            } else if ("*".equals(name)) {
+                wildcard = quality;
+            }
+        }
+        return (explicit != null ? explicit : wildcard) > 0;
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static void writeMultipart(FileChannel channel, List<Region> regions, MediaType type, long length,
+                                       boolean head, HttpServletResponse response) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(regions.size());
+        long total = 0;
+        for (Region region : regions) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + type + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + region.contentRange(length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            total += header.length + region.count();
+        }
+        byte[] closing = ("\r\n--" + boundary + "--").getBytes(StandardCharsets.US_ASCII);
+        total += closing.length + CRLF.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(total);
+        if (head) {
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        for (int i = 0; i < regions.size(); i++) {
+            out.write(partHeaders.get(i));
+            transfer(channel, regions.get(i), target);
+        }
+        out.write(closing);
+        out.write(CRLF);
+    }
+
+    private static void send(AssetContent content, FileChannel channel, Region region,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // the container writes the file region itself once the handler returns
+            request.setAttribute(SENDFILE_FILENAME, content.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, region.start());
+            request.setAttribute(SENDFILE_END, region.start() + region.count());
+            return;
+        }
+        transfer(channel, region, Channels.newChannel(response.getOutputStream()));
+    }
+
+    private static void transfer(FileChannel channel, Region region, WritableByteChannel target) throws IOException {
+        long position = region.start();
+        long remaining = region.count();
+        while (remaining > 0) {
+            long sent = channel.transferTo(position, remaining, target);
+            if (sent <= 0) {
+                throw new EOFException("Asset file shrank while it was being sent");
+            }
+            position += sent;
+            remaining -= sent;
+        }
+    }
+
+    private static List<Region> regions(List<HttpRange> ranges, long length) {
+        List<Region> regions = new ArrayList<>(ranges.size());
+        long total = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                throw new IllegalArgumentException("Range " + range + " not satisfiable for length " + length);
+            }
+            regions.add(new Region(start, end - start + 1));
+            total += end - start + 1;
+        }
+        // same guard as Spring's ResourceRegion support: overlapping ranges must not amplify the response
+        if (regions.size() > 1 && total > length) {
+            throw new IllegalArgumentException("Requested ranges exceed the content length");
+        }
+        return regions;
+    }
+
+    private static MediaType mediaType(String contentType) {
+        try {
+            return contentType == null ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    private record Region(long start, long count) {
+
+        String contentRange(long length) {
+            return "bytes " + start + "-" + (start + count - 1) + "/" + length;
+        }
+    }
+}
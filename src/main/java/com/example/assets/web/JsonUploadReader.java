@@ -0,0 +1,106 @@
+package com.example.assets.web;
+
+import com.example.assets.infra.spool.UploadSpool;
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the JSON upload contract ({@link com.example.assets.web.dto.AssetFileUploadRequest})
+ * with a streaming parser. The Base64 {@code encodedFile} value is decoded in
+ * small chunks straight into the upload spool, so neither the encoded text
+ * nor the decoded bytes are ever held in memory as a whole.
+ */
+final class JsonUploadReader {
+
+    // java.util.Base64 accepts unpadded input, keep accepting it
+    private static final Base64Variant BASE64 = Base64Variants.MIME_NO_LINEFEEDS
+            .withReadPadding(Base64Variant.PaddingReadBehaviour.PADDING_ALLOWED);
+
+    private final JsonFactory factory;
+    private final UploadSpool spool;
+
+    JsonUploadReader(JsonFactory factory, UploadSpool spool) {
+        this.factory = factory;
+        this.spool = spool;
+    }
+
+    /**
+     * Parses the request body. On success the returned spool file is owned
+     * by the caller; on failure it has already been discarded.
+     */
+    JsonUpload read(InputStream body) throws IOException {
+        String filename = null;
+        String contentType = null;
+        Path content = null;
+
+        try (JsonParser parser = factory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw badRequest("Upload request must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "filename" -> filename = text(parser, value);
+                    case "contentType" -> contentType = text(parser, value);
+                    case "encodedFile" -> {
+                        if (value != JsonToken.VALUE_STRING || content != null) {
+                            throw badRequest("encodedFile must be a single Base64 string");
+                        }
+                        content = spool.spool(out -> parser.readBinaryValue(BASE64, out));
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            requireNotBlank(filename, "filename");
+            requireNotBlank(contentType, "contentType");
+            if (content == null || Files.size(content) == 0) {
+                throw badRequest("encodedFile must not be blank");
+            }
+            return new JsonUpload(filename, contentType, content);
+        } catch (JsonProcessingException e) {
+            discard(content);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed upload request", e);
+        } catch (IOException | RuntimeException e) {
+            discard(content);
+            throw e;
+        }
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+
+    private static void requireNotBlank(String value, String field) {
+        if (value == null || value.isBlank()) {
+            throw badRequest(field + " must not be blank");
+        }
+    }
+
+    private static ResponseStatusException badRequest(String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+    }
+
+    private void discard(Path content) {
+        if (content != null) {
+            spool.discard(content);
+        }
+    }
+
+    /**
+     * Upload metadata together with the spooled, already decoded content.
+     */
+    record JsonUpload(String filename, String contentType, Path content) {
+    }
+}
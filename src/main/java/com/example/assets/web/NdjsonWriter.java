@@ -0,0 +1,53 @@
+package com.example.assets.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes values as newline-delimited JSON on top of a single generator.
+ * The first line is flushed right away so clients see data before the
+ * rest of the result has been produced; later lines go out as the
+ * container's output buffer fills.
+ */
+final class NdjsonWriter implements AutoCloseable {
+
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+    private boolean flushed;
+
+    NdjsonWriter(ObjectMapper mapper, OutputStream out) throws IOException {
+        // flushing every line would defeat the container's output buffer
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = mapper.getFactory().createGenerator(out);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * Writes one value followed by a line feed.
+     *
+     * @throws UncheckedIOException if the client went away
+     */
+    void write(Object value) {
+        try {
+            writer.writeValue(generator, value);
+            generator.writeRaw('\n');
+            if (!flushed) {
+                generator.flush();
+                flushed = true;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
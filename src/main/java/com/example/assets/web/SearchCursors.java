@@ -0,0 +1,43 @@
+package com.example.assets.web;
+
+import com.example.assets.domain.model.AssetCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Encodes search cursors as opaque URL-safe tokens.
+ * Clients must pass them back unchanged; the format may change at any time.
+ */
+final class SearchCursors {
+
+    private static final char SEPARATOR = '|';
+
+    private SearchCursors() {
+        //Utility class
+    }
+
+    static String encode(AssetCursor cursor) {
+        String raw = (cursor.uploadDate() == null ? "" : cursor.uploadDate().toString()) + SEPARATOR + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode}
+     */
+    static AssetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            String date = raw.substring(0, separator);
+            return new AssetCursor(
+                    date.isEmpty() ? null : Instant.parse(date),
+                    UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+}
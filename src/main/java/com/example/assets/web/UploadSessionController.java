@@ -0,0 +1,180 @@
+package com.example.assets.web;
+
+import com.example.assets.domain.usecase.UploadAssetUseCase;
+import com.example.assets.infra.spool.UploadSessions;
+import com.example.assets.infra.spool.UploadSessions.SessionInfo;
+import com.example.assets.web.dto.AssetFileUploadResponse;
+import com.example.assets.web.dto.UploadSessionDto;
+import com.example.assets.web.dto.UploadSessionRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * REST controller for resumable uploads. A client opens a session with the
+ * size of the file, sends chunks at their offset (in parallel if it likes,
+ * and again for the ranges a failure interrupted), then commits the session
+ * to publish the asset like any other upload.
+ */
+@RestController
+@RequestMapping(path = "/api/mgmt/1/assets/upload-sessions", produces = "application/json")
+@Tag(name = "Upload sessions", description = "Resumable chunked uploads")
+public class UploadSessionController {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(UploadSessionController.class);
+
+    private final UploadSessions sessions;
+    private final UploadAssetUseCase uploadUC;
+
+    public UploadSessionController(UploadSessions sessions, UploadAssetUseCase uploadUC) {
+        this.sessions = sessions;
+        this.uploadUC = uploadUC;
+    }
+
+    @PostMapping(consumes = "application/json")
+    @Operation(
+            summary = "Open an upload session",
+            description = "Reserves a file of the declared size. Returns 201 Created with the session and its Location.",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Session created",
+                            content = @Content(schema = @Schema(implementation = UploadSessionDto.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content)
+            }
+    )
+    public ResponseEntity<UploadSessionDto> create(@Valid @RequestBody UploadSessionRequest request) throws IOException {
+        SessionInfo session = sessions.create(request.getFilename(), request.getContentType(), request.getSize());
+        log.info("Upload session {} opened for {} ({} bytes)", session.id(), session.filename(), session.size());
+        var location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(session.id())
+                .toUri();
+        return ResponseEntity.created(location).body(toDto(session));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(
+            summary = "Get an upload session",
+            description = "Returns how much has been received and which byte ranges are still missing.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Session state"),
+                    @ApiResponse(responseCode = "404", description = "Session not found", content = @Content)
+            }
+    )
+    public UploadSessionDto get(@PathVariable UUID id) {
+        return sessions.find(id).map(UploadSessionController::toDto).orElseThrow(() -> notFound(id));
+    }
+
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(
+            summary = "Upload a chunk",
+            description = "Writes the request body at the given offset. Chunks may be sent in any order and in parallel.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Chunk written; returns the session state"),
+                    @ApiResponse(responseCode = "400", description = "Chunk outside the declared size", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "Session not found", content = @Content),
+                    @ApiResponse(responseCode = "409", description = "Session is being committed", content = @Content)
+            }
+    )
+    public UploadSessionDto uploadChunk(
+            @PathVariable UUID id,
+
+            @Parameter(description = "Position of the first byte of the chunk", example = "0")
+            @RequestParam long offset,
+
+            InputStream body
+    ) throws IOException {
+        try {
+            return toDto(sessions.write(id, offset, body));
+        } catch (NoSuchElementException e) {
+            throw notFound(id);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes a complete session. If the upload is rejected for lack of
+     * capacity the session stays open, so the commit can simply be retried.
+     */
+    @PostMapping("/{id}/commit")
+    @Operation(
+            summary = "Commit an upload session (asynchronous)",
+            description = "Publishes the uploaded file. Returns 202 Accepted with the asset ID.",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Accepted; background processing started",
+                            content = @Content(schema = @Schema(implementation = AssetFileUploadResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Session not found", content = @Content),
+                    @ApiResponse(responseCode = "409", description = "Bytes are still missing", content = @Content)
+            }
+    )
+    public ResponseEntity<AssetFileUploadResponse> commit(@PathVariable UUID id) {
+        UploadSessions.Completed upload;
+        try {
+            upload = sessions.seal(id);
+        } catch (NoSuchElementException e) {
+            throw notFound(id);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+
+        UUID assetId;
+        try {
+            assetId = uploadUC.execute(upload.filename(), upload.contentType(), upload.content());
+        } catch (RuntimeException e) {
+            if (Files.exists(upload.content())) {
+                sessions.unseal(id);
+            } else {
+                sessions.finish(id);
+            }
+            throw e;
+        }
+        sessions.finish(id);
+        log.info("Upload session {} committed as asset {}", id, assetId);
+        return ResponseEntity.accepted().body(new AssetFileUploadResponse(assetId));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(
+            summary = "Abort an upload session",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Session discarded"),
+                    @ApiResponse(responseCode = "404", description = "Session not found", content = @Content)
+            }
+    )
+    public ResponseEntity<Void> abort(@PathVariable UUID id) {
+        if (!sessions.abort(id)) {
+            throw notFound(id);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseStatusException notFound(UUID id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload session " + id + " not found");
+    }
+
+    private static UploadSessionDto toDto(SessionInfo session) {
+        return new UploadSessionDto(session.id(), session.filename(), session.contentType(), session.size(),
+                session.received(), session.missing().stream()
+                .map(range -> new UploadSessionDto.ByteRange(range.start(), range.end()))
+                .toList());
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.assets.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO representing the response after uploading a batch of asset files.
+ */
+@Data
+@AllArgsConstructor
+public class AssetBatchUploadResponse {
+
+    /** Generated IDs, in the order of the uploaded files. */
+    private List<UUID> ids;
+}
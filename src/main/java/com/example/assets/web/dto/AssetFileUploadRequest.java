@@ -5,6 +5,8 @@ import lombok.Data;
 
 /**
  * DTO representing the request body for uploading an asset file.
+ * Documents the JSON contract; the controller reads it incrementally
+ * instead of binding it, see {@code JsonUploadReader}.
  */
 @Data
 public class AssetFileUploadRequest {
@@ -0,0 +1,43 @@
+package com.example.assets.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO representing the publication latency report. {@code phases} is keyed
+ * by phase name ({@code queued}, {@code claim}, {@code write}, {@code commit}
+ * and {@code total}); all percentiles are in milliseconds.
+ */
+@Data
+@AllArgsConstructor
+public class PublishLatencyDto {
+
+    private Instant since;
+    private Instant until;
+    private int samples;
+    private boolean truncated;
+    private List<Group> groups;
+
+    @Data
+    @AllArgsConstructor
+    public static class Group {
+
+        private String contentType;
+        private String sizeBucket;
+        private int count;
+        private Map<String, Percentiles> phases;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Percentiles {
+
+        private long p50;
+        private long p95;
+        private long p99;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.assets.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO representing the state of a resumable upload session.
+ * {@code missing} lists the byte ranges still to be sent, as
+ * {@code [start, end)} offsets.
+ */
+@Data
+@AllArgsConstructor
+public class UploadSessionDto {
+
+    private UUID id;
+    private String filename;
+    private String contentType;
+    private long size;
+    private long received;
+    private List<ByteRange> missing;
+
+    @Data
+    @AllArgsConstructor
+    public static class ByteRange {
+
+        private long start;
+        private long end;
+    }
+}
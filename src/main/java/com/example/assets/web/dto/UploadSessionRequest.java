@@ -0,0 +1,23 @@
+package com.example.assets.web.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * DTO representing the request body for opening a resumable upload session.
+ */
+@Data
+public class UploadSessionRequest {
+
+    @NotBlank
+    private String filename;
+
+    @NotBlank
+    private String contentType;
+
+    @NotNull
+    @Positive
+    private Long size;
+}
@@ -1,8 +1,11 @@
 package com.example.assets.web.exception;
 
+import com.example.assets.domain.exception.UploadRejectedException;
+import com.example.assets.domain.exception.UploadTooLargeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -59,6 +62,30 @@ public class RestExceptionHandler {
                 .body(new ErrorResponse(ex.getReason()));
     }
 
+    /**
+     * Over budget is answered with 429, shedding under overload with 503;
+     * both tell the client when to try again.
+     */
+    @ExceptionHandler(UploadRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleUploadRejected(UploadRejectedException ex) {
+        log.warn("Upload rejected: {}", ex.getReason());
+        HttpStatus status = ex.getReason() == UploadRejectedException.Reason.BUDGET_EXHAUSTED
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        // Retry-After takes whole seconds
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(new ErrorResponse(ex.getMessage()));
+    }
+
+    @ExceptionHandler(UploadTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handleUploadTooLarge(UploadTooLargeException ex) {
+        log.warn("Upload rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(new ErrorResponse(ex.getMessage()));
+    }
+
     private boolean hasDateTimeParseException(Throwable ex) {
         while (ex != null) {
             if (ex instanceof DateTimeParseException) {
@@ -0,0 +1,11 @@
+-- Same shape as the table formerly generated by ddl-auto, so existing databases keep working
+CREATE TABLE IF NOT EXISTS assets (
+    id           UUID         NOT NULL,
+    filename     VARCHAR(255),
+    content_type VARCHAR(255),
+    url          VARCHAR(255),
+    size         BIGINT,
+    upload_date  TIMESTAMP(6) WITH TIME ZONE,
+    status       VARCHAR(255),
+    PRIMARY KEY (id)
+);
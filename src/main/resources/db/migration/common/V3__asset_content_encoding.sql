@@ -0,0 +1,2 @@
+-- content-coding the stored bytes are compressed with; NULL for content stored as is
+ALTER TABLE assets ADD COLUMN content_encoding VARCHAR(32);
@@ -0,0 +1,7 @@
+-- Publication lifecycle: when the upload was accepted and when a worker picked it up, then the
+-- milliseconds from pick-up to the start and end of the storage write and to the PUBLISHED commit
+ALTER TABLE assets ADD COLUMN accepted_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE assets ADD COLUMN dequeued_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE assets ADD COLUMN write_started_ms INTEGER;
+ALTER TABLE assets ADD COLUMN write_completed_ms INTEGER;
+ALTER TABLE assets ADD COLUMN committed_ms INTEGER;
@@ -0,0 +1,10 @@
+-- A counter bumped in the same transaction as every write to assets, so that any instance can tell
+-- whether search results may have changed. It is spread over a few slots that writers pick apart from
+-- one another, so concurrent writers seldom wait on the same row; the version is the sum of the slots
+CREATE TABLE asset_changes (
+    slot    SMALLINT PRIMARY KEY,
+    version BIGINT   NOT NULL
+);
+INSERT INTO asset_changes (slot, version) VALUES
+    (0, 0), (1, 0), (2, 0), (3, 0), (4, 0), (5, 0), (6, 0), (7, 0),
+    (8, 0), (9, 0), (10, 0), (11, 0), (12, 0), (13, 0), (14, 0), (15, 0);
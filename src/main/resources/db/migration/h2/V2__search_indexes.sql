@@ -0,0 +1,4 @@
+-- H2 has neither trigram nor partial indexes; keep the b-tree ones so both schemas stay close
+CREATE INDEX IF NOT EXISTS idx_assets_upload_date_id ON assets (upload_date, id);
+
+CREATE INDEX IF NOT EXISTS idx_assets_content_type_upload_date_id ON assets (content_type, upload_date, id);
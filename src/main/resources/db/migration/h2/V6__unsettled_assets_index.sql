@@ -0,0 +1,2 @@
+-- H2 has no partial indexes; lead with the status instead
+CREATE INDEX IF NOT EXISTS idx_assets_unsettled_accepted_at ON assets (status, accepted_at);
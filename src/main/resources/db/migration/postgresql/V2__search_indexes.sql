@@ -0,0 +1,17 @@
+-- flyway:executeInTransaction=false
+-- Built CONCURRENTLY, so writes to assets go on during the build; that cannot run inside a transaction.
+-- A build that fails leaves an INVALID index behind, which has to be dropped before migrating again
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Sort key of every search and of the keyset cursor
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_assets_upload_date_id ON assets (upload_date, id);
+
+-- filetype filter together with the date range and the sort
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_assets_content_type_upload_date_id ON assets (content_type, upload_date, id);
+
+-- Last search segment: assets without an upload date, ordered by id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_assets_undated_id ON assets (id) WHERE upload_date IS NULL;
+
+-- filename wildcards, including a leading '*', which a b-tree cannot serve
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_assets_filename_trgm ON assets USING gin (filename gin_trgm_ops);
@@ -0,0 +1,6 @@
+-- flyway:executeInTransaction=false
+-- Built CONCURRENTLY, like the V2 indexes, so writes to assets go on during the build
+-- Assets still being published, oldest first, for the sweep of those whose upload was lost.
+-- Partial, so it stays as small as the publish backlog
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_assets_unsettled_accepted_at ON assets (accepted_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
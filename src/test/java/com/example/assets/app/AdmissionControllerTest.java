@@ -0,0 +1,100 @@
+package com.example.assets.app;
+
+import com.example.assets.domain.exception.UploadRejectedException;
+import com.example.assets.domain.exception.UploadRejectedException.Reason;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControllerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final AtomicLong now = new AtomicLong();
+    private final AdmissionController admission = new AdmissionController(100, 2,
+            Duration.ofMillis(5), Duration.ofMillis(100), Duration.ofSeconds(3), now::get);
+
+    @Test
+    void admit_shouldRejectOverByteBudgetUntilReleased() {
+        var first = admission.admit(60);
+
+        assertThatThrownBy(() -> admission.admit(50))
+                .isInstanceOfSatisfying(UploadRejectedException.class, e -> {
+                    assertThat(e.getReason()).isEqualTo(Reason.BUDGET_EXHAUSTED);
+                    assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(3));
+                });
+        assertThat(admission.inFlightBytes()).isEqualTo(60);
+
+        first.release();
+        first.release();
+
+        assertThat(admission.inFlightBytes()).isZero();
+        assertThat(admission.inFlightTasks()).isZero();
+        admission.admit(50);
+        assertThat(admission.rejected(Reason.BUDGET_EXHAUSTED)).isEqualTo(1);
+    }
+
+    @Test
+    void admit_shouldRejectOverTaskBudget() {
+        admission.admit(1);
+        admission.admit(1);
+
+        assertThatThrownBy(() -> admission.admit(1))
+                .isInstanceOf(UploadRejectedException.class);
+        assertThat(admission.inFlightTasks()).isEqualTo(2);
+    }
+
+    @Test
+    void admit_shouldLetOversizedUploadThroughWhenIdle() {
+        admission.admit(500);
+
+        assertThat(admission.inFlightBytes()).isEqualTo(500);
+    }
+
+    @Test
+    void admit_shouldShedWhileQueueDelayStaysOverTarget() {
+        var running = admission.admit(1);
+
+        admission.recordQueueDelay(20 * MS);
+        now.addAndGet(100 * MS);
+        admission.recordQueueDelay(10 * MS);
+
+        assertThat(admission.overloaded()).isTrue();
+        assertThat(admission.minQueueDelay()).isEqualTo(Duration.ofMillis(10));
+        assertThatThrownBy(() -> admission.admit(1))
+                .isInstanceOfSatisfying(UploadRejectedException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(Reason.OVERLOADED));
+
+        // one prompt start during the next interval ends the overload
+        admission.recordQueueDelay(1 * MS);
+        now.addAndGet(100 * MS);
+        admission.recordQueueDelay(30 * MS);
+
+        assertThat(admission.overloaded()).isFalse();
+        admission.admit(1);
+        running.release();
+    }
+
+    @Test
+    void admit_shouldNotShedWhenNothingIsInFlight() {
+        now.addAndGet(100 * MS);
+        admission.recordQueueDelay(50 * MS);
+
+        assertThat(admission.overloaded()).isTrue();
+        admission.admit(1);
+    }
+
+    @Test
+    void recordQueueDelay_shouldIgnoreShortSpikes() {
+        admission.recordQueueDelay(50 * MS);
+        admission.recordQueueDelay(1 * MS);
+        now.addAndGet(100 * MS);
+        admission.recordQueueDelay(50 * MS);
+
+        assertThat(admission.overloaded()).isFalse();
+    }
+}
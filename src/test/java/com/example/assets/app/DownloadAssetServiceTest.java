@@ -0,0 +1,83 @@
+package com.example.assets.app;
+
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetContent;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.ports.AssetPublisherPort;
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class DownloadAssetServiceTest {
+
+    @Test
+    void execute_shouldReturnContentOfPublishedAsset(@TempDir Path tempDir) throws Exception {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        AssetPublisherPort publisher = mock(AssetPublisherPort.class);
+        DownloadAssetService service = new DownloadAssetService(repo, publisher);
+
+        UUID id = UUID.randomUUID();
+        Path file = Files.writeString(tempDir.resolve("a.txt"), "data");
+        Asset asset = new Asset(id, "a.txt", "text/plain", file.toUri().toString(), 4L, Instant.EPOCH, AssetStatus.PUBLISHED);
+        when(repo.findById(id)).thenReturn(Optional.of(asset));
+        when(publisher.resolve(asset.url())).thenReturn(Optional.of(file));
+
+        Optional<AssetContent> result = service.execute(id);
+
+        assertThat(result).contains(new AssetContent(asset, file));
+    }
+
+    @Test
+    void execute_shouldReturnTheStorageLocationWhenThereIsNoLocalFile() {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        AssetPublisherPort publisher = mock(AssetPublisherPort.class);
+        DownloadAssetService service = new DownloadAssetService(repo, publisher);
+
+        UUID id = UUID.randomUUID();
+        Asset asset = new Asset(id, "a.txt", "text/plain", "https://assets.s3.amazonaws.com/a.txt", 4L, Instant.EPOCH, AssetStatus.PUBLISHED);
+        URI location = URI.create(asset.url() + "?X-Amz-Signature=abc");
+        when(repo.findById(id)).thenReturn(Optional.of(asset));
+        when(publisher.locate(asset.url())).thenReturn(Optional.of(location));
+
+        assertThat(service.execute(id)).contains(new AssetContent(asset, location));
+    }
+
+    @Test
+    void execute_shouldReturnEmptyWhenAssetIsNotPublished() {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        AssetPublisherPort publisher = mock(AssetPublisherPort.class);
+        DownloadAssetService service = new DownloadAssetService(repo, publisher);
+
+        UUID id = UUID.randomUUID();
+        Asset asset = new Asset(id, "a.txt", "text/plain", null, null, null, AssetStatus.PROCESSING);
+        when(repo.findById(id)).thenReturn(Optional.of(asset));
+
+        assertThat(service.execute(id)).isEmpty();
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    void execute_shouldReturnEmptyWhenFileIsMissing(@TempDir Path tempDir) {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        AssetPublisherPort publisher = mock(AssetPublisherPort.class);
+        DownloadAssetService service = new DownloadAssetService(repo, publisher);
+
+        UUID id = UUID.randomUUID();
+        Path missing = tempDir.resolve("gone.txt");
+        Asset asset = new Asset(id, "a.txt", "text/plain", missing.toUri().toString(), 4L, Instant.EPOCH, AssetStatus.PUBLISHED);
+        when(repo.findById(id)).thenReturn(Optional.of(asset));
+        when(publisher.resolve(asset.url())).thenReturn(Optional.of(missing));
+
+        assertThat(service.execute(id)).isEmpty();
+    }
+}
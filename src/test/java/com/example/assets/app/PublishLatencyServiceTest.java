@@ -0,0 +1,98 @@
+package com.example.assets.app;
+
+import com.example.assets.domain.model.PublishLatencyReport;
+import com.example.assets.domain.model.PublishLatencyReport.Group;
+import com.example.assets.domain.model.PublishLatencyReport.Percentiles;
+import com.example.assets.domain.model.PublishLatencyReport.Phase;
+import com.example.assets.domain.model.PublishTimeline;
+import com.example.assets.domain.model.PublishTimings;
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PublishLatencyServiceTest {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Test
+    void execute_shouldComputePercentilesOfEveryPhasePerGroup() {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        List<PublishTimeline> timelines = new ArrayList<>();
+        // queued 1..100 ms, write 10x that
+        for (int i = 1; i <= 100; i++) {
+            timelines.add(timeline("image/png", 2_000_000, i, 5, i * 10L, 3));
+        }
+        timelines.add(timeline("text/plain", 100, 7, 1, 2, 1));
+        when(repo.findPublishTimelines(any(), eq(1001))).thenReturn(timelines);
+
+        PublishLatencyReport report = new PublishLatencyService(repo, 1000).execute(Duration.ofHours(1));
+
+        assertThat(report.samples()).isEqualTo(101);
+        assertThat(report.truncated()).isFalse();
+        assertThat(Duration.between(report.since(), report.until())).isEqualTo(Duration.ofHours(1));
+        assertThat(report.groups()).extracting(Group::contentType, Group::sizeBucket, Group::count)
+                .containsExactly(
+                        tuple("image/png", "1MB-16MB", 100),
+                        tuple("text/plain", "0-64KB", 1));
+
+        Group images = report.groups().get(0);
+        assertThat(images.phases().get(Phase.QUEUED)).isEqualTo(new Percentiles(50, 95, 99));
+        assertThat(images.phases().get(Phase.CLAIM)).isEqualTo(new Percentiles(5, 5, 5));
+        assertThat(images.phases().get(Phase.WRITE)).isEqualTo(new Percentiles(500, 950, 990));
+        assertThat(images.phases().get(Phase.COMMIT)).isEqualTo(new Percentiles(3, 3, 3));
+        assertThat(images.phases().get(Phase.TOTAL)).isEqualTo(new Percentiles(558, 1053, 1097));
+        assertThat(report.groups().get(1).phases().get(Phase.TOTAL)).isEqualTo(new Percentiles(11, 11, 11));
+    }
+
+    @Test
+    void execute_shouldKeepOnlyTheMostRecentSamples() {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        when(repo.findPublishTimelines(any(), eq(3))).thenReturn(List.of(
+                timeline("text/plain", 10, 1, 1, 1, 1),
+                timeline("text/plain", 10, 2, 1, 1, 1),
+                timeline("text/plain", 10, 100, 1, 1, 1)));
+
+        PublishLatencyReport report = new PublishLatencyService(repo, 2).execute(Duration.ofMinutes(5));
+
+        assertThat(report.samples()).isEqualTo(2);
+        assertThat(report.truncated()).isTrue();
+        assertThat(report.groups().get(0).phases().get(Phase.QUEUED)).isEqualTo(new Percentiles(1, 2, 2));
+    }
+
+    @Test
+    void execute_shouldReturnNoGroupsForAnEmptyWindow() {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        when(repo.findPublishTimelines(any(), anyInt())).thenReturn(List.of());
+
+        PublishLatencyReport report = new PublishLatencyService(repo, 10).execute(Duration.ofMinutes(5));
+
+        assertThat(report.samples()).isZero();
+        assertThat(report.groups()).isEmpty();
+    }
+
+    @Test
+    void sizeBucket_shouldSplitAtPowersOfSixteen() {
+        assertThat(PublishLatencyService.SizeBucket.of(0)).isEqualTo(PublishLatencyService.SizeBucket.UNDER_64KB);
+        assertThat(PublishLatencyService.SizeBucket.of(65_536)).isEqualTo(PublishLatencyService.SizeBucket.UNDER_1MB);
+        assertThat(PublishLatencyService.SizeBucket.of(300L << 20)).isEqualTo(PublishLatencyService.SizeBucket.LARGER);
+    }
+
+    private static PublishTimeline timeline(String contentType, long size, long queued, long claim, long write,
+                                            long commit) {
+        Instant dequeued = T0.plusMillis(queued);
+        Instant writeStarted = dequeued.plusMillis(claim);
+        Instant writeCompleted = writeStarted.plusMillis(write);
+        return new PublishTimeline(contentType, size, T0,
+                new PublishTimings(dequeued, writeStarted, writeCompleted, writeCompleted.plusMillis(commit)));
+    }
+}
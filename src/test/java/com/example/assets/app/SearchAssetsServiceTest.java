@@ -1,12 +1,15 @@
 package com.example.assets.app;
 
 import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetCursor;
+import com.example.assets.domain.model.AssetPage;
 import com.example.assets.domain.ports.AssetRepositoryPort;
 import com.example.assets.domain.model.SortDirection;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -15,36 +18,47 @@ import static org.mockito.Mockito.*;
 class SearchAssetsServiceTest {
 
     @Test
-    void execute_shouldDelegateFiltersAndSortingToRepository() {
+    void version_shouldFollowTheRepositoryChangeVersion() {
         AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
         SearchAssetsService service = new SearchAssetsService(repo);
+        when(repo.changeVersion()).thenReturn(OptionalLong.of(41), OptionalLong.of(41), OptionalLong.of(42));
 
-        Instant start = Instant.parse("2020-01-01T00:00:00Z");
-        Instant end = Instant.parse("2020-12-31T23:59:59Z");
-        String filenameRegex = "file.*";
-        String filetype = "image/png";
-        SortDirection direction = SortDirection.ASC;
+        String first = service.version().orElseThrow();
 
-        Asset asset = new Asset(UUID.randomUUID(), "file1.png", filetype, null, 10L, start, null);
-        when(repo.search(start, end, filenameRegex, filetype, direction)).thenReturn(List.of(asset));
+        assertThat(service.version()).contains(first);
+        assertThat(service.version()).isPresent().get().isNotEqualTo(first);
+    }
 
-        List<Asset> result = service.execute(start, end, filenameRegex, filetype, direction);
+    @Test
+    void version_shouldBeEmptyWhenChangesAreNotTracked() {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        when(repo.changeVersion()).thenReturn(OptionalLong.empty());
 
-        assertThat(result).containsExactly(asset);
-        verify(repo).search(start, end, filenameRegex, filetype, direction);
+        assertThat(new SearchAssetsService(repo).version()).isEmpty();
     }
 
     @Test
-    void execute_shouldAllowNullFiltersAndDescSort() {
+    void executePage_shouldDelegateCursorAndLimitToRepository() {
         AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
         SearchAssetsService service = new SearchAssetsService(repo);
 
-        List<Asset> expected = List.of();
-        when(repo.search(null, null, null, null, SortDirection.DESC)).thenReturn(expected);
+        AssetCursor after = new AssetCursor(Instant.parse("2020-01-01T00:00:00Z"), UUID.randomUUID());
+        AssetPage expected = new AssetPage(List.of(), null);
+        when(repo.search(null, null, "file.*", null, SortDirection.ASC, after, 50)).thenReturn(expected);
 
-        List<Asset> result = service.execute(null, null, null, null, SortDirection.DESC);
+        AssetPage result = service.execute(null, null, "file.*", null, SortDirection.ASC, after, 50);
 
         assertThat(result).isSameAs(expected);
-        verify(repo).search(null, null, null, null, SortDirection.DESC);
     }
-}
\ No newline at end of file
+
+    @Test
+    void executeStreaming_shouldDelegateConsumerToRepository() {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        SearchAssetsService service = new SearchAssetsService(repo);
+        java.util.function.Consumer<Asset> consumer = asset -> { };
+
+        service.execute(null, null, null, "text/plain", SortDirection.DESC, consumer);
+
+        verify(repo).forEach(null, null, null, "text/plain", SortDirection.DESC, consumer);
+    }
+}
@@ -1,27 +1,65 @@
 package com.example.assets.app;
 
+import com.example.assets.domain.exception.UploadRejectedException;
 import com.example.assets.domain.model.Asset;
 import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.AssetUpload;
 import com.example.assets.domain.ports.AssetRepositoryPort;
 import com.example.assets.domain.usecase.UploadAssetUseCase;
 import com.example.assets.infra.publisher.PublisherOrchestrator;
+import com.example.assets.infra.spool.UploadSpool;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskRejectedException;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.*;
 
 class UploadAssetServiceTest {
 
+    @TempDir
+    Path tempDir;
+
+    private AssetRepositoryPort repo;
+    private PublisherOrchestrator orchestrator;
+    private AdmissionController admission;
+    private UploadSpool spool;
+    private UploadAssetUseCase service;
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setup() throws IOException {
+        repo = mock(AssetRepositoryPort.class);
+        orchestrator = mock(PublisherOrchestrator.class);
+        admission = new AdmissionController(10, 100, Duration.ofSeconds(1), Duration.ofSeconds(5),
+                Duration.ofSeconds(2));
+        spool = new UploadSpool(tempDir.resolve("spool").toString());
+        registry = new SimpleMeterRegistry();
+        service = new UploadAssetService(repo, orchestrator, admission, spool, registry);
+        when(orchestrator.publishAsync(any(UUID.class), any(Path.class), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(orchestrator.publishAllAsync(anyMap())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
     @Test
-    void execute_shouldSavePendingAndTriggerAsyncPublish() {
+    void execute_shouldSavePendingAndTriggerAsyncPublish() throws IOException {
         // given
-        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
-        PublisherOrchestrator orchestrator = mock(PublisherOrchestrator.class);
-        UploadAssetUseCase service = new UploadAssetService(repo, orchestrator);
-
         byte[] data = "hello".getBytes();
         String filename = "a.txt";
         String contentType = "text/plain";
@@ -43,8 +81,106 @@ class UploadAssetServiceTest {
         assertThat(firstSave.filename()).isEqualTo(filename);
         assertThat(firstSave.contentType()).isEqualTo(contentType);
 
-        // 2) Async orchestrator was invoked
-        verify(orchestrator, times(1))
-                .publishAsync(eq(firstSave.id()), eq(data), eq(filename), eq(contentType));
+        // 2) The content waits in the publish queue, not on the heap
+        Path queued = queued(id);
+        assertThat(Files.readAllBytes(queued)).isEqualTo(data);
+        verify(orchestrator, times(1)).publishAsync(id, queued, filename, contentType);
+    }
+
+    @Test
+    void executeWithStagedContent_shouldSavePendingAndHandOverFile() throws IOException {
+        Path content = staged(4);
+        ArgumentCaptor<Asset> saved = ArgumentCaptor.forClass(Asset.class);
+        when(repo.save(saved.capture())).thenAnswer(inv -> inv.getArgument(0));
+
+        UUID id = service.execute("big.mp4", "video/mp4", content);
+
+        assertThat(saved.getValue().id()).isEqualTo(id);
+        assertThat(saved.getValue().status()).isEqualTo(AssetStatus.PENDING);
+        assertThat(content).doesNotExist();
+        verify(orchestrator).publishAsync(id, queued(id), "big.mp4", "video/mp4");
+    }
+
+    @Test
+    void execute_shouldTimeStagesAndRecordUploadSize() throws IOException {
+        service.execute("big.mp4", "video/mp4", staged(4));
+
+        for (String stage : List.of("enqueue", "insert", "submit")) {
+            assertThat(registry.get(PipelineMetrics.STAGE).tag("stage", stage).timer().count()).isEqualTo(1);
+        }
+        var sizes = registry.get(PipelineMetrics.SIZE).summary();
+        assertThat(sizes.count()).isEqualTo(1);
+        assertThat(sizes.totalAmount()).isEqualTo(4);
+    }
+
+    @Test
+    void executeBatch_shouldInsertAllPendingAndPublishThemTogether() throws IOException {
+        AssetUpload first = new AssetUpload("a.txt", "text/plain", staged(1));
+        AssetUpload second = new AssetUpload("b.png", "image/png", staged(1));
+
+        List<UUID> ids = service.execute(List.of(first, second));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Asset>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(repo).insertAll(inserted.capture());
+        verify(repo, never()).save(any());
+        assertThat(inserted.getValue()).extracting(Asset::id).containsExactlyElementsOf(ids);
+        assertThat(inserted.getValue()).extracting(Asset::filename).containsExactly("a.txt", "b.png");
+        assertThat(inserted.getValue()).allMatch(asset -> asset.status() == AssetStatus.PENDING);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<UUID, AssetUpload>> published = ArgumentCaptor.forClass(Map.class);
+        verify(orchestrator).publishAllAsync(published.capture());
+        assertThat(published.getValue().keySet()).containsExactlyElementsOf(ids);
+        assertThat(published.getValue().values()).containsExactly(
+                new AssetUpload("a.txt", "text/plain", queued(ids.get(0))),
+                new AssetUpload("b.png", "image/png", queued(ids.get(1))));
+    }
+
+    @Test
+    void execute_shouldHoldAdmissionUntilPublicationCompletes() throws IOException {
+        var publication = new CompletableFuture<Void>();
+        when(orchestrator.publishAsync(any(UUID.class), any(Path.class), any(), any())).thenReturn(publication);
+
+        service.execute("a.bin", "application/octet-stream", staged(8));
+
+        assertThat(admission.inFlightBytes()).isEqualTo(8);
+        assertThatThrownBy(() -> service.execute("b.bin", "application/octet-stream", new byte[8]))
+                .isInstanceOf(UploadRejectedException.class);
+        assertThat(queuedFiles()).hasSize(1);
+
+        publication.complete(null);
+
+        assertThat(admission.inFlightBytes()).isZero();
+        verify(repo, times(1)).save(any());
+    }
+
+    @Test
+    void execute_shouldReportFullExecutorAsOverload() throws IOException {
+        when(orchestrator.publishAsync(any(UUID.class), any(Path.class), any(), any()))
+                .thenThrow(new TaskRejectedException("queue full"));
+
+        assertThatThrownBy(() -> service.execute("a.txt", "text/plain", new byte[1]))
+                .isInstanceOfSatisfying(UploadRejectedException.class, e -> {
+                    assertThat(e.getReason()).isEqualTo(UploadRejectedException.Reason.OVERLOADED);
+                    assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(2));
+                });
+        assertThat(admission.inFlightTasks()).isZero();
+        assertThat(queuedFiles()).isEmpty();
+        verify(repo).updateStatus(any(UUID.class), eq(AssetStatus.PENDING), eq(AssetStatus.FAILED));
+    }
+
+    private Path queued(UUID id) {
+        return tempDir.resolve("spool").resolve("queue").resolve(id.toString());
+    }
+
+    private List<Path> queuedFiles() throws IOException {
+        try (var files = Files.list(tempDir.resolve("spool").resolve("queue"))) {
+            return files.toList();
+        }
+    }
+
+    private Path staged(int size) throws IOException {
+        return spool.spool(new ByteArrayInputStream(new byte[size]));
     }
 }
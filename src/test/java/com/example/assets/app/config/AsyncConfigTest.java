@@ -0,0 +1,96 @@
+package com.example.assets.app.config;
+
+import com.example.assets.app.AdmissionController;
+import com.example.assets.app.PipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncConfigTest {
+
+    private final AsyncConfig config = new AsyncConfig();
+    private final AdmissionController admission = new AdmissionController(Long.MAX_VALUE, Integer.MAX_VALUE,
+            Duration.ZERO, Duration.ZERO, Duration.ofSeconds(1));
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void taskExecutor_shouldDefaultToThreadPool() {
+        var executor = config.taskExecutor("pool", 64, admission, registry);
+
+        assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+        ((ThreadPoolTaskExecutor) executor).shutdown();
+    }
+
+    @Test
+    void taskExecutor_shouldReportQueueDelayToAdmission() throws Exception {
+        var executor = (ThreadPoolTaskExecutor) config.taskExecutor("pool", 64, admission, registry);
+        var done = new CountDownLatch(1);
+
+        executor.execute(done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        // a zero interval closes on every sample, and any delay is over a zero target
+        assertThat(admission.overloaded()).isTrue();
+        executor.shutdown();
+    }
+
+    @Test
+    void taskExecutor_shouldTimeQueueWaitAndExposeExecutorGauges() throws Exception {
+        var executor = (ThreadPoolTaskExecutor) config.taskExecutor("pool", 64, admission, registry);
+        var done = new CountDownLatch(1);
+
+        executor.execute(done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.get(PipelineMetrics.STAGE).tag("stage", "queue").timer().count()).isEqualTo(1);
+        assertThat(registry.get("assets.executor.active").gauge()).isNotNull();
+        assertThat(registry.get("assets.executor.queued").gauge().value()).isZero();
+        executor.shutdown();
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    void taskExecutor_shouldRefuseVirtualModeBeforeJava21() {
+        assertThatThrownBy(() -> config.taskExecutor("virtual", 64, admission, registry))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Java 21");
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void taskExecutor_shouldCapVirtualThreadsWithSemaphore() throws Exception {
+        var executor = (SimpleAsyncTaskExecutor) config.taskExecutor("VIRTUAL", 2, admission, registry);
+        var running = new AtomicInteger();
+        var peak = new AtomicInteger();
+        var done = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(peak.get()).isBetween(1, 2);
+        executor.close();
+    }
+}
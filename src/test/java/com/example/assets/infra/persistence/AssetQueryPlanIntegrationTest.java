@@ -0,0 +1,159 @@
+package com.example.assets.infra.persistence;
+
+import com.example.assets.domain.model.AssetCursor;
+import com.example.assets.domain.model.SortDirection;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the search indexes: runs the migrations on PostgreSQL, loads a
+ * realistic amount of rows, runs AssetRepositoryAdapter.search for each
+ * filter combination and checks the plan of the SQL it actually issued.
+ * Criteria values are rendered inline so that the captured statements can
+ * be explained as they are; only the row limit is left as a parameter.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.assets.infra.persistence.AssetQueryPlanIntegrationTest$CapturedStatements",
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AssetRepositoryAdapter.class)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AssetQueryPlanIntegrationTest {
+
+    private static final int LIMIT = 100;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    /**
+     * Records every statement Hibernate prepares.
+     */
+    public static class CapturedStatements implements StatementInspector {
+
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    AssetRepositoryAdapter adapter;
+
+    @BeforeEach
+    void seed() {
+        if (jdbc.queryForObject("SELECT count(*) FROM assets", Long.class) > 0) {
+            return;
+        }
+        // 100k rows, 50 content types, one row in 100 still without an upload date
+        jdbc.execute("""
+                INSERT INTO assets (id, filename, content_type, url, size, upload_date, status)
+                SELECT gen_random_uuid(),
+                       'file-' || i || '.bin',
+                       'type/' || (i % 50),
+                       'file:///uploads/' || i,
+                       i,
+                       CASE WHEN i % 100 = 0 THEN NULL
+                            ELSE TIMESTAMPTZ '2020-01-01 00:00:00+00' + i * INTERVAL '1 minute' END,
+                       CASE WHEN i % 100 = 0 THEN 'PENDING' ELSE 'PUBLISHED' END
+                FROM generate_series(1, 100000) AS i
+                """);
+        jdbc.execute("ANALYZE assets");
+    }
+
+    static Stream<Arguments> searches() {
+        Instant from = Instant.parse("2020-01-10T00:00:00Z");
+        Instant to = Instant.parse("2020-01-11T00:00:00Z");
+        AssetCursor dated = new AssetCursor(Instant.parse("2020-02-01T00:00:00Z"), UUID.randomUUID());
+        AssetCursor undated = new AssetCursor(null, new UUID(0, 0));
+        return Stream.of(
+                search("no filter", "idx_assets_upload_date_id",
+                        a -> a.search(null, null, null, null, SortDirection.ASC, null, LIMIT)),
+                search("no filter, descending", "idx_assets_upload_date_id",
+                        a -> a.search(null, null, null, null, SortDirection.DESC, null, LIMIT)),
+                search("date range", "idx_assets_upload_date_id",
+                        a -> a.search(from, to, null, null, SortDirection.DESC, null, LIMIT)),
+                search("filetype", "idx_assets_content_type_upload_date_id",
+                        a -> a.search(null, null, null, "type/7", SortDirection.DESC, null, LIMIT)),
+                search("filetype and date range", "idx_assets_content_type_upload_date_id",
+                        a -> a.search(from, to, null, "type/7", SortDirection.ASC, null, LIMIT)),
+                search("filename with leading wildcard", "idx_assets_filename_trgm",
+                        a -> a.search(null, null, "*-4242*", null, SortDirection.DESC, null, LIMIT)),
+                search("all filters", null,
+                        a -> a.search(from, to, "*-4242*", "type/7", SortDirection.DESC, null, LIMIT)),
+                search("next page", "idx_assets_upload_date_id",
+                        a -> a.search(null, null, null, null, SortDirection.ASC, dated, LIMIT)),
+                search("next page, descending", "idx_assets_upload_date_id",
+                        a -> a.search(null, null, null, null, SortDirection.DESC, dated, LIMIT)),
+                search("next page of a filetype, descending", "idx_assets_content_type_upload_date_id",
+                        a -> a.search(null, null, null, "type/7", SortDirection.DESC, dated, LIMIT)),
+                search("undated segment", "idx_assets_undated_id",
+                        a -> a.search(null, null, null, null, SortDirection.DESC, undated, LIMIT))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("searches")
+    void search_shouldUseAnIndex(String name, String expectedIndex, Consumer<AssetRepositoryAdapter> search) {
+        CapturedStatements.SQL.clear();
+        search.accept(adapter);
+        List<String> statements = CapturedStatements.SQL.stream()
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from assets "))
+                .toList();
+        assertThat(statements).isNotEmpty();
+
+        for (String sql : statements) {
+            // the row limit is the only bind parameter left
+            String plan = String.join("\n",
+                    jdbc.queryForList("EXPLAIN " + sql.replace("?", String.valueOf(LIMIT + 1)), String.class));
+
+            assertThat(plan).as(sql + "\n" + plan).doesNotContain("Seq Scan");
+            if (expectedIndex != null && sql.equals(statements.get(0))) {
+                assertThat(plan).as(sql + "\n" + plan).contains(expectedIndex);
+            }
+        }
+    }
+
+    private static Arguments search(String name, String expectedIndex, Consumer<AssetRepositoryAdapter> search) {
+        return Arguments.of(name, expectedIndex, search);
+    }
+}
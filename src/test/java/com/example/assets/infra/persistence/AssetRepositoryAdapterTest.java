@@ -1,8 +1,14 @@
 package com.example.assets.infra.persistence;
 
 import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetCursor;
+import com.example.assets.domain.model.AssetPage;
 import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.PublishTimeline;
+import com.example.assets.domain.model.PublishTimings;
 import com.example.assets.domain.model.SortDirection;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
@@ -10,6 +16,7 @@ import org.springframework.context.annotation.Import;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,6 +33,9 @@ class AssetRepositoryAdapterTest {
     @Autowired
     AssetJpaRepository jpa;
 
+    @Autowired
+    EntityManager em;
+
     @Test
     void save_shouldPersistAndMapAllFields() {
         Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
@@ -108,7 +118,7 @@ class AssetRepositoryAdapterTest {
 
         Instant start = Instant.parse("2020-01-01T00:00:00Z");
         Instant end = Instant.parse("2020-01-31T23:59:59Z");
-        List<Asset> result = adapter.search(start, end, "report*", "text/plain", SortDirection.ASC);
+        List<Asset> result = adapter.search(start, end, "report*", "text/plain", SortDirection.ASC, null, 10).items();
 
         assertEquals(1, result.size());
         Asset asset = result.get(0);
@@ -137,12 +147,253 @@ class AssetRepositoryAdapterTest {
                 .build();
         jpa.saveAll(List.of(oldEntity, newEntity));
 
-        List<Asset> asc = adapter.search(null, null, null, null, SortDirection.ASC);
+        List<Asset> asc = adapter.search(null, null, null, null, SortDirection.ASC, null, 10).items();
         assertEquals(List.of(oldEntity.getId(), newEntity.getId()),
                 asc.stream().map(Asset::id).toList());
 
-        List<Asset> desc = adapter.search(null, null, null, null, SortDirection.DESC);
+        List<Asset> desc = adapter.search(null, null, null, null, SortDirection.DESC, null, 10).items();
         assertEquals(List.of(newEntity.getId(), oldEntity.getId()),
                 desc.stream().map(Asset::id).toList());
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchPage_shouldWalkAllRowsWithoutGapsOrDuplicates() {
+        Instant sameDate = Instant.parse("2020-01-10T00:00:00Z");
+        List<AssetEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            entities.add(entity("dated" + i + ".txt", i < 4 ? sameDate : sameDate.plusSeconds(i), AssetStatus.PUBLISHED));
+        }
+        for (int i = 0; i < 3; i++) {
+            entities.add(entity("pending" + i + ".txt", null, AssetStatus.PENDING));
+        }
+        jpa.saveAll(entities);
+
+        for (SortDirection direction : SortDirection.values()) {
+            List<Asset> seen = new ArrayList<>();
+            AssetCursor cursor = null;
+            int pages = 0;
+            do {
+                AssetPage page = adapter.search(null, null, null, null, direction, cursor, 3);
+                assertTrue(page.items().size() <= 3);
+                seen.addAll(page.items());
+                cursor = page.nextCursor();
+                pages++;
+            } while (cursor != null);
+
+            assertEquals(4, pages);
+            assertEquals(10, seen.stream().map(Asset::id).distinct().count());
+            // dated rows first in the requested order, undated rows last
+            List<Instant> dates = seen.stream().map(Asset::uploadDate).toList();
+            assertTrue(dates.subList(7, 10).stream().allMatch(d -> d == null));
+            List<Instant> dated = dates.subList(0, 7);
+            List<Instant> expected = new ArrayList<>(dated);
+            expected.sort(direction == SortDirection.ASC ? java.util.Comparator.naturalOrder() : java.util.Comparator.reverseOrder());
+            assertEquals(expected, dated);
+        }
+    }
+
+    @Test
+    void searchPage_shouldApplyFiltersAndStopAtLastPage() {
+        jpa.saveAll(List.of(
+                entity("report1.txt", Instant.parse("2020-01-15T00:00:00Z"), AssetStatus.PUBLISHED),
+                entity("report2.txt", Instant.parse("2020-01-16T00:00:00Z"), AssetStatus.PUBLISHED),
+                entity("image.jpg", Instant.parse("2020-01-17T00:00:00Z"), AssetStatus.PUBLISHED),
+                entity("report3.txt", null, AssetStatus.FAILED)
+        ));
+
+        AssetPage page = adapter.search(Instant.parse("2020-01-01T00:00:00Z"), null, "report*", null,
+                SortDirection.DESC, null, 5);
+
+        assertEquals(List.of("report2.txt", "report1.txt"), page.items().stream().map(Asset::filename).toList());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void forEach_shouldStreamFilteredRowsInOrderWithoutKeepingThemManaged() {
+        jpa.saveAll(List.of(
+                entity("report1.txt", Instant.parse("2020-01-15T00:00:00Z"), AssetStatus.PUBLISHED),
+                entity("report2.txt", Instant.parse("2020-01-16T00:00:00Z"), AssetStatus.PUBLISHED),
+                entity("image.jpg", Instant.parse("2020-01-17T00:00:00Z"), AssetStatus.PUBLISHED)
+        ));
+        jpa.flush();
+        em.clear();
+
+        List<String> streamed = new ArrayList<>();
+        adapter.forEach(null, null, "report*", null, SortDirection.ASC, asset -> streamed.add(asset.filename()));
+
+        assertEquals(List.of("report1.txt", "report2.txt"), streamed);
+        // rows are detached as they are read, so the persistence context does not grow with the result
+        assertEquals(0, em.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void reads_shouldProjectRowsWithoutManagingEntities() {
+        AssetEntity saved = jpa.saveAndFlush(entity("report1.txt", Instant.parse("2020-01-15T00:00:00Z"), AssetStatus.PUBLISHED));
+        em.clear();
+
+        Optional<Asset> found = adapter.findById(saved.getId());
+        AssetPage page = adapter.search(null, null, null, null, SortDirection.ASC, null, 10);
+
+        assertEquals("report1.txt", found.orElseThrow().filename());
+        assertEquals(List.of(found.get()), page.items());
+        assertEquals(0, em.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void findCurrentByIds_shouldReturnTheStoredOnesInOneRead() {
+        Asset first = new Asset(UUID.randomUUID(), "a.txt", "text/plain", null, null, null, AssetStatus.PENDING);
+        Asset second = new Asset(UUID.randomUUID(), "b.txt", "text/plain", null, null, null, AssetStatus.FAILED);
+        adapter.insertAll(List.of(first, second));
+
+        List<Asset> found = adapter.findCurrentByIds(List.of(first.id(), second.id(), UUID.randomUUID()));
+
+        assertEquals(2, found.size());
+        assertTrue(found.containsAll(List.of(first, second)));
+    }
+
+    @Test
+    void changeVersion_shouldChangeWithEveryWriteThatChangesARow() {
+        List<Long> versions = new ArrayList<>();
+        versions.add(adapter.changeVersion().orElseThrow());
+        Asset pending = new Asset(UUID.randomUUID(), "a.txt", "text/plain", null, null, null, AssetStatus.PENDING);
+
+        adapter.save(pending);
+        versions.add(adapter.changeVersion().orElseThrow());
+        adapter.insertAll(List.of(new Asset(UUID.randomUUID(), "b.txt", "text/plain", null, null, null,
+                AssetStatus.PENDING)));
+        versions.add(adapter.changeVersion().orElseThrow());
+        assertTrue(adapter.updateStatus(pending.id(), AssetStatus.PENDING, AssetStatus.PROCESSING));
+        versions.add(adapter.changeVersion().orElseThrow());
+        Instant now = Instant.now();
+        assertTrue(adapter.markPublished(pending.id(), "file:///a.txt", 1, null,
+                new PublishTimings(now, now, now, now)));
+        versions.add(adapter.changeVersion().orElseThrow());
+        for (int i = 1; i < versions.size(); i++) {
+            assertEquals(versions.get(i - 1) + 1, versions.get(i));
+        }
+
+        // a conditional update that matches nothing is not a change
+        long published = adapter.changeVersion().orElseThrow();
+        assertFalse(adapter.updateStatus(pending.id(), AssetStatus.PENDING, AssetStatus.PROCESSING));
+        assertFalse(adapter.markPublished(pending.id(), "file:///a.txt", 1, null,
+                new PublishTimings(now, now, now, now)));
+        assertEquals(published, adapter.changeVersion().orElseThrow());
+    }
+
+    @Test
+    void changeVersion_shouldSeeAWriteWhicheverSlotItBumped() {
+        // as another instance's writes would land, one in each slot
+        for (int slot = 0; slot < AssetRepositoryAdapter.CHANGE_SLOTS; slot++) {
+            long before = adapter.changeVersion().orElseThrow();
+            em.createNativeQuery("UPDATE asset_changes SET version = version + 1 WHERE slot = :slot")
+                    .setParameter("slot", slot)
+                    .executeUpdate();
+
+            assertEquals(before + 1, adapter.changeVersion().orElseThrow());
+        }
+    }
+
+    @Test
+    void insertAll_shouldPersistEveryAssetAcrossBatches() {
+        List<Asset> assets = new ArrayList<>();
+        for (int i = 0; i < AssetRepositoryAdapter.INSERT_BATCH_SIZE * 2 + 3; i++) {
+            assets.add(new Asset(UUID.randomUUID(), "file-" + i + ".txt", "text/plain",
+                    null, null, null, AssetStatus.PENDING));
+        }
+
+        adapter.insertAll(assets);
+
+        assertEquals(assets.size(), jpa.count());
+        assertEquals(Optional.of(assets.get(assets.size() - 1)), adapter.findById(assets.get(assets.size() - 1).id()));
+        assertEquals(0, em.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void updateStatus_shouldOnlyApplyFromExpectedStatus() {
+        AssetEntity saved = jpa.saveAndFlush(entity("a.txt", null, AssetStatus.PENDING));
+        em.clear();
+
+        assertTrue(adapter.updateStatus(saved.getId(), AssetStatus.PENDING, AssetStatus.PROCESSING));
+        assertFalse(adapter.updateStatus(saved.getId(), AssetStatus.PENDING, AssetStatus.PROCESSING));
+        assertFalse(adapter.updateStatus(UUID.randomUUID(), AssetStatus.PENDING, AssetStatus.PROCESSING));
+
+        Instant publishedAt = Instant.parse("2024-05-01T10:00:00Z");
+        assertTrue(adapter.markPublished(saved.getId(), "file:///a.txt", 42L, "gzip", timings(publishedAt)));
+        assertFalse(adapter.markPublished(saved.getId(), "file:///other.txt", 1L, null, timings(publishedAt)));
+
+        Asset published = adapter.findById(saved.getId()).orElseThrow();
+        assertEquals(AssetStatus.PUBLISHED, published.status());
+        assertEquals("file:///a.txt", published.url());
+        assertEquals(42L, published.size());
+        assertEquals("gzip", published.contentEncoding());
+        assertEquals(publishedAt, published.uploadDate());
+        assertEquals("a.txt", published.filename());
+    }
+
+    @Test
+    void findUnsettled_shouldReturnOldPendingAndProcessingAssetsOnly() {
+        Asset pending = adapter.save(new Asset(UUID.randomUUID(), "a.txt", "text/plain",
+                null, null, null, AssetStatus.PENDING));
+        Asset processing = adapter.save(new Asset(UUID.randomUUID(), "b.txt", "text/plain",
+                null, null, null, AssetStatus.PROCESSING));
+        adapter.save(new Asset(UUID.randomUUID(), "c.txt", "text/plain",
+                "file:///c.txt", 1L, Instant.now(), AssetStatus.PUBLISHED));
+        // accepted before acceptance times were recorded
+        AssetEntity legacy = jpa.saveAndFlush(entity("d.txt", null, AssetStatus.PENDING));
+        em.clear();
+
+        List<Asset> unsettled = adapter.findUnsettled(Instant.now().plusSeconds(1), 10);
+
+        assertEquals(3, unsettled.size());
+        assertTrue(unsettled.stream().map(Asset::id).toList()
+                .containsAll(List.of(pending.id(), processing.id(), legacy.getId())));
+        assertTrue(adapter.findUnsettled(Instant.now().minusSeconds(60), 10).stream()
+                .allMatch(asset -> asset.id().equals(legacy.getId())));
+    }
+
+    @Test
+    void findPublishTimelines_shouldReturnRecentPublicationsNewestFirst() {
+        Instant since = Instant.parse("2024-05-01T00:00:00Z");
+        publish("old.txt", since.minusSeconds(60));
+        publish("first.txt", since.plusSeconds(60));
+        publish("second.txt", since.plusSeconds(120));
+        UUID third = publish("third.txt", since.plusSeconds(180));
+        jpa.saveAndFlush(entity("legacy.txt", since.plusSeconds(240), AssetStatus.PUBLISHED));
+        em.clear();
+
+        List<PublishTimeline> timelines = adapter.findPublishTimelines(since, 2);
+
+        assertEquals(2, timelines.size());
+        assertEquals(timings(since.plusSeconds(180)), timelines.get(0).timings());
+        assertEquals(timings(since.plusSeconds(120)), timelines.get(1).timings());
+        assertEquals("text/plain", timelines.get(0).contentType());
+        assertEquals(5L, timelines.get(0).size());
+        assertEquals(jpa.findById(third).orElseThrow().getAcceptedAt(), timelines.get(0).accepted());
+        assertEquals(3, adapter.findPublishTimelines(since, 10).size());
+    }
+
+    private UUID publish(String filename, Instant committed) {
+        Asset asset = adapter.save(new Asset(UUID.randomUUID(), filename, "text/plain",
+                null, null, null, AssetStatus.PROCESSING));
+        assertNotNull(jpa.findById(asset.id()).orElseThrow().getAcceptedAt());
+        assertTrue(adapter.markPublished(asset.id(), "file:///" + filename, 5L, null, timings(committed)));
+        return asset.id();
+    }
+
+    private static PublishTimings timings(Instant committed) {
+        return new PublishTimings(committed.minusMillis(700), committed.minusMillis(650),
+                committed.minusMillis(150), committed);
+    }
+
+    private static AssetEntity entity(String filename, Instant uploadDate, AssetStatus status) {
+        return AssetEntity.builder()
+                .id(UUID.randomUUID())
+                .filename(filename)
+                .contentType("text/plain")
+                .url("url")
+                .size(1L)
+                .uploadDate(uploadDate)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.assets.infra.persistence;
+
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingAssetRepositoryTest {
+
+    private AssetRepositoryPort delegate;
+    private CachingAssetRepository repo;
+
+    @BeforeEach
+    void setup() {
+        delegate = mock(AssetRepositoryPort.class);
+        when(delegate.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        repo = new CachingAssetRepository(delegate, 100, Duration.ofHours(1), Duration.ZERO);
+    }
+
+    @Test
+    void findById_shouldLoadTerminalAssetsOnce() {
+        Asset asset = asset(AssetStatus.PUBLISHED);
+        when(delegate.findById(asset.id())).thenReturn(Optional.of(asset));
+
+        assertEquals(Optional.of(asset), repo.findById(asset.id()));
+        assertEquals(Optional.of(asset), repo.findById(asset.id()));
+
+        verify(delegate, times(1)).findById(asset.id());
+        assertEquals(1, repo.cache().stats().hitCount());
+    }
+
+    @Test
+    void findById_shouldNotCacheMisses() {
+        UUID id = UUID.randomUUID();
+        when(delegate.findById(id)).thenReturn(Optional.empty());
+
+        assertTrue(repo.findById(id).isEmpty());
+        assertTrue(repo.findById(id).isEmpty());
+
+        verify(delegate, times(2)).findById(id);
+    }
+
+    @Test
+    void findById_shouldHonourInProgressTtl() {
+        Asset asset = asset(AssetStatus.PROCESSING);
+        when(delegate.findById(asset.id())).thenReturn(Optional.of(asset));
+
+        repo.findById(asset.id());
+        repo.findById(asset.id());
+
+        verify(delegate, times(2)).findById(asset.id());
+    }
+
+    @Test
+    void findCurrentByIds_shouldReloadAndReplaceTheEntries() {
+        Asset processing = asset(AssetStatus.PROCESSING);
+        Asset published = withStatus(processing, AssetStatus.PUBLISHED);
+        Asset deleted = asset(AssetStatus.PROCESSING);
+        repo = new CachingAssetRepository(delegate, 100, Duration.ofHours(1), Duration.ofHours(1));
+        when(delegate.findById(processing.id())).thenReturn(Optional.of(processing));
+        when(delegate.findById(deleted.id())).thenReturn(Optional.of(deleted), Optional.empty());
+        repo.findById(processing.id());
+        repo.findById(deleted.id());
+        List<UUID> ids = List.of(processing.id(), deleted.id());
+        when(delegate.findCurrentByIds(ids)).thenReturn(List.of(published));
+
+        assertEquals(List.of(published), repo.findCurrentByIds(ids));
+        assertEquals(Optional.of(published), repo.findById(processing.id()));
+        assertEquals(Optional.empty(), repo.findById(deleted.id()));
+        verify(delegate, times(1)).findById(processing.id());
+    }
+
+    @Test
+    void save_shouldReplaceEntryWithoutTransaction() {
+        Asset pending = asset(AssetStatus.PENDING);
+        when(delegate.findById(pending.id())).thenReturn(Optional.of(pending));
+        repo.findById(pending.id());
+        Asset published = withStatus(pending, AssetStatus.PUBLISHED);
+
+        repo.save(published);
+
+        assertEquals(Optional.of(published), repo.findById(pending.id()));
+        verify(delegate, times(1)).findById(pending.id());
+    }
+
+    @Test
+    void save_shouldOnlyCacheOnceTransactionCommits() {
+        Asset published = asset(AssetStatus.PUBLISHED);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            repo.save(published);
+            assertNull(repo.cache().getIfPresent(published.id()));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(published, repo.cache().getIfPresent(published.id()));
+    }
+
+    @Test
+    void save_shouldDropEntryWhenTransactionRollsBack() {
+        Asset published = asset(AssetStatus.PUBLISHED);
+        repo.save(published);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            repo.save(withStatus(published, AssetStatus.FAILED));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(repo.cache().getIfPresent(published.id()));
+    }
+
+    @Test
+    void insertAll_shouldCacheNewAssets() {
+        Asset first = asset(AssetStatus.PUBLISHED);
+        Asset second = asset(AssetStatus.FAILED);
+
+        repo.insertAll(List.of(first, second));
+
+        verify(delegate).insertAll(List.of(first, second));
+        assertEquals(Optional.of(second), repo.findById(second.id()));
+        verify(delegate, never()).findById(any());
+    }
+
+    @Test
+    void updateStatus_shouldEvictEntry() {
+        Asset pending = asset(AssetStatus.PENDING);
+        repo.save(pending);
+        when(delegate.updateStatus(pending.id(), AssetStatus.PENDING, AssetStatus.PROCESSING)).thenReturn(true);
+
+        assertTrue(repo.updateStatus(pending.id(), AssetStatus.PENDING, AssetStatus.PROCESSING));
+
+        assertNull(repo.cache().getIfPresent(pending.id()));
+    }
+
+    @Test
+    void changeVersion_shouldComeFromTheDelegate() {
+        when(delegate.changeVersion()).thenReturn(OptionalLong.of(42));
+
+        assertEquals(42, repo.changeVersion().orElseThrow());
+    }
+
+    private static Asset asset(AssetStatus status) {
+        return new Asset(UUID.randomUUID(), "a.txt", "text/plain", "url", 1L, Instant.EPOCH, status);
+    }
+
+    private static Asset withStatus(Asset asset, AssetStatus status) {
+        return new Asset(asset.id(), asset.filename(), asset.contentType(), asset.url(),
+                asset.size(), asset.uploadDate(), status);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.assets.infra.persistence;
+
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.PublishTimings;
+import com.example.assets.domain.model.SortDirection;
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MeteredAssetRepositoryTest {
+
+    private AssetRepositoryPort delegate;
+    private MeterRegistry registry;
+    private MeteredAssetRepository repo;
+
+    @BeforeEach
+    void setup() {
+        delegate = mock(AssetRepositoryPort.class);
+        when(delegate.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        registry = new SimpleMeterRegistry();
+        repo = new MeteredAssetRepository(delegate, registry);
+    }
+
+    @Test
+    void writes_shouldCountOnlyTheTransitionsThatHappened() {
+        UUID id = UUID.randomUUID();
+        when(delegate.updateStatus(id, AssetStatus.PENDING, AssetStatus.PROCESSING)).thenReturn(true, false);
+        when(delegate.markPublished(any(), any(), anyLong(), any(), any())).thenReturn(true);
+
+        repo.save(new Asset(id, "a.txt", "text/plain", null, null, null, AssetStatus.PENDING));
+        repo.updateStatus(id, AssetStatus.PENDING, AssetStatus.PROCESSING);
+        repo.updateStatus(id, AssetStatus.PENDING, AssetStatus.PROCESSING);
+        Instant now = Instant.now();
+        repo.markPublished(id, "file:///a.txt", 1, null, new PublishTimings(now, now, now, now));
+
+        assertEquals(1, transitions("none", "pending"));
+        assertEquals(1, transitions("pending", "processing"));
+        assertEquals(1, transitions("processing", "published"));
+    }
+
+    @Test
+    void search_shouldBeTimedByFilterCombination() {
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+
+        repo.search(start, null, null, "image/png", SortDirection.DESC, null, 10);
+        repo.forEach(null, null, "IMG.*", null, SortDirection.ASC, asset -> { });
+
+        assertEquals(1, searches("filetype,date", "page"));
+        assertEquals(1, searches("filename", "stream"));
+        assertNull(registry.find("assets.search").tag("mode", "list").timer());
+        verify(delegate).search(start, null, null, "image/png", SortDirection.DESC, null, 10);
+    }
+
+    @Test
+    void filters_shouldListFiltersInFixedOrder() {
+        assertEquals("filetype,date,filename",
+                MeteredAssetRepository.filters(null, Instant.now(), "a.*", "text/plain"));
+        assertEquals("none", MeteredAssetRepository.filters(null, null, null, null));
+    }
+
+    private double transitions(String from, String to) {
+        return registry.get("assets.status.transitions").tag("from", from).tag("to", to).counter().count();
+    }
+
+    private long searches(String filters, String mode) {
+        return registry.get("assets.search").tag("filters", filters).tag("mode", mode).timer().count();
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.assets.infra.publisher;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for an S3-compatible store, path-style, with the
+ * requests {@link S3PublisherAdapter} makes: PutObject and the multipart
+ * upload ones, and GetObject for presigned downloads. It checks that
+ * requests are signed, in the headers or the query, not the signatures.
+ * Failures and a per-request latency can be injected.
+ */
+public class FakeS3Server implements AutoCloseable {
+
+    private static final Pattern PART = Pattern.compile("<PartNumber>(\\d+)</PartNumber><ETag>\"([^\"]+)\"</ETag>");
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final Set<String> aborted = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile Predicate<HttpExchange> failWhen = exchange -> false;
+    private volatile long latencyMillis;
+
+    public FakeS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    /** Answers 503 to the requests matching the predicate. */
+    public void failWhen(Predicate<HttpExchange> predicate) {
+        this.failWhen = predicate;
+    }
+
+    /** Delays every response, as a remote store would. */
+    public void latency(long millis) {
+        this.latencyMillis = millis;
+    }
+
+    public byte[] object(String bucket, String key) {
+        return objects.get('/' + bucket + '/' + key);
+    }
+
+    public String contentType(String bucket, String key) {
+        return contentTypes.get('/' + bucket + '/' + key);
+    }
+
+    public int objectCount() {
+        return objects.size();
+    }
+
+    public void clear() {
+        objects.clear();
+        contentTypes.clear();
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    public int maxConcurrentRequests() {
+        return maxConcurrent.get();
+    }
+
+    public int pendingUploads() {
+        return uploads.size();
+    }
+
+    public int abortedUploads() {
+        return aborted.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+        try {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            boolean presigned = query(exchange.getRequestURI().getRawQuery()).containsKey("X-Amz-Signature");
+            if (!presigned && (authorization == null || !authorization.startsWith("AWS4-HMAC-SHA256 Credential=")
+                    || exchange.getRequestHeaders().getFirst("x-amz-date") == null)) {
+                respond(exchange, 403, "<Error><Code>AccessDenied</Code></Error>");
+                return;
+            }
+            if (failWhen.test(exchange)) {
+                respond(exchange, 503, "<Error><Code>SlowDown</Code></Error>");
+                return;
+            }
+            route(exchange, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            concurrent.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange, byte[] body) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+        String method = exchange.getRequestMethod();
+        if (method.equals("POST") && query.containsKey("uploads")) {
+            String uploadId = UUID.randomUUID() + "/+=";
+            uploads.put(uploadId, new ConcurrentHashMap<>());
+            contentTypes.put(path, exchange.getRequestHeaders().getFirst("Content-Type"));
+            respond(exchange, 200, "<InitiateMultipartUploadResult><UploadId>" + uploadId
+                    + "</UploadId></InitiateMultipartUploadResult>");
+        } else if (method.equals("PUT") && query.containsKey("partNumber")) {
+            Map<Integer, byte[]> parts = uploads.get(query.get("uploadId"));
+            if (parts == null) {
+                respond(exchange, 404, "<Error><Code>NoSuchUpload</Code></Error>");
+                return;
+            }
+            int number = Integer.parseInt(query.get("partNumber"));
+            parts.put(number, body);
+            exchange.getResponseHeaders().add("ETag", '"' + etag(number, body) + '"');
+            respond(exchange, 200, "");
+        } else if (method.equals("POST") && query.containsKey("uploadId")) {
+            Map<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+            if (parts == null) {
+                respond(exchange, 404, "<Error><Code>NoSuchUpload</Code></Error>");
+                return;
+            }
+            var content = new ByteArrayOutputStream();
+            Matcher part = PART.matcher(new String(body, StandardCharsets.UTF_8));
+            int expected = 1;
+            while (part.find()) {
+                int number = Integer.parseInt(part.group(1));
+                byte[] data = parts.get(number);
+                if (number != expected++ || data == null || !etag(number, data).equals(part.group(2))) {
+                    respond(exchange, 400, "<Error><Code>InvalidPart</Code></Error>");
+                    return;
+                }
+                content.write(data);
+            }
+            objects.put(path, content.toByteArray());
+            respond(exchange, 200, "<CompleteMultipartUploadResult/>");
+        } else if (method.equals("DELETE") && query.containsKey("uploadId")) {
+            uploads.remove(query.get("uploadId"));
+            aborted.add(query.get("uploadId"));
+            exchange.sendResponseHeaders(204, -1);
+        } else if (method.equals("GET")) {
+            byte[] object = objects.get(path);
+            if (object == null) {
+                respond(exchange, 404, "<Error><Code>NoSuchKey</Code></Error>");
+                return;
+            }
+            exchange.sendResponseHeaders(200, object.length == 0 ? -1 : object.length);
+            exchange.getResponseBody().write(object);
+        } else if (method.equals("PUT")) {
+            objects.put(path, body);
+            contentTypes.put(path, exchange.getRequestHeaders().getFirst("Content-Type"));
+            respond(exchange, 200, "");
+        } else {
+            respond(exchange, 405, "<Error><Code>MethodNotAllowed</Code></Error>");
+        }
+    }
+
+    private static String etag(int number, byte[] data) {
+        return Integer.toHexString(number) + '-' + Integer.toHexString(Arrays.hashCode(data));
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                int eq = parameter.indexOf('=');
+                query.put(eq < 0 ? parameter : parameter.substring(0, eq),
+                        eq < 0 ? "" : URLDecoder.decode(parameter.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -1,13 +1,19 @@
 package com.example.assets.infra.publisher;
 
+import com.example.assets.domain.model.ContentCoding;
 import com.example.assets.domain.ports.AssetPublisherPort;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -18,7 +24,7 @@ class LocalPublisherAdapterTest {
         String oldUserDir = System.getProperty("user.dir");
         System.setProperty("user.dir", tempDir.toString());
         try {
-            LocalPublisherAdapter adapter = new LocalPublisherAdapter();
+            LocalPublisherAdapter adapter = adapter(false, 2, FsyncPolicy.NONE);
             byte[] data = "hello".getBytes();
 
             AssetPublisherPort.PublishedInfo info = adapter.publish(data, "file.txt", "text/plain");
@@ -32,15 +38,35 @@ class LocalPublisherAdapterTest {
         }
     }
 
+    @Test
+    void publishStream_shouldCopyContentAndReturnInfo(@TempDir Path tempDir) throws Exception {
+        String oldUserDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            LocalPublisherAdapter adapter = adapter(false, 2, FsyncPolicy.NONE);
+            byte[] data = "hello stream".getBytes();
+
+            AssetPublisherPort.PublishedInfo info =
+                    adapter.publish(new ByteArrayInputStream(data), "file.txt", "text/plain");
+
+            assertThat(info.size()).isEqualTo(data.length);
+            Path stored = Path.of(URI.create(info.url()));
+            assertThat(stored.getFileName().toString()).endsWith(".txt");
+            assertThat(Files.readAllBytes(stored)).isEqualTo(data);
+        } finally {
+            System.setProperty("user.dir", oldUserDir);
+        }
+    }
+
     @Test
     void publish_shouldThrowRuntimeExceptionWhenWriteFails(@TempDir Path tempDir) throws Exception {
         String oldUserDir = System.getProperty("user.dir");
         System.setProperty("user.dir", tempDir.toString());
         try {
-            LocalPublisherAdapter adapter = new LocalPublisherAdapter();
-            Path uploads = Paths.get(System.getProperty("user.dir"), "uploads");
-            Files.delete(uploads);
-            Files.createFile(uploads);
+            LocalPublisherAdapter adapter = adapter(false, 2, FsyncPolicy.NONE);
+            Path staging = Paths.get(System.getProperty("user.dir"), "uploads", ".tmp");
+            Files.delete(staging);
+            Files.createFile(staging);
             byte[] data = "hello".getBytes();
 
             assertThatThrownBy(() -> adapter.publish(data, "file.txt", "text/plain"))
@@ -49,4 +75,177 @@ class LocalPublisherAdapterTest {
             System.setProperty("user.dir", oldUserDir);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void constructor_shouldDeleteTemporaryFilesLeftByAPreviousRun(@TempDir Path tempDir) throws Exception {
+        String oldUserDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            Path staging = Files.createDirectories(tempDir.resolve("uploads/.tmp"));
+            Files.write(staging.resolve("a1b2.tmp"), "half".getBytes());
+
+            LocalPublisherAdapter adapter = adapter(false, 2, FsyncPolicy.NONE);
+
+            try (var staged = Files.list(adapter.tempDirectory())) {
+                assertThat(staged).isEmpty();
+            }
+        } finally {
+            System.setProperty("user.dir", oldUserDir);
+        }
+    }
+
+    @Test
+    void resolve_shouldOnlyReturnFilesInsideStorageRoot(@TempDir Path tempDir) throws Exception {
+        String oldUserDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            LocalPublisherAdapter adapter = adapter(false, 2, FsyncPolicy.NONE);
+            AssetPublisherPort.PublishedInfo info = adapter.publish("hello".getBytes(), "file.txt", "text/plain");
+
+            assertThat(adapter.resolve(info.url())).contains(Path.of(URI.create(info.url())));
+            assertThat(adapter.resolve(tempDir.resolve("uploads/../secret.txt").toUri().toString())).isEmpty();
+            assertThat(adapter.resolve(tempDir.resolve("uploads/missing.txt").toUri().toString()))
+                    .contains(tempDir.resolve("uploads/mi/ss/missing.txt"));
+            assertThat(adapter.resolve("http://example.com/file.txt")).isEmpty();
+        } finally {
+            System.setProperty("user.dir", oldUserDir);
+        }
+    }
+
+    @Test
+    void publish_shouldStoreIdenticalContentOnceWhenDeduplicating(@TempDir Path tempDir) throws Exception {
+        String oldUserDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            LocalPublisherAdapter adapter = adapter(true, 2, FsyncPolicy.PER_FILE);
+            byte[] logo = "logo".getBytes();
+
+            var first = adapter.publish(logo, "logo.png", "image/png");
+            var second = adapter.publish(new ByteArrayInputStream(logo), "copy.png", "image/png");
+            var other = adapter.publish("invoice".getBytes(), "invoice.pdf", "application/pdf");
+
+            Path firstFile = Path.of(URI.create(first.url()));
+            Path secondFile = Path.of(URI.create(second.url()));
+            assertThat(firstFile).isNotEqualTo(secondFile);
+            assertThat(Files.isSameFile(firstFile, secondFile)).isTrue();
+            assertThat(Files.readAllBytes(secondFile)).isEqualTo(logo);
+            assertThat(adapter.resolve(second.url())).contains(secondFile);
+            try (var blobs = Files.list(tempDir.resolve("uploads/blobs"))) {
+                assertThat(blobs).hasSize(2);
+            }
+            assertThat(Files.isSameFile(Path.of(URI.create(other.url())), firstFile)).isFalse();
+            assertThat(adapter.dedupeRatio()).isEqualTo(4.0 / 15);
+        } finally {
+            System.setProperty("user.dir", oldUserDir);
+        }
+    }
+
+    @Test
+    void publish_shouldKeepItsOwnCopyWhenTheBlobCannotBeLinked(@TempDir Path tempDir) throws Exception {
+        String oldUserDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            LocalPublisherAdapter adapter = adapter(true, 2, FsyncPolicy.NONE);
+            byte[] logo = "logo".getBytes();
+            String digest = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(logo));
+            // a directory refuses links like a blob at the file system's link limit
+            Files.createDirectory(adapter.blobLayout().prepare(digest));
+
+            var info = adapter.publish(new ByteArrayInputStream(logo), "logo.png", "image/png");
+
+            assertThat(Files.readAllBytes(Path.of(URI.create(info.url())))).isEqualTo(logo);
+            assertThat(adapter.dedupeRatio()).isZero();
+            try (var staged = Files.list(adapter.tempDirectory())) {
+                assertThat(staged).isEmpty();
+            }
+        } finally {
+            System.setProperty("user.dir", oldUserDir);
+        }
+    }
+
+    @Test
+    void publish_shouldPlaceFilesInShardDirectories(@TempDir Path tempDir) throws Exception {
+        String oldUserDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            LocalPublisherAdapter adapter = adapter(false, 2, FsyncPolicy.PERIODIC);
+
+            var info = adapter.publish(new ByteArrayInputStream("hello".getBytes()), "file.txt", "text/plain");
+            adapter.close();
+
+            Path stored = Path.of(URI.create(info.url()));
+            String name = stored.getFileName().toString();
+            assertThat(stored).isEqualTo(tempDir.resolve("uploads")
+                    .resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(name));
+            try (var staged = Files.list(tempDir.resolve("uploads/.tmp"))) {
+                assertThat(staged).isEmpty();
+            }
+        } finally {
+            System.setProperty("user.dir", oldUserDir);
+        }
+    }
+
+    @Test
+    void migration_shouldReshardExistingFilesAndKeepTheirUrls(@TempDir Path tempDir) throws Exception {
+        String oldUserDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            var flat = adapter(true, 0, FsyncPolicy.NONE);
+            var first = flat.publish("logo".getBytes(), "logo.png", "image/png");
+            var second = flat.publish("logo".getBytes(), "copy.png", "image/png");
+
+            LocalPublisherAdapter sharded = adapter(true, 1, FsyncPolicy.NONE);
+            long moved = new StorageLayoutMigration(sharded, true).run();
+
+            assertThat(moved).isEqualTo(3);
+            Path firstFile = sharded.resolve(first.url()).orElseThrow();
+            Path secondFile = sharded.resolve(second.url()).orElseThrow();
+            assertThat(firstFile.getParent().getFileName().toString())
+                    .isEqualTo(firstFile.getFileName().toString().substring(0, 2));
+            assertThat(Files.readAllBytes(firstFile)).isEqualTo("logo".getBytes());
+            assertThat(Files.isSameFile(firstFile, secondFile)).isTrue();
+            assertThat(new StorageLayoutMigration(sharded, true).run()).isZero();
+        } finally {
+            System.setProperty("user.dir", oldUserDir);
+        }
+    }
+
+    @Test
+    void publish_shouldCompressCompressibleTypesOnly(@TempDir Path tempDir) throws Exception {
+        String oldUserDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", tempDir.toString());
+        try {
+            var gzip = new CompressionPolicy("gzip", new String[]{"text/*", "application/*+json"});
+            LocalPublisherAdapter adapter = adapter(true, 2, FsyncPolicy.NONE, gzip);
+            byte[] csv = "id,name\n".repeat(1000).getBytes();
+
+            var text = adapter.publish(new ByteArrayInputStream(csv), "report.csv", "text/csv; charset=utf-8");
+            var json = adapter.publish("{}".getBytes(), "doc.json", "application/vnd.api+json");
+            var image = adapter.publish(csv, "photo.png", "image/png");
+
+            Path stored = adapter.resolve(text.url()).orElseThrow();
+            assertThat(text.contentEncoding()).isEqualTo("gzip");
+            assertThat(text.size()).isEqualTo(csv.length);
+            assertThat(stored.getFileName().toString()).endsWith(".csv.gz");
+            assertThat(Files.size(stored)).isLessThan(csv.length / 10);
+            try (var in = ContentCoding.GZIP.decode(Files.newInputStream(stored))) {
+                assertThat(in.readAllBytes()).isEqualTo(csv);
+            }
+            assertThat(json.contentEncoding()).isEqualTo("gzip");
+            assertThat(image.contentEncoding()).isNull();
+            assertThat(Files.readAllBytes(adapter.resolve(image.url()).orElseThrow())).isEqualTo(csv);
+        } finally {
+            System.setProperty("user.dir", oldUserDir);
+        }
+    }
+
+    private static LocalPublisherAdapter adapter(boolean deduplicate, int shardDepth, FsyncPolicy fsync)
+            throws IOException {
+        return adapter(deduplicate, shardDepth, fsync, CompressionPolicy.none());
+    }
+
+    private static LocalPublisherAdapter adapter(boolean deduplicate, int shardDepth, FsyncPolicy fsync,
+                                                 CompressionPolicy compression) throws IOException {
+        return new LocalPublisherAdapter(deduplicate, shardDepth, fsync, Duration.ofMillis(50), compression);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.assets.infra.publisher;
+
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.ports.AssetRepositoryPort;
+import com.example.assets.domain.ports.AssetStatusNotifierPort;
+import com.example.assets.infra.spool.UploadSpool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PublishRecoveryTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private UploadSpool spool;
+    private AssetRepositoryPort repo;
+    private PublisherOrchestrator orchestrator;
+    private AssetStatusNotifierPort notifier;
+    private PublishRecovery recovery;
+
+    @BeforeEach
+    void setup() throws Exception {
+        spool = new UploadSpool(tempDir.toString());
+        repo = mock(AssetRepositoryPort.class);
+        orchestrator = mock(PublisherOrchestrator.class);
+        when(orchestrator.publishAsync(any(UUID.class), any(Path.class), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        notifier = mock(AssetStatusNotifierPort.class);
+        recovery = new PublishRecovery(spool, repo, orchestrator, notifier, 2, Duration.ofHours(1),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void recover_shouldRepublishPendingAndInterruptedAssets() throws Exception {
+        Asset pending = asset(AssetStatus.PENDING);
+        Asset interrupted = asset(AssetStatus.PROCESSING);
+        Path pendingContent = spool.enqueue(pending.id(), "a".getBytes());
+        Path interruptedContent = spool.enqueue(interrupted.id(), "b".getBytes());
+        when(repo.findById(pending.id())).thenReturn(Optional.of(pending));
+        when(repo.findById(interrupted.id())).thenReturn(Optional.of(interrupted));
+
+        recovery.recover(Map.of(pending.id(), pendingContent, interrupted.id(), interruptedContent));
+
+        verify(repo).updateStatus(interrupted.id(), AssetStatus.PROCESSING, AssetStatus.PENDING);
+        verify(orchestrator).publishAsync(pending.id(), pendingContent, "a.txt", "text/plain");
+        verify(orchestrator).publishAsync(interrupted.id(), interruptedContent, "a.txt", "text/plain");
+    }
+
+    @Test
+    void recover_shouldDropFilesOfUnknownOrFinishedAssets() throws Exception {
+        UUID unknown = UUID.randomUUID();
+        Asset published = asset(AssetStatus.PUBLISHED);
+        Path unknownContent = spool.enqueue(unknown, "a".getBytes());
+        Path publishedContent = spool.enqueue(published.id(), "b".getBytes());
+        when(repo.findById(unknown)).thenReturn(Optional.empty());
+        when(repo.findById(published.id())).thenReturn(Optional.of(published));
+
+        recovery.recover(Map.of(unknown, unknownContent, published.id(), publishedContent));
+
+        assertThat(unknownContent).doesNotExist();
+        assertThat(publishedContent).doesNotExist();
+        verifyNoInteractions(orchestrator);
+    }
+
+    @Test
+    void recover_shouldWaitForRoomWhenExecutorIsFull() throws Exception {
+        Asset pending = asset(AssetStatus.PENDING);
+        Path content = spool.enqueue(pending.id(), "a".getBytes());
+        when(repo.findById(pending.id())).thenReturn(Optional.of(pending));
+        when(orchestrator.publishAsync(pending.id(), content, "a.txt", "text/plain"))
+                .thenThrow(new TaskRejectedException("queue full"))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        recovery.recover(Map.of(pending.id(), content));
+
+        verify(orchestrator, times(2)).publishAsync(pending.id(), content, "a.txt", "text/plain");
+    }
+
+    @Test
+    void failOrphans_shouldFailUnsettledAssetsWithNothingQueued() throws Exception {
+        Asset pending = asset(AssetStatus.PENDING);
+        Asset interrupted = asset(AssetStatus.PROCESSING);
+        Asset queued = asset(AssetStatus.PENDING);
+        Asset settled = asset(AssetStatus.PENDING);
+        spool.enqueue(queued.id(), "a".getBytes());
+        when(repo.findUnsettled(NOW.minus(Duration.ofHours(1)), 500))
+                .thenReturn(List.of(pending, interrupted, queued, settled));
+        when(repo.updateStatus(any(), any(), eq(AssetStatus.FAILED))).thenReturn(true);
+        // published after it was read
+        when(repo.updateStatus(settled.id(), AssetStatus.PENDING, AssetStatus.FAILED)).thenReturn(false);
+
+        assertThat(recovery.failOrphans()).isEqualTo(2);
+
+        verify(repo).updateStatus(pending.id(), AssetStatus.PENDING, AssetStatus.FAILED);
+        verify(repo).updateStatus(interrupted.id(), AssetStatus.PROCESSING, AssetStatus.FAILED);
+        verify(repo, never()).updateStatus(eq(queued.id()), any(), any());
+        verify(notifier).statusChanged(pending.id(), AssetStatus.FAILED);
+        verify(notifier).statusChanged(interrupted.id(), AssetStatus.FAILED);
+        verifyNoMoreInteractions(notifier);
+    }
+
+    private static Asset asset(AssetStatus status) {
+        return new Asset(UUID.randomUUID(), "a.txt", "text/plain", null, null, null, status);
+    }
+}
@@ -1,78 +1,275 @@
 package com.example.assets.infra.publisher;
 
-import com.example.assets.domain.model.Asset;
+import com.example.assets.app.PipelineMetrics;
 import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.AssetUpload;
 import com.example.assets.domain.ports.AssetPublisherPort;
 import com.example.assets.domain.ports.AssetRepositoryPort;
+import com.example.assets.domain.ports.AssetStatusNotifierPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
 
-import java.time.Instant;
-import java.util.List;
-import java.util.Optional;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 class PublisherOrchestratorTest {
 
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final AssetStatusNotifierPort notifier = mock(AssetStatusNotifierPort.class);
+
+    @TempDir
+    Path tempDir;
+
     @Test
-    void publishAsync_shouldSaveProcessingAndPublishedOnSuccess() {
+    void publishAsync_shouldMoveToProcessingThenPublishedOnSuccess() throws Exception {
         AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
         AssetPublisherPort publisher = mock(AssetPublisherPort.class);
-        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher);
+        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher, notifier, registry);
 
         UUID id = UUID.randomUUID();
-        Asset existing = new Asset(id, "a.txt", "text/plain", null, null, Instant.EPOCH, AssetStatus.PENDING);
-        when(repo.findById(id)).thenReturn(Optional.of(existing));
-        when(publisher.publish(any(), any(), any()))
+        when(repo.updateStatus(id, AssetStatus.PENDING, AssetStatus.PROCESSING)).thenReturn(true);
+        when(repo.markPublished(eq(id), any(), anyLong(), any(), any())).thenReturn(true);
+        when(publisher.publish(any(InputStream.class), any(), any()))
+                .thenReturn(new AssetPublisherPort.PublishedInfo("http://url", 5L));
+
+        orchestrator.publishAsync(id, staged("a.part"), "a.txt", "text/plain");
+
+        InOrder order = inOrder(repo, publisher, notifier);
+        order.verify(repo).updateStatus(id, AssetStatus.PENDING, AssetStatus.PROCESSING);
+        order.verify(notifier).statusChanged(id, AssetStatus.PROCESSING);
+        order.verify(publisher).publish(any(InputStream.class), eq("a.txt"), eq("text/plain"));
+        order.verify(repo).markPublished(eq(id), eq("http://url"), eq(5L), isNull(), any());
+        order.verify(notifier).statusChanged(id, AssetStatus.PUBLISHED);
+        verifyNoMoreInteractions(repo, notifier);
+    }
+
+    @Test
+    void publishAsync_shouldTimeEachStage() throws Exception {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        AssetPublisherPort publisher = mock(AssetPublisherPort.class);
+        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher, notifier, registry);
+
+        UUID published = UUID.randomUUID();
+        UUID failed = UUID.randomUUID();
+        when(repo.updateStatus(any(), eq(AssetStatus.PENDING), eq(AssetStatus.PROCESSING))).thenReturn(true);
+        when(repo.markPublished(eq(published), any(), anyLong(), any(), any())).thenReturn(true);
+        when(publisher.publish(any(InputStream.class), eq("a.txt"), any()))
                 .thenReturn(new AssetPublisherPort.PublishedInfo("http://url", 5L));
+        when(publisher.publish(any(InputStream.class), eq("b.txt"), any())).thenThrow(new RuntimeException("boom"));
 
-        orchestrator.publishAsync(id, "data".getBytes(), "a.txt", "text/plain");
+        orchestrator.publishAsync(published, staged("a.part"), "a.txt", "text/plain");
+        orchestrator.publishAsync(failed, staged("b.part"), "b.txt", "text/plain");
 
-        ArgumentCaptor<Asset> saved = ArgumentCaptor.forClass(Asset.class);
-        verify(repo, times(2)).save(saved.capture());
-        List<Asset> states = saved.getAllValues();
-        assertThat(states.get(0).status()).isEqualTo(AssetStatus.PROCESSING);
-        Asset published = states.get(1);
-        assertThat(published.status()).isEqualTo(AssetStatus.PUBLISHED);
-        assertThat(published.url()).isEqualTo("http://url");
-        assertThat(published.size()).isEqualTo(5L);
+        assertThat(stageCount("claim")).isEqualTo(2);
+        assertThat(stageCount("write")).isEqualTo(1);
+        assertThat(stageCount("commit")).isEqualTo(1);
+        assertThat(stageCount("fail")).isEqualTo(1);
     }
 
     @Test
-    void publishAsync_shouldSaveFailedWhenPublisherThrows() {
+    void publishAsync_shouldMoveToFailedWhenPublisherThrows() throws Exception {
         AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
         AssetPublisherPort publisher = mock(AssetPublisherPort.class);
-        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher);
+        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher, notifier, registry);
 
         UUID id = UUID.randomUUID();
-        Asset existing = new Asset(id, "a.txt", "text/plain", null, null, Instant.EPOCH, AssetStatus.PENDING);
-        when(repo.findById(id)).thenReturn(Optional.of(existing));
-        when(publisher.publish(any(), any(), any())).thenThrow(new RuntimeException("boom"));
+        when(repo.updateStatus(id, AssetStatus.PENDING, AssetStatus.PROCESSING)).thenReturn(true);
+        when(repo.updateStatus(id, AssetStatus.PROCESSING, AssetStatus.FAILED)).thenReturn(true);
+        when(publisher.publish(any(InputStream.class), any(), any())).thenThrow(new RuntimeException("boom"));
 
-        orchestrator.publishAsync(id, "data".getBytes(), "a.txt", "text/plain");
+        orchestrator.publishAsync(id, staged("a.part"), "a.txt", "text/plain");
 
-        ArgumentCaptor<Asset> saved = ArgumentCaptor.forClass(Asset.class);
-        verify(repo, times(2)).save(saved.capture());
-        List<Asset> states = saved.getAllValues();
-        assertThat(states.get(0).status()).isEqualTo(AssetStatus.PROCESSING);
-        assertThat(states.get(1).status()).isEqualTo(AssetStatus.FAILED);
+        verify(repo).updateStatus(id, AssetStatus.PROCESSING, AssetStatus.FAILED);
+        verify(repo, never()).markPublished(any(), any(), anyLong(), any(), any());
+        verify(notifier).statusChanged(id, AssetStatus.FAILED);
     }
 
     @Test
-    void publishAsync_shouldDoNothingWhenAssetNotFound() {
+    void publishAsync_shouldDoNothingWhenAssetNotPending() throws Exception {
         AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
         AssetPublisherPort publisher = mock(AssetPublisherPort.class);
-        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher);
+        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher, notifier, registry);
 
         UUID id = UUID.randomUUID();
-        when(repo.findById(id)).thenReturn(Optional.empty());
+        when(repo.updateStatus(id, AssetStatus.PENDING, AssetStatus.PROCESSING)).thenReturn(false);
 
-        orchestrator.publishAsync(id, "data".getBytes(), "a.txt", "text/plain");
+        orchestrator.publishAsync(id, staged("a.part"), "a.txt", "text/plain");
 
+        verify(repo, never()).markPublished(any(), any(), anyLong(), any(), any());
         verify(repo, never()).save(any());
+        verifyNoInteractions(publisher, notifier);
+    }
+
+    @Test
+    void publishAsync_shouldStreamStagedFileAndDeleteIt(@TempDir Path tempDir) throws Exception {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        AssetPublisherPort publisher = mock(AssetPublisherPort.class);
+        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher, notifier, registry);
+
+        UUID id = UUID.randomUUID();
+        when(repo.updateStatus(id, AssetStatus.PENDING, AssetStatus.PROCESSING)).thenReturn(true);
+        when(repo.markPublished(eq(id), any(), anyLong(), any(), any())).thenReturn(true);
+        when(publisher.publish(any(InputStream.class), any(), any())).thenAnswer(inv -> {
+            InputStream in = inv.getArgument(0);
+            return new AssetPublisherPort.PublishedInfo("http://url", in.readAllBytes().length);
+        });
+        Path staged = Files.write(tempDir.resolve("staged.part"), "data".getBytes());
+
+        orchestrator.publishAsync(id, staged, "a.txt", "text/plain");
+
+        verify(repo).markPublished(eq(id), eq("http://url"), eq(4L), isNull(), any());
+        assertThat(staged).doesNotExist();
+    }
+
+    @Test
+    void publishAsync_shouldDeleteStagedFileWhenAssetNotPending(@TempDir Path tempDir) throws Exception {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        AssetPublisherPort publisher = mock(AssetPublisherPort.class);
+        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher, notifier, registry);
+
+        UUID id = UUID.randomUUID();
+        when(repo.updateStatus(id, AssetStatus.PENDING, AssetStatus.PROCESSING)).thenReturn(false);
+        Path staged = Files.write(tempDir.resolve("staged.part"), "data".getBytes());
+
+        orchestrator.publishAsync(id, staged, "a.txt", "text/plain");
+
+        verifyNoInteractions(publisher);
+        assertThat(staged).doesNotExist();
+    }
+
+    @Test
+    void publishAsync_shouldKeepStagedFileWhenClaimFails(@TempDir Path tempDir) throws Exception {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        AssetPublisherPort publisher = mock(AssetPublisherPort.class);
+        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher, notifier, registry);
+
+        UUID id = UUID.randomUUID();
+        when(repo.updateStatus(id, AssetStatus.PENDING, AssetStatus.PROCESSING))
+                .thenThrow(new IllegalStateException("database down"));
+        Path staged = Files.write(tempDir.resolve("staged.part"), "data".getBytes());
+
+        assertThatThrownBy(() -> orchestrator.publishAsync(id, staged, "a.txt", "text/plain"))
+                .hasMessage("database down");
+
         verifyNoInteractions(publisher);
+        // left queued for PublishRecovery
+        assertThat(staged).exists();
+    }
+
+    @Test
+    void publishAsync_shouldKeepStagedFileWhenTheFailureCannotBeStored(@TempDir Path tempDir) throws Exception {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        AssetPublisherPort publisher = mock(AssetPublisherPort.class);
+        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher, notifier, registry);
+
+        UUID id = UUID.randomUUID();
+        when(repo.updateStatus(id, AssetStatus.PENDING, AssetStatus.PROCESSING)).thenReturn(true);
+        when(publisher.publish(any(InputStream.class), any(), any()))
+                .thenThrow(new RuntimeException("storage down"));
+        when(repo.updateStatus(id, AssetStatus.PROCESSING, AssetStatus.FAILED))
+                .thenThrow(new IllegalStateException("database down"));
+        Path staged = Files.write(tempDir.resolve("staged.part"), "data".getBytes());
+
+        assertThatThrownBy(() -> orchestrator.publishAsync(id, staged, "a.txt", "text/plain"))
+                .hasMessage("database down");
+
+        assertThat(staged).exists();
+    }
+
+    @Test
+    void publishAsync_shouldLeaveTheAssetProcessingWhenItCannotBeMarkedPublished(@TempDir Path tempDir)
+            throws Exception {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        AssetPublisherPort publisher = mock(AssetPublisherPort.class);
+        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher, notifier, registry);
+
+        UUID id = UUID.randomUUID();
+        when(repo.updateStatus(id, AssetStatus.PENDING, AssetStatus.PROCESSING)).thenReturn(true);
+        when(publisher.publish(any(InputStream.class), any(), any()))
+                .thenReturn(new AssetPublisherPort.PublishedInfo("http://url", 4L));
+        when(repo.markPublished(eq(id), any(), anyLong(), any(), any()))
+                .thenThrow(new IllegalStateException("database down"));
+        Path staged = Files.write(tempDir.resolve("staged.part"), "data".getBytes());
+
+        orchestrator.publishAsync(id, staged, "a.txt", "text/plain").join();
+
+        verify(repo, never()).updateStatus(id, AssetStatus.PROCESSING, AssetStatus.FAILED);
+        verify(notifier, never()).statusChanged(id, AssetStatus.FAILED);
+        assertThat(staged).exists();
+    }
+
+    @Test
+    void publishAllAsync_shouldGoOnWithTheBatchWhenAClaimFails(@TempDir Path tempDir) throws Exception {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        AssetPublisherPort publisher = mock(AssetPublisherPort.class);
+        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher, notifier, registry);
+
+        UUID unreachable = UUID.randomUUID();
+        UUID fine = UUID.randomUUID();
+        when(repo.updateStatus(unreachable, AssetStatus.PENDING, AssetStatus.PROCESSING))
+                .thenThrow(new IllegalStateException("database down"));
+        when(repo.updateStatus(fine, AssetStatus.PENDING, AssetStatus.PROCESSING)).thenReturn(true);
+        when(repo.markPublished(eq(fine), any(), anyLong(), any(), any())).thenReturn(true);
+        when(publisher.publish(any(InputStream.class), any(), any()))
+                .thenReturn(new AssetPublisherPort.PublishedInfo("http://url", 4L));
+        Path unreachableFile = Files.write(tempDir.resolve("unreachable.part"), "data".getBytes());
+        Path goodFile = Files.write(tempDir.resolve("good.part"), "data".getBytes());
+        Map<UUID, AssetUpload> uploads = new LinkedHashMap<>();
+        uploads.put(unreachable, new AssetUpload("unreachable.txt", "text/plain", unreachableFile));
+        uploads.put(fine, new AssetUpload("good.txt", "text/plain", goodFile));
+
+        orchestrator.publishAllAsync(uploads).join();
+
+        verify(repo).markPublished(eq(fine), eq("http://url"), eq(4L), isNull(), any());
+        assertThat(unreachableFile).exists();
+        assertThat(goodFile).doesNotExist();
+    }
+
+    @Test
+    void publishAllAsync_shouldPublishEachUploadAndIsolateFailures(@TempDir Path tempDir) throws Exception {
+        AssetRepositoryPort repo = mock(AssetRepositoryPort.class);
+        AssetPublisherPort publisher = mock(AssetPublisherPort.class);
+        PublisherOrchestrator orchestrator = new PublisherOrchestrator(repo, publisher, notifier, registry);
+
+        UUID broken = UUID.randomUUID();
+        UUID fine = UUID.randomUUID();
+        when(repo.updateStatus(any(), eq(AssetStatus.PENDING), eq(AssetStatus.PROCESSING))).thenReturn(true);
+        when(repo.updateStatus(broken, AssetStatus.PROCESSING, AssetStatus.FAILED)).thenReturn(true);
+        when(repo.markPublished(eq(fine), any(), anyLong(), any(), any())).thenReturn(true);
+        when(publisher.publish(any(InputStream.class), eq("bad.txt"), any())).thenThrow(new RuntimeException("boom"));
+        when(publisher.publish(any(InputStream.class), eq("good.txt"), any()))
+                .thenReturn(new AssetPublisherPort.PublishedInfo("http://url", 4L));
+        Path badFile = Files.write(tempDir.resolve("bad.part"), "data".getBytes());
+        Path goodFile = Files.write(tempDir.resolve("good.part"), "data".getBytes());
+        Map<UUID, AssetUpload> uploads = new LinkedHashMap<>();
+        uploads.put(broken, new AssetUpload("bad.txt", "text/plain", badFile));
+        uploads.put(fine, new AssetUpload("good.txt", "text/plain", goodFile));
+
+        orchestrator.publishAllAsync(uploads);
+
+        verify(repo).updateStatus(broken, AssetStatus.PROCESSING, AssetStatus.FAILED);
+        verify(repo).markPublished(eq(fine), eq("http://url"), eq(4L), isNull(), any());
+        assertThat(badFile).doesNotExist();
+        assertThat(goodFile).doesNotExist();
+    }
+
+    private Path staged(String name) throws IOException {
+        return Files.write(tempDir.resolve(name), "data".getBytes());
+    }
+
+    private long stageCount(String stage) {
+        return registry.get(PipelineMetrics.STAGE).tag("stage", stage).timer().count();
     }
-}
\ No newline at end of file
+}
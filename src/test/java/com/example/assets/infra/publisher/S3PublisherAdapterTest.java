@@ -0,0 +1,154 @@
+package com.example.assets.infra.publisher;
+
+import com.example.assets.domain.ports.AssetPublisherPort.PublishedInfo;
+import com.sun.net.httpserver.HttpExchange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3PublisherAdapterTest {
+
+    private static final int PART = (int) S3PublisherAdapter.MIN_PART_SIZE;
+
+    private FakeS3Server s3;
+    private SimpleMeterRegistry meterRegistry;
+    private S3PublisherAdapter adapter;
+
+    @BeforeEach
+    void setup() throws IOException {
+        s3 = new FakeS3Server();
+        meterRegistry = new SimpleMeterRegistry();
+        adapter = new S3PublisherAdapter(settings(3), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        adapter.close();
+        s3.close();
+    }
+
+    @Test
+    void publish_shouldPutSmallAssetsInOneRequest() {
+        byte[] data = "hello s3".getBytes();
+
+        PublishedInfo info = adapter.publish(new ByteArrayInputStream(data), "file.txt", "text/plain");
+
+        assertThat(info.size()).isEqualTo(data.length);
+        assertThat(info.url()).startsWith(s3.endpoint() + "/assets/").endsWith(".txt");
+        String key = key(info);
+        assertThat(s3.object("assets", key)).isEqualTo(data);
+        assertThat(s3.contentType("assets", key)).isEqualTo("text/plain");
+        assertThat(s3.requests()).isEqualTo(1);
+    }
+
+    @Test
+    void publish_shouldUploadLargeAssetsInConcurrentParts() {
+        byte[] data = random(PART * 4 + 123);
+        s3.latency(50);
+
+        PublishedInfo info = adapter.publish(new ByteArrayInputStream(data), "movie.mp4", "video/mp4");
+
+        assertThat(info.size()).isEqualTo(data.length);
+        assertThat(s3.object("assets", key(info))).isEqualTo(data);
+        assertThat(s3.contentType("assets", key(info))).isEqualTo("video/mp4");
+        assertThat(s3.pendingUploads()).isZero();
+        // create, five parts, complete
+        assertThat(s3.requests()).isEqualTo(7);
+        assertThat(s3.maxConcurrentRequests()).isBetween(2, 3);
+        assertThat(meterRegistry.get("assets.storage.s3.parts").counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("assets.storage.s3.uploaded").counter().count()).isEqualTo(data.length);
+    }
+
+    @Test
+    void publish_shouldRetryFailedParts() {
+        byte[] data = random(PART * 2 + 1);
+        var failures = new AtomicInteger();
+        s3.failWhen(exchange -> "partNumber=2".equals(partNumber(exchange)) && failures.getAndIncrement() < 2);
+
+        PublishedInfo info = adapter.publish(new ByteArrayInputStream(data), "a.bin", null);
+
+        assertThat(s3.object("assets", key(info))).isEqualTo(data);
+        assertThat(s3.contentType("assets", key(info))).isEqualTo("application/octet-stream");
+        assertThat(meterRegistry.get("assets.storage.s3.retries").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void publish_shouldAbortTheUploadWhenAPartKeepsFailing() {
+        byte[] data = random(PART * 3);
+        s3.failWhen(exchange -> "partNumber=2".equals(partNumber(exchange)));
+
+        assertThatThrownBy(() -> adapter.publish(new ByteArrayInputStream(data), "a.bin", "application/zip"))
+                .isInstanceOf(RuntimeException.class)
+                .rootCause().hasMessageContaining("HTTP 503");
+
+        assertThat(s3.abortedUploads()).isEqualTo(1);
+        assertThat(s3.pendingUploads()).isZero();
+        assertThat(s3.objectCount()).isZero();
+    }
+
+    @Test
+    void locate_shouldPresignADownloadOfThePublishedObject() throws Exception {
+        byte[] data = "hello s3".getBytes();
+        PublishedInfo info = adapter.publish(new ByteArrayInputStream(data), "file.txt", "text/plain");
+
+        URI location = adapter.locate(info.url()).orElseThrow();
+
+        assertThat(location.toString()).startsWith(info.url() + "?X-Amz-Algorithm=AWS4-HMAC-SHA256&")
+                .contains("&X-Amz-Expires=900&").contains("&X-Amz-Signature=");
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(location).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo(data);
+        assertThat(adapter.locate("file:///tmp/file.txt")).isEmpty();
+        assertThat(adapter.locate("https://elsewhere.example.com/assets/file.txt")).isEmpty();
+    }
+
+    @Test
+    void objectUri_shouldAddressTheBucketByPathOrByHost() {
+        var virtualHosted = new S3PublisherAdapter(new S3PublisherAdapter.Settings(
+                URI.create("https://s3.eu-west-1.amazonaws.com"), "eu-west-1", "media", "key", "secret", false,
+                PART, 4, 3, Duration.ofMillis(1), Duration.ofSeconds(5), Duration.ofMinutes(15)), meterRegistry);
+        try {
+            assertThat(virtualHosted.objectUri("a b+c.txt", null))
+                    .hasToString("https://media.s3.eu-west-1.amazonaws.com/a%20b%2Bc.txt");
+            assertThat(adapter.objectUri("x.txt", "uploads"))
+                    .hasToString(s3.endpoint() + "/assets/x.txt?uploads");
+        } finally {
+            virtualHosted.close();
+        }
+    }
+
+    private S3PublisherAdapter.Settings settings(int parallelism) {
+        return new S3PublisherAdapter.Settings(s3.endpoint(), "us-east-1", "assets", "key", "secret", true,
+                PART, parallelism, 3, Duration.ofMillis(1), Duration.ofSeconds(10), Duration.ofMinutes(15));
+    }
+
+    private static String partNumber(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        return query == null ? null : query.split("&")[0];
+    }
+
+    private static String key(PublishedInfo info) {
+        return info.url().substring(info.url().lastIndexOf('/') + 1);
+    }
+
+    private static byte[] random(int size) {
+        byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+}
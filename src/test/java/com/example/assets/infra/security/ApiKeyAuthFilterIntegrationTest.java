@@ -1,9 +1,13 @@
 package com.example.assets.infra.security;
 
+import com.example.assets.domain.model.AssetPage;
 import com.example.assets.domain.usecase.SearchAssetsUseCase;
 import com.example.assets.domain.usecase.UploadAssetUseCase;
 import com.example.assets.domain.usecase.FindAssetUseCase;
+import com.example.assets.domain.usecase.DownloadAssetUseCase;
+import com.example.assets.infra.spool.UploadSpool;
 import com.example.assets.web.AssetController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -18,11 +22,19 @@ import java.time.Instant;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = AssetController.class)
-@Import({ApiKeyAuthFilter.class, SecurityConfig.class})
-@TestPropertySource(properties = "security.api.key=test-key")
+@Import({ApiKeyAuthFilter.class, SecurityConfig.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {
+        "security.api.key=test-key",
+        "security.api.clients[0].name=importer",
+        "security.api.clients[0].key=importer-key",
+        "security.api.clients[0].limits.requests-per-second=0.01",
+        "security.api.clients[0].limits.request-burst=1",
+        "security.api.clients[0].limits.upload-bytes-per-second=1MB"
+})
 class ApiKeyAuthFilterIntegrationTest {
 
     @Autowired
@@ -37,6 +49,12 @@ class ApiKeyAuthFilterIntegrationTest {
     @MockitoBean
     private FindAssetUseCase findUC;
 
+    @MockitoBean
+    private DownloadAssetUseCase downloadUC;
+
+    @MockitoBean
+    private UploadSpool spool;
+
     @Test
     void requestWithoutApiKeyIsUnauthorized() throws Exception {
         Instant start = Instant.EPOCH;
@@ -49,7 +67,8 @@ class ApiKeyAuthFilterIntegrationTest {
 
     @Test
     void requestWithValidApiKeyIsAuthorized() throws Exception {
-        when(searchUC.execute(any(), any(), any(), any(), any())).thenReturn(Collections.emptyList());
+        when(searchUC.execute(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(new AssetPage(Collections.emptyList(), null));
 
         Instant start = Instant.EPOCH;
         Instant end = Instant.EPOCH.plusSeconds(1);
@@ -59,4 +78,26 @@ class ApiKeyAuthFilterIntegrationTest {
                         .header("X-API-KEY", "test-key"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void clientKeyIsLimitedToItsOwnRate() throws Exception {
+        when(searchUC.execute(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(new AssetPage(Collections.emptyList(), null));
+
+        Instant start = Instant.EPOCH;
+        Instant end = Instant.EPOCH.plusSeconds(1);
+        mockMvc.perform(get("/api/mgmt/1/assets/")
+                        .param("uploadDateStart", start.toString())
+                        .param("uploadDateEnd", end.toString())
+                        .header("X-API-KEY", "importer-key"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("RateLimit-Limit", "1"))
+                .andExpect(header().string("RateLimit-Remaining", "0"));
+        mockMvc.perform(get("/api/mgmt/1/assets/")
+                        .param("uploadDateStart", start.toString())
+                        .param("uploadDateEnd", end.toString())
+                        .header("X-API-KEY", "importer-key"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
 }
@@ -1,5 +1,8 @@
 package com.example.assets.infra.security;
 
+import com.example.assets.infra.security.ApiKeyProperties.Client;
+import com.example.assets.infra.security.ApiKeyProperties.Limits;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletResponse;
@@ -8,8 +11,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -62,4 +68,113 @@ class ApiKeyAuthFilterTest {
         verify(chain).doFilter(request, response);
         assertEquals(HttpServletResponse.SC_OK, response.getStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    void keyOverItsRequestRateShouldGetTooManyRequests() throws ServletException, IOException {
+        var meterRegistry = new SimpleMeterRegistry();
+        var limited = limitedFilter(meterRegistry, new Limits(1, 2, null, null));
+        FilterChain chain = mock(FilterChain.class);
+
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse response = perform(limited, get("acme-key"), chain);
+            assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+            assertEquals("2", response.getHeader(ApiKeyAuthFilter.LIMIT_HEADER));
+            assertEquals(String.valueOf(1 - i), response.getHeader(ApiKeyAuthFilter.REMAINING_HEADER));
+        }
+        MockHttpServletResponse rejected = perform(limited, get("acme-key"), chain);
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals("0", rejected.getHeader(ApiKeyAuthFilter.REMAINING_HEADER));
+        assertEquals("2", rejected.getHeader(ApiKeyAuthFilter.RESET_HEADER));
+        verify(chain, times(2)).doFilter(any(), any());
+        // other keys have their own buckets
+        assertEquals(HttpServletResponse.SC_OK, perform(limited, get("secret"), chain).getStatus());
+        assertNull(perform(limited, get("secret"), chain).getHeader(ApiKeyAuthFilter.LIMIT_HEADER));
+        assertEquals(2, requests(meterRegistry, "acme", ApiClient.ALLOWED));
+        assertEquals(1, requests(meterRegistry, "acme", ApiClient.REQUEST_LIMITED));
+        assertEquals(2, requests(meterRegistry, ApiKeyProperties.DEFAULT_CLIENT, ApiClient.ALLOWED));
+
+        now.addAndGet(1_000_000_000L);
+        assertEquals(HttpServletResponse.SC_OK, perform(limited, get("acme-key"), chain).getStatus());
+    }
+
+    @Test
+    void keyOverItsUploadRateShouldWaitForItsBytesToBePaidBack() throws ServletException, IOException {
+        var meterRegistry = new SimpleMeterRegistry();
+        var limited = limitedFilter(meterRegistry, UPLOADS_LIMITED);
+        FilterChain chain = mock(FilterChain.class);
+
+        // larger than the burst, still let through
+        assertEquals(HttpServletResponse.SC_OK, perform(limited, post("acme-key", 5_000), chain).getStatus());
+        MockHttpServletResponse rejected = perform(limited, post("acme-key", 10), chain);
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("5", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Upload rate limit exceeded"));
+        // requests without a body are not held back
+        assertEquals(HttpServletResponse.SC_OK, perform(limited, get("acme-key"), chain).getStatus());
+        assertEquals(1, requests(meterRegistry, "acme", ApiClient.UPLOAD_LIMITED));
+        assertEquals(5_000, meterRegistry.get("assets.api.upload.bytes").tag("client", "acme").counter().count());
+    }
+
+    @Test
+    void chunkedUploadShouldBeChargedForTheBytesRead() throws ServletException, IOException {
+        var meterRegistry = new SimpleMeterRegistry();
+        var limited = limitedFilter(meterRegistry, UPLOADS_LIMITED);
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/api/test");
+        chunked.addHeader("X-API-KEY", "acme-key");
+        chunked.addHeader("Transfer-Encoding", "chunked");
+        chunked.setContent(new byte[3_000]);
+        FilterChain readingChain = (request, response) -> request.getInputStream().readAllBytes();
+
+        assertEquals(HttpServletResponse.SC_OK, perform(limited, chunked, readingChain).getStatus());
+
+        assertEquals(3_000, meterRegistry.get("assets.api.upload.bytes").tag("client", "acme").counter().count());
+        assertEquals(429, perform(limited, post("acme-key", 10), mock(FilterChain.class)).getStatus());
+    }
+
+    @Test
+    void keysShouldBeUnique() {
+        var properties = new ApiKeyProperties("secret", null,
+                List.of(new Client("acme", "secret", null)));
+
+        assertThrows(IllegalStateException.class, () -> new ApiKeyAuthFilter(properties, new SimpleMeterRegistry(),
+                now::get, "/swagger-ui", "/v3/api-docs"));
+    }
+
+    private static final Limits UPLOADS_LIMITED = new Limits(0, 0, DataSize.ofBytes(1_000), DataSize.ofBytes(1_000));
+
+    private final AtomicLong now = new AtomicLong();
+
+    private ApiKeyAuthFilter limitedFilter(SimpleMeterRegistry meterRegistry, Limits limits) {
+        var acme = new Client("acme", "acme-key", limits);
+        return new ApiKeyAuthFilter(new ApiKeyProperties("secret", null, List.of(acme)), meterRegistry,
+                now::get, "/swagger-ui", "/v3/api-docs");
+    }
+
+    private static MockHttpServletResponse perform(ApiKeyAuthFilter filter, MockHttpServletRequest request,
+                                                   FilterChain chain) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String key) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test");
+        request.addHeader("X-API-KEY", key);
+        return request;
+    }
+
+    private static MockHttpServletRequest post(String key, int bytes) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/test");
+        request.addHeader("X-API-KEY", key);
+        request.setContent(new byte[bytes]);
+        return request;
+    }
+
+    private static double requests(SimpleMeterRegistry meterRegistry, String client, String outcome) {
+        return meterRegistry.get("assets.api.requests").tag("client", client).tag("outcome", outcome)
+                .counter().count();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.assets.infra.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final AtomicLong now = new AtomicLong(123 * MS);
+
+    @Test
+    void tryTake_shouldAllowBurstThenRefillAtRate() {
+        var bucket = new TokenBucket(10, 3, now::get);
+
+        assertThat(bucket.tryTake(1)).isZero();
+        assertThat(bucket.tryTake(1)).isZero();
+        assertThat(bucket.tryTake(1)).isZero();
+        assertThat(bucket.available()).isZero();
+        assertThat(bucket.tryTake(1)).isEqualTo(100 * MS);
+
+        now.addAndGet(100 * MS);
+        assertThat(bucket.available()).isEqualTo(1);
+        assertThat(bucket.tryTake(1)).isZero();
+        assertThat(bucket.nanosUntilFull()).isEqualTo(300 * MS);
+
+        // idle time never fills it above its capacity
+        now.addAndGet(10_000 * MS);
+        assertThat(bucket.available()).isEqualTo(3);
+        assertThat(bucket.tryTake(4)).isPositive();
+    }
+
+    @Test
+    void tryTakeOnCredit_shouldLetALargeCostThroughAndMakeTheNextOnesWait() {
+        var bucket = new TokenBucket(1_000, 1_000, now::get);
+
+        assertThat(bucket.tryTakeOnCredit(5_000)).isZero();
+        assertThat(bucket.available()).isZero();
+        // 4000 tokens of debt plus one to spend
+        assertThat(bucket.tryTakeOnCredit(1)).isEqualTo(4_001 * MS);
+
+        now.addAndGet(4_001 * MS);
+        assertThat(bucket.tryTakeOnCredit(10)).isZero();
+    }
+
+    @Test
+    void takeAnyway_shouldChargeWhateverTheBucketHolds() {
+        var bucket = new TokenBucket(100, 100, now::get);
+
+        bucket.takeAnyway(300);
+
+        assertThat(bucket.available()).isZero();
+        assertThat(bucket.tryTake(1)).isEqualTo(2_010 * MS);
+    }
+}
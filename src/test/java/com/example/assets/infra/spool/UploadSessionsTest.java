@@ -0,0 +1,224 @@
+package com.example.assets.infra.spool;
+
+import com.example.assets.infra.spool.UploadSessions.Range;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UploadSessionsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private UploadSessions sessions;
+
+    @BeforeEach
+    void setup() throws IOException {
+        sessions = new UploadSessions(tempDir, 1_000_000, Duration.ofHours(1), Clock.systemUTC());
+    }
+
+    @Test
+    void write_shouldAssembleChunksSentInParallelAndOutOfOrder() throws Exception {
+        byte[] data = new byte[300_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        UUID id = sessions.create("video.mp4", "video/mp4", data.length).id();
+
+        var executor = Executors.newFixedThreadPool(3);
+        try {
+            CompletableFuture.allOf(
+                    CompletableFuture.runAsync(() -> write(id, 200_000, Arrays.copyOfRange(data, 200_000, 300_000)), executor),
+                    CompletableFuture.runAsync(() -> write(id, 0, Arrays.copyOfRange(data, 0, 100_000)), executor),
+                    CompletableFuture.runAsync(() -> write(id, 100_000, Arrays.copyOfRange(data, 100_000, 200_000)), executor)
+            ).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(sessions.find(id).orElseThrow().missing()).isEmpty();
+        var upload = sessions.seal(id);
+        sessions.finish(id);
+        assertThat(upload.filename()).isEqualTo("video.mp4");
+        assertThat(Files.readAllBytes(upload.content())).isEqualTo(data);
+        assertThat(sessions.find(id)).isEmpty();
+    }
+
+    @Test
+    void write_shouldKeepBytesOfAnInterruptedChunk() throws Exception {
+        UUID id = sessions.create("a.bin", "application/octet-stream", 10).id();
+        InputStream broken = new InputStream() {
+            private int sent;
+
+            @Override
+            public int read() throws IOException {
+                if (sent == 4) {
+                    throw new IOException("connection reset");
+                }
+                return sent++;
+            }
+        };
+
+        assertThatThrownBy(() -> sessions.write(id, 2, broken)).isInstanceOf(IOException.class);
+
+        var session = sessions.find(id).orElseThrow();
+        assertThat(session.received()).isEqualTo(4);
+        assertThat(session.missing()).containsExactly(new Range(0, 2), new Range(6, 10));
+    }
+
+    @Test
+    void write_shouldRejectChunksPastTheDeclaredSize() throws Exception {
+        UUID id = sessions.create("a.bin", "application/octet-stream", 4).id();
+
+        assertThatThrownBy(() -> sessions.write(id, 2, new ByteArrayInputStream(new byte[3])))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sessions.write(id, 4, new ByteArrayInputStream(new byte[1])))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sessions.write(UUID.randomUUID(), 0, new ByteArrayInputStream(new byte[1])))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void seal_shouldRequireEveryByteAndBlockFurtherWrites() throws Exception {
+        UUID id = sessions.create("a.bin", "application/octet-stream", 4).id();
+        sessions.write(id, 0, new ByteArrayInputStream(new byte[2]));
+
+        assertThatThrownBy(() -> sessions.seal(id))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing 2 bytes");
+
+        sessions.write(id, 2, new ByteArrayInputStream(new byte[2]));
+        sessions.seal(id);
+
+        assertThatThrownBy(() -> sessions.write(id, 0, new ByteArrayInputStream(new byte[1])))
+                .isInstanceOf(IllegalStateException.class);
+        sessions.unseal(id);
+        sessions.write(id, 0, new ByteArrayInputStream(new byte[1]));
+    }
+
+    @Test
+    void abort_shouldWaitForChunksBeingWritten() throws Exception {
+        UUID id = sessions.create("a.bin", "application/octet-stream", 4).id();
+        var reading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        InputStream slow = new InputStream() {
+            private int sent;
+
+            @Override
+            public int read() throws IOException {
+                if (sent == 1) {
+                    reading.countDown();
+                    await(release);
+                }
+                return sent < 2 ? sent++ : -1;
+            }
+        };
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var write = CompletableFuture.runAsync(() -> write(id, 0, slow), executor);
+            reading.await();
+            var abort = CompletableFuture.supplyAsync(() -> sessions.abort(id), executor);
+
+            Thread.sleep(100);
+            assertThat(abort).isNotDone();
+            release.countDown();
+
+            write.join();
+            assertThat(abort.join()).isTrue();
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(sessions.find(id)).isEmpty();
+        assertThatThrownBy(() -> sessions.write(id, 0, new ByteArrayInputStream(new byte[1])))
+                .isInstanceOf(NoSuchElementException.class);
+        try (var files = Files.list(tempDir)) {
+            assertThat(files.toList()).isEmpty();
+        }
+    }
+
+    @Test
+    void expire_shouldDropIdleSessions() throws Exception {
+        var now = new Instant[]{Instant.EPOCH};
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now[0];
+            }
+        };
+        sessions = new UploadSessions(tempDir, 1_000, Duration.ofMinutes(10), clock);
+        UUID idle = sessions.create("a.bin", "application/octet-stream", 4).id();
+
+        now[0] = now[0].plus(Duration.ofMinutes(8));
+        sessions.create("b.bin", "application/octet-stream", 4);
+        now[0] = now[0].plus(Duration.ofMinutes(3));
+        sessions.expire();
+
+        assertThat(sessions.find(idle)).isEmpty();
+        try (var files = Files.list(tempDir)) {
+            assertThat(files.toList()).hasSize(1);
+        }
+    }
+
+    @Test
+    void create_shouldRejectSizesOutOfBounds() {
+        assertThatThrownBy(() -> sessions.create("a.bin", "application/octet-stream", 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sessions.create("a.bin", "application/octet-stream", 1_000_001))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void write(UUID id, long offset, InputStream chunk) {
+        try {
+            sessions.write(id, offset, chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private void write(UUID id, long offset, byte[] chunk) {
+        try {
+            sessions.write(id, offset, new ByteArrayInputStream(chunk));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.assets.infra.spool;
+
+import com.example.assets.domain.exception.UploadTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UploadSpoolTest {
+
+    @Test
+    void spool_shouldCopyStreamIntoSpoolDirectory(@TempDir Path tempDir) throws Exception {
+        UploadSpool spool = new UploadSpool(tempDir.resolve("spool").toString());
+        byte[] data = new byte[200_000];
+        data[199_999] = 42;
+
+        Path file = spool.spool(new ByteArrayInputStream(data));
+
+        assertThat(file.getParent()).isEqualTo(tempDir.resolve("spool"));
+        assertThat(Files.readAllBytes(file)).isEqualTo(data);
+    }
+
+    @Test
+    void spool_shouldRemovePartialFileWhenStreamFails(@TempDir Path tempDir) throws Exception {
+        UploadSpool spool = new UploadSpool(tempDir.toString());
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+
+        assertThatThrownBy(() -> spool.spool(failing)).isInstanceOf(IOException.class);
+        try (var files = Files.list(tempDir)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void spool_shouldStopReadingOnceTheMaximumSizeIsExceeded(@TempDir Path tempDir) throws Exception {
+        UploadSpool spool = new UploadSpool(tempDir.toString(), 100_000);
+        // a body that never ends
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 0;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return len;
+            }
+        };
+
+        assertThat(spool.spool(new ByteArrayInputStream(new byte[100_000]))).hasSize(100_000);
+        assertThatThrownBy(() -> spool.spool(endless)).isInstanceOf(UploadTooLargeException.class);
+        try (var files = Files.list(tempDir)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(1);
+        }
+    }
+
+    @Test
+    void discard_shouldDeleteSpoolFile(@TempDir Path tempDir) throws Exception {
+        UploadSpool spool = new UploadSpool(tempDir.toString());
+        Path file = spool.spool(new ByteArrayInputStream("data".getBytes()));
+
+        spool.discard(file);
+
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void enqueue_shouldMoveStagedFileIntoQueueUnderAssetId(@TempDir Path tempDir) throws Exception {
+        UploadSpool spool = new UploadSpool(tempDir.toString());
+        Path staged = spool.spool(new ByteArrayInputStream("data".getBytes()));
+        UUID id = UUID.randomUUID();
+
+        Path queued = spool.enqueue(id, staged);
+
+        assertThat(staged).doesNotExist();
+        assertThat(queued).isEqualTo(tempDir.resolve("queue").resolve(id.toString()));
+        assertThat(Files.readAllBytes(queued)).isEqualTo("data".getBytes());
+    }
+
+    @Test
+    void constructor_shouldRecoverQueuedFilesAndDropIncompleteOnes(@TempDir Path tempDir) throws Exception {
+        UploadSpool previous = new UploadSpool(tempDir.toString());
+        UUID id = UUID.randomUUID();
+        Path queued = previous.enqueue(id, "data".getBytes());
+        Path incomplete = previous.spool(new ByteArrayInputStream("partial".getBytes()));
+        Files.writeString(tempDir.resolve("queue").resolve("notes.txt"), "not an upload");
+
+        UploadSpool restarted = new UploadSpool(tempDir.toString());
+
+        assertThat(restarted.recovered()).isEqualTo(Map.of(id, queued));
+        assertThat(incomplete).doesNotExist();
+    }
+}
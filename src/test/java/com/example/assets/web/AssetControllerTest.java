@@ -1,35 +1,63 @@
 package com.example.assets.web;
 
+import com.example.assets.app.PipelineMetrics;
+import com.example.assets.domain.exception.UploadRejectedException;
 import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetContent;
+import com.example.assets.domain.model.AssetCursor;
+import com.example.assets.domain.model.AssetPage;
+import com.example.assets.domain.model.AssetUpload;
 import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.model.ContentCoding;
 import com.example.assets.domain.model.SortDirection;
 import com.example.assets.domain.usecase.SearchAssetsUseCase;
 import com.example.assets.domain.usecase.UploadAssetUseCase;
 import com.example.assets.domain.usecase.FindAssetUseCase;
+import com.example.assets.domain.usecase.DownloadAssetUseCase;
+import com.example.assets.infra.spool.UploadSpool;
 import com.example.assets.web.dto.AssetFileUploadRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.mockito.ArgumentCaptor;
 
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
 import java.time.temporal.ChronoUnit;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AssetController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import({UploadSpool.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = "assets.upload.max-size=64KB")
 class AssetControllerTest {
 
     @Autowired
@@ -38,6 +66,9 @@ class AssetControllerTest {
     @Autowired
     ObjectMapper objectMapper;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @MockitoBean
     UploadAssetUseCase uploadUC;
 
@@ -47,10 +78,14 @@ class AssetControllerTest {
     @MockitoBean
     FindAssetUseCase findUC;
 
+    @MockitoBean
+    DownloadAssetUseCase downloadUC;
+
     @Test
     void upload_shouldReturnAcceptedWithId() throws Exception {
         UUID id = UUID.randomUUID();
-        when(uploadUC.execute(anyString(), anyString(), any())).thenReturn(id);
+        ArgumentCaptor<Path> content = ArgumentCaptor.forClass(Path.class);
+        when(uploadUC.execute(eq("file.txt"), eq("text/plain"), content.capture())).thenReturn(id);
 
         AssetFileUploadRequest req = new AssetFileUploadRequest();
         req.setFilename("file.txt");
@@ -62,12 +97,169 @@ class AssetControllerTest {
                         .content(objectMapper.writeValueAsString(req)))
                 .andExpect(status().isAccepted())
                 .andExpect(jsonPath("$.id").value(id.toString()));
+
+        assertThat(Files.readAllBytes(content.getValue())).isEqualTo("data".getBytes());
+        Files.delete(content.getValue());
+    }
+
+    @Test
+    void upload_shouldReturnBadRequestForMissingFilename() throws Exception {
+        mockMvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"contentType\":\"text/plain\",\"encodedFile\":\"ZGF0YQ==\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("filename must not be blank"));
+
+        verify(uploadUC, never()).execute(anyString(), anyString(), any(Path.class));
+    }
+
+    @Test
+    void upload_shouldReturnBadRequestForInvalidBase64() throws Exception {
+        mockMvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filename\":\"a.txt\",\"contentType\":\"text/plain\",\"encodedFile\":\"not base64!\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void uploadBinary_shouldSpoolBodyAndReturnAccepted() throws Exception {
+        UUID id = UUID.randomUUID();
+        ArgumentCaptor<Path> content = ArgumentCaptor.forClass(Path.class);
+        when(uploadUC.execute(eq("video.mp4"), eq("video/mp4"), content.capture())).thenReturn(id);
+        var decode = meterRegistry.get(PipelineMetrics.STAGE).tag("stage", "decode").timer();
+        long decoded = decode.count();
+
+        mockMvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .param("filename", "video.mp4")
+                        .param("contentType", "video/mp4")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("data".getBytes()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(id.toString()));
+
+        assertThat(Files.readAllBytes(content.getValue())).isEqualTo("data".getBytes());
+        assertThat(decode.count()).isEqualTo(decoded + 1);
+        Files.delete(content.getValue());
+    }
+
+    @Test
+    void uploadBinary_shouldReturnTooManyRequestsOverBudgetAndDropSpooledBody() throws Exception {
+        ArgumentCaptor<Path> content = ArgumentCaptor.forClass(Path.class);
+        when(uploadUC.execute(eq("video.mp4"), eq("video/mp4"), content.capture()))
+                .thenThrow(new UploadRejectedException(UploadRejectedException.Reason.BUDGET_EXHAUSTED,
+                        Duration.ofMillis(2500), "Too many uploads in progress, retry later"));
+
+        mockMvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .param("filename", "video.mp4")
+                        .param("contentType", "video/mp4")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("data".getBytes()))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(jsonPath("$.message").value("Too many uploads in progress, retry later"));
+
+        assertThat(content.getValue()).doesNotExist();
+    }
+
+    @Test
+    void uploadBinary_shouldReturnServiceUnavailableWhenOverloaded() throws Exception {
+        when(uploadUC.execute(eq("video.mp4"), eq("video/mp4"), any(Path.class)))
+                .thenThrow(new UploadRejectedException(UploadRejectedException.Reason.OVERLOADED,
+                        Duration.ofSeconds(5), "Publishing is falling behind, retry later"));
+
+        mockMvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .param("filename", "video.mp4")
+                        .param("contentType", "video/mp4")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("data".getBytes()))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    void uploadBinary_shouldRejectADeclaredLengthOverTheMaximumBeforeReadingTheBody() throws Exception {
+        mockMvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .param("filename", "video.mp4")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header("Content-Length", 64 * 1024 + 1)
+                        .content("data".getBytes()))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.message").value("Upload must not exceed 65536 bytes"));
+
+        verify(uploadUC, never()).execute(anyString(), anyString(), any(Path.class));
+    }
+
+    @Test
+    void uploadMultipart_shouldStopAPartLongerThanTheMaximum() throws Exception {
+        mockMvc.perform(multipart("/api/mgmt/1/assets/actions/upload")
+                        .file(new MockMultipartFile("file", "video.mp4", "video/mp4", new byte[64 * 1024 + 1])))
+                .andExpect(status().isPayloadTooLarge());
+
+        verify(uploadUC, never()).execute(anyString(), anyString(), any(Path.class));
+    }
+
+    @Test
+    void uploadBinary_shouldReturnBadRequestForBlankFilename() throws Exception {
+        mockMvc.perform(post("/api/mgmt/1/assets/actions/upload")
+                        .param("filename", " ")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("data".getBytes()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void uploadMultipart_shouldUsePartMetadataAndReturnAccepted() throws Exception {
+        UUID id = UUID.randomUUID();
+        ArgumentCaptor<Path> content = ArgumentCaptor.forClass(Path.class);
+        when(uploadUC.execute(eq("file.txt"), eq("text/plain"), content.capture())).thenReturn(id);
+
+        mockMvc.perform(multipart("/api/mgmt/1/assets/actions/upload")
+                        .file(new MockMultipartFile("file", "file.txt", "text/plain", "data".getBytes())))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(id.toString()));
+
+        assertThat(Files.readAllBytes(content.getValue())).isEqualTo("data".getBytes());
+        Files.delete(content.getValue());
+    }
+
+    @Test
+    void uploadBatch_shouldSpoolEveryPartAndReturnIdsInOrder() throws Exception {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AssetUpload>> uploads = ArgumentCaptor.forClass(List.class);
+        when(uploadUC.execute(uploads.capture())).thenReturn(ids);
+
+        mockMvc.perform(multipart("/api/mgmt/1/assets/actions/upload-batch")
+                        .file(new MockMultipartFile("files", "a.txt", "text/plain", "first".getBytes()))
+                        .file(new MockMultipartFile("files", "b.png", "image/png", "second".getBytes())))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.ids[0]").value(ids.get(0).toString()))
+                .andExpect(jsonPath("$.ids[1]").value(ids.get(1).toString()));
+
+        List<AssetUpload> received = uploads.getValue();
+        assertThat(received).extracting(AssetUpload::filename).containsExactly("a.txt", "b.png");
+        assertThat(received).extracting(AssetUpload::contentType).containsExactly("text/plain", "image/png");
+        assertThat(Files.readString(received.get(1).content())).isEqualTo("second");
+        for (AssetUpload upload : received) {
+            Files.delete(upload.content());
+        }
+    }
+
+    @Test
+    void uploadBatch_shouldRejectBatchWithUnnamedFile() throws Exception {
+        mockMvc.perform(multipart("/api/mgmt/1/assets/actions/upload-batch")
+                        .file(new MockMultipartFile("files", "a.txt", "text/plain", "first".getBytes()))
+                        .file(new MockMultipartFile("files", "", "text/plain", "second".getBytes())))
+                .andExpect(status().isBadRequest());
+
+        verify(uploadUC, never()).execute(anyList());
     }
 
     @Test
     void search_shouldReturnAssets() throws Exception {
         Asset asset = new Asset(UUID.randomUUID(), "file.txt", "text/plain", "url", 4L, Instant.EPOCH, null);
-        when(searchUC.execute(any(), any(), any(), any(), any())).thenReturn(List.of(asset));
+        when(searchUC.execute(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(new AssetPage(List.of(asset), null));
 
         Instant start = Instant.parse("2020-01-01T00:00:00Z");
         Instant end = Instant.parse("2020-01-31T23:59:59Z");
@@ -77,14 +269,95 @@ class AssetControllerTest {
                         .param("uploadDateEnd", end.toString()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(asset.id().toString()))
-                .andExpect(jsonPath("$[0].filename").value("file.txt"));
+                .andExpect(jsonPath("$[0].filename").value("file.txt"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void search_shouldExposeNextCursorAndAcceptItBack() throws Exception {
+        Instant date = Instant.parse("2020-01-15T10:00:00.123456Z");
+        Asset asset = new Asset(UUID.randomUUID(), "file.txt", "text/plain", "url", 4L, date, AssetStatus.PUBLISHED);
+        AssetCursor next = new AssetCursor(date, asset.id());
+        when(searchUC.execute(any(), any(), any(), any(), any(), isNull(), eq(1)))
+                .thenReturn(new AssetPage(List.of(asset), next));
+
+        String cursor = mockMvc.perform(get("/api/mgmt/1/assets/")
+                        .param("filetype", "text/plain")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string("Link", containsString("cursor=")))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+        assertThat(cursor).isNotBlank();
+
+        when(searchUC.execute(any(), any(), any(), any(), any(), eq(next), eq(1)))
+                .thenReturn(new AssetPage(List.of(), null));
+        mockMvc.perform(get("/api/mgmt/1/assets/")
+                        .param("filetype", "text/plain")
+                        .param("limit", "1")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        verify(searchUC).execute(null, null, null, "text/plain", SortDirection.DESC, next, 1);
+    }
+
+    @Test
+    void searchStream_shouldWriteOneJsonObjectPerLine() throws Exception {
+        Asset first = new Asset(UUID.randomUUID(), "a.txt", "text/plain", "url1", 1L, Instant.EPOCH, AssetStatus.PUBLISHED);
+        Asset second = new Asset(UUID.randomUUID(), "b.txt", "text/plain", null, null, null, AssetStatus.PENDING);
+        doAnswer(inv -> {
+            java.util.function.Consumer<Asset> consumer = inv.getArgument(5);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(searchUC).execute(any(), any(), any(), eq("text/plain"), eq(SortDirection.ASC), any());
+
+        String body = mockMvc.perform(get("/api/mgmt/1/assets/")
+                        .accept("application/x-ndjson")
+                        .param("filetype", "text/plain")
+                        .param("sortDirection", "ASC"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(body).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asText()).isEqualTo(first.id().toString());
+        assertThat(objectMapper.readTree(lines[1]).get("status").asText()).isEqualTo("PENDING");
+    }
+
+    @Test
+    void searchStream_shouldValidateFiltersBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/api/mgmt/1/assets/")
+                        .accept("application/x-ndjson")
+                        .param("filename", ""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void search_shouldReturnBadRequestForInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/mgmt/1/assets/")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void search_shouldReturnBadRequestForOutOfRangeLimit() throws Exception {
+        mockMvc.perform(get("/api/mgmt/1/assets/")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/mgmt/1/assets/")
+                        .param("limit", "1001"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     void search_shouldTruncateAndForwardQueryParameters() throws Exception {
         Instant start = Instant.parse("2020-01-01T00:00:00.123456Z");
         Instant end = Instant.parse("2020-01-31T23:59:59.987654Z");
-        when(searchUC.execute(any(), any(), any(), any(), any())).thenReturn(List.of());
+        when(searchUC.execute(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(new AssetPage(List.of(), null));
 
         mockMvc.perform(get("/api/mgmt/1/assets/")
                         .param("uploadDateStart", start.toString())
@@ -99,13 +372,16 @@ class AssetControllerTest {
                 end.truncatedTo(ChronoUnit.MILLIS),
                 "file.*",
                 "text/plain",
-                SortDirection.DESC);
+                SortDirection.DESC,
+                null,
+                100);
     }
 
     @Test
     void search_shouldAllowMissingEndDate() throws Exception {
         Instant start = Instant.parse("2020-01-01T00:00:00.123456Z");
-        when(searchUC.execute(any(), any(), any(), any(), any())).thenReturn(List.of());
+        when(searchUC.execute(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(new AssetPage(List.of(), null));
 
         mockMvc.perform(get("/api/mgmt/1/assets/")
                         .param("uploadDateStart", start.toString()))
@@ -116,13 +392,16 @@ class AssetControllerTest {
                 null,
                 null,
                 null,
-                SortDirection.DESC);
+                SortDirection.DESC,
+                null,
+                100);
     }
 
     @Test
     void search_shouldAllowMissingStartDate() throws Exception {
         Instant end = Instant.parse("2020-01-31T23:59:59.987654Z");
-        when(searchUC.execute(any(), any(), any(), any(), any())).thenReturn(List.of());
+        when(searchUC.execute(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(new AssetPage(List.of(), null));
 
         mockMvc.perform(get("/api/mgmt/1/assets/")
                         .param("uploadDateEnd", end.toString()))
@@ -133,7 +412,9 @@ class AssetControllerTest {
                 end.truncatedTo(ChronoUnit.MILLIS),
                 null,
                 null,
-                SortDirection.DESC);
+                SortDirection.DESC,
+                null,
+                100);
     }
 
     @Test
@@ -202,4 +483,225 @@ class AssetControllerTest {
         mockMvc.perform(get("/api/mgmt/1/assets/" + id))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getById_shouldBeCacheableForGoodOnceTerminal() throws Exception {
+        UUID id = UUID.randomUUID();
+        Instant uploaded = Instant.parse("2024-05-01T10:00:00Z");
+        Asset asset = new Asset(id, "file.txt", "text/plain", "url", 4L, uploaded, AssetStatus.PUBLISHED);
+        when(findUC.execute(id)).thenReturn(java.util.Optional.of(asset));
+
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"published\""))
+                .andExpect(header().string("Last-Modified", "Wed, 01 May 2024 10:00:00 GMT"))
+                .andExpect(header().string("Cache-Control", containsString("immutable")));
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id).header("If-None-Match", "\"published\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id).header("If-Modified-Since", "Wed, 01 May 2024 10:00:00 GMT"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getById_shouldRequireRevalidationWhileInProgress() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(findUC.execute(id)).thenReturn(java.util.Optional.of(
+                new Asset(id, "file.txt", "text/plain", null, null, null, AssetStatus.PENDING)));
+
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id).header("If-None-Match", "\"pending\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Cache-Control", containsString("no-cache")));
+
+        when(findUC.execute(id)).thenReturn(java.util.Optional.of(
+                new Asset(id, "file.txt", "text/plain", null, null, null, AssetStatus.PROCESSING)));
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id).header("If-None-Match", "\"pending\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"processing\""))
+                .andExpect(jsonPath("$.status").value("PROCESSING"));
+    }
+
+    @Test
+    void search_shouldAnswerNotModifiedWithoutSearching() throws Exception {
+        when(searchUC.version()).thenReturn(java.util.Optional.of("2a-1"));
+        when(searchUC.execute(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(new AssetPage(List.of(), null));
+
+        mockMvc.perform(get("/api/mgmt/1/assets/").param("filetype", "image/png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2a-1\""))
+                .andExpect(header().string("Cache-Control", containsString("no-cache")));
+        mockMvc.perform(get("/api/mgmt/1/assets/").param("filetype", "image/png")
+                        .header("If-None-Match", "\"2a-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(searchUC, times(1)).execute(any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getContent_shouldReturnWholeFile(@TempDir Path tempDir) throws Exception {
+        UUID id = givenContent(tempDir, "0123456789");
+
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id + "/content"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().longValue("Content-Length", 10))
+                .andExpect(content().contentType("text/plain"))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void getContent_shouldReturnSingleRange(@TempDir Path tempDir) throws Exception {
+        UUID id = givenContent(tempDir, "0123456789");
+
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id + "/content")
+                        .header("Range", "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 2-5/10"))
+                .andExpect(header().longValue("Content-Length", 4))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void getContent_shouldReturnMultipleRangesAsMultipart(@TempDir Path tempDir) throws Exception {
+        UUID id = givenContent(tempDir, "0123456789");
+
+        var result = mockMvc.perform(get("/api/mgmt/1/assets/" + id + "/content")
+                        .header("Range", "bytes=0-1,-2"))
+                .andExpect(status().isPartialContent())
+                .andReturn();
+
+        var response = result.getResponse();
+        assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+        String body = response.getContentAsString();
+        assertThat(body).contains("Content-Range: bytes 0-1/10\r\n\r\n01\r\n");
+        assertThat(body).contains("Content-Range: bytes 8-9/10\r\n\r\n89\r\n");
+        assertThat((long) response.getContentAsByteArray().length)
+                .isEqualTo(Long.parseLong(response.getHeader("Content-Length")));
+    }
+
+    @Test
+    void getContent_shouldDelegateToContainerSendfileWhenSupported(@TempDir Path tempDir) throws Exception {
+        UUID id = givenContent(tempDir, "0123456789");
+
+        var result = mockMvc.perform(get("/api/mgmt/1/assets/" + id + "/content")
+                        .requestAttr(ContentRangeWriter.SENDFILE_SUPPORTED, Boolean.TRUE)
+                        .header("Range", "bytes=4-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 4-9/10"))
+                .andReturn();
+
+        var request = result.getRequest();
+        assertThat(request.getAttribute(ContentRangeWriter.SENDFILE_FILENAME))
+                .isEqualTo(tempDir.resolve("content.txt").toAbsolutePath().toString());
+        assertThat(request.getAttribute(ContentRangeWriter.SENDFILE_START)).isEqualTo(4L);
+        assertThat(request.getAttribute(ContentRangeWriter.SENDFILE_END)).isEqualTo(10L);
+        assertThat(result.getResponse().getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void getContent_shouldReturnRangeNotSatisfiable(@TempDir Path tempDir) throws Exception {
+        UUID id = givenContent(tempDir, "0123456789");
+
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id + "/content")
+                        .header("Range", "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */10"));
+    }
+
+    @Test
+    void getContent_shouldIgnoreMalformedRange(@TempDir Path tempDir) throws Exception {
+        UUID id = givenContent(tempDir, "0123456789");
+
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id + "/content")
+                        .header("Range", "bytes=abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Range"))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void getContent_shouldRedirectToTheStorageWhenNotStoredLocally() throws Exception {
+        UUID id = UUID.randomUUID();
+        Asset asset = new Asset(id, "a.txt", "text/plain", "https://assets.s3.amazonaws.com/a.txt",
+                4L, Instant.EPOCH, AssetStatus.PUBLISHED);
+        URI location = URI.create("https://assets.s3.amazonaws.com/a.txt?X-Amz-Signature=abc");
+        when(downloadUC.execute(id)).thenReturn(java.util.Optional.of(new AssetContent(asset, location)));
+
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id + "/content")
+                        .header("Range", "bytes=0-1"))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", location.toString()))
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getContent_shouldReturnNotFoundWhenNotAvailable() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(downloadUC.execute(id)).thenReturn(java.util.Optional.empty());
+
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id + "/content"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getContent_shouldSendCompressedFileAsIsWhenClientAcceptsEncoding(@TempDir Path tempDir) throws Exception {
+        UUID id = givenGzipContent(tempDir, "{\"a\":1}");
+        long stored = Files.size(tempDir.resolve("content.json.gz"));
+
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id + "/content")
+                        .header("Accept-Encoding", "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(header().longValue("Content-Length", stored))
+                .andExpect(content().bytes(Files.readAllBytes(tempDir.resolve("content.json.gz"))));
+    }
+
+    @Test
+    void getContent_shouldDecompressForClientsNotAcceptingEncoding(@TempDir Path tempDir) throws Exception {
+        UUID id = givenGzipContent(tempDir, "{\"a\":1}");
+
+        mockMvc.perform(get("/api/mgmt/1/assets/" + id + "/content")
+                        .header("Accept-Encoding", "gzip;q=0, *")
+                        .header("Range", "bytes=0-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("Accept-Ranges", "none"))
+                .andExpect(header().longValue("Content-Length", 7))
+                .andExpect(content().string("{\"a\":1}"));
+    }
+
+    @Test
+    void acceptsEncoding_shouldHonourQualityAndWildcard() {
+        assertThat(ContentRangeWriter.accepts("gzip, deflate, br", "gzip")).isTrue();
+        assertThat(ContentRangeWriter.accepts("x-gzip", "gzip")).isTrue();
+        assertThat(ContentRangeWriter.accepts("*;q=0.5", "deflate")).isTrue();
+        assertThat(ContentRangeWriter.accepts("*, gzip;q=0", "gzip")).isFalse();
+        assertThat(ContentRangeWriter.accepts("identity", "gzip")).isFalse();
+        assertThat(ContentRangeWriter.accepts(null, "gzip")).isFalse();
+    }
+
+    private UUID givenGzipContent(Path dir, String data) throws Exception {
+        UUID id = UUID.randomUUID();
+        Path file = dir.resolve("content.json.gz");
+        try (OutputStream out = ContentCoding.GZIP.encode(Files.newOutputStream(file))) {
+            out.write(data.getBytes());
+        }
+        Asset asset = new Asset(id, "content.json", "application/json", file.toUri().toString(),
+                (long) data.length(), Instant.EPOCH, AssetStatus.PUBLISHED, "gzip");
+        when(downloadUC.execute(id)).thenReturn(java.util.Optional.of(new AssetContent(asset, file)));
+        return id;
+    }
+
+    private UUID givenContent(Path dir, String data) throws Exception {
+        UUID id = UUID.randomUUID();
+        Path file = Files.writeString(dir.resolve("content.txt"), data);
+        Asset asset = new Asset(id, "content.txt", "text/plain", file.toUri().toString(),
+                (long) data.length(), Instant.EPOCH, AssetStatus.PUBLISHED);
+        when(downloadUC.execute(id)).thenReturn(java.util.Optional.of(new AssetContent(asset, file)));
+        return id;
+    }
+}
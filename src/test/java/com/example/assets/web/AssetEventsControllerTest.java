@@ -0,0 +1,187 @@
+package com.example.assets.web;
+
+import com.example.assets.domain.model.Asset;
+import com.example.assets.domain.model.AssetStatus;
+import com.example.assets.domain.usecase.FindAssetUseCase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AssetEventsController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import({AssetStatusBroadcaster.class, SimpleMeterRegistry.class})
+class AssetEventsControllerTest {
+
+    private static final String EVENTS = "/api/mgmt/1/assets/events";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    AssetStatusBroadcaster broadcaster;
+
+    @MockitoBean
+    FindAssetUseCase findUC;
+
+    // what the database holds
+    final Map<UUID, Asset> stored = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void readFromStored() {
+        when(findUC.executeCurrent(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return ids.stream().filter(stored::containsKey).map(stored::get).toList();
+        });
+    }
+
+    @Test
+    void follow_shouldSendCurrentStateThenChangesAndEndWhenAllAreDone() throws Exception {
+        UUID id = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        stored.put(id, asset(id, AssetStatus.PENDING));
+
+        MvcResult result = mockMvc.perform(get(EVENTS).param("ids", id + "," + missing)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        await().atMost(Duration.ofSeconds(5)).until(() -> content(result).contains("PENDING"));
+        assertThat(content(result)).contains("event:not-found\ndata:" + missing);
+
+        // no change, no event
+        broadcaster.statusChanged(id, AssetStatus.PENDING);
+        stored.put(id, asset(id, AssetStatus.PROCESSING));
+        broadcaster.statusChanged(id, AssetStatus.PROCESSING);
+        await().atMost(Duration.ofSeconds(5)).until(() -> content(result).contains("PROCESSING"));
+        stored.put(id, asset(id, AssetStatus.PUBLISHED));
+        broadcaster.statusChanged(id, AssetStatus.PUBLISHED);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        String events = content(result);
+        assertThat(events.split("event:asset", -1)).hasSize(4);
+        assertThat(events.indexOf("PENDING")).isLessThan(events.indexOf("PROCESSING"));
+        assertThat(events.indexOf("PROCESSING")).isLessThan(events.indexOf("PUBLISHED"));
+        assertThat(events).contains("\"url\":\"file:///a.txt\"");
+        await().atMost(Duration.ofSeconds(5)).until(() -> broadcaster.subscribers() == 0);
+    }
+
+    @Test
+    void follow_shouldReadPastTheCacheWhenNotified() throws Exception {
+        UUID id = UUID.randomUUID();
+        stored.put(id, asset(id, AssetStatus.PROCESSING));
+
+        MvcResult result = mockMvc.perform(get(EVENTS).param("ids", id.toString())
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        await().atMost(Duration.ofSeconds(5)).until(() -> content(result).contains("PROCESSING"));
+        stored.put(id, asset(id, AssetStatus.PUBLISHED));
+        broadcaster.statusChanged(id, AssetStatus.PUBLISHED);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        assertThat(content(result)).contains("PUBLISHED").contains("\"url\":\"file:///a.txt\"");
+        await().atMost(Duration.ofSeconds(5)).until(() -> broadcaster.subscribers() == 0);
+    }
+
+    @Test
+    void follow_shouldReadTheChangesThatArriveDuringAReadInOneQuery() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        List.of(first, second, third).forEach(id -> stored.put(id, asset(id, AssetStatus.PROCESSING)));
+        MvcResult result = mockMvc.perform(get(EVENTS).param("ids", first + "," + second + "," + third)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        await().atMost(Duration.ofSeconds(5)).until(() -> content(result).split("PROCESSING", -1).length == 4);
+
+        List<List<UUID>> reads = new CopyOnWriteArrayList<>();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<UUID> ids = List.copyOf(invocation.<Collection<UUID>>getArgument(0));
+            reads.add(ids);
+            reading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return ids.stream().map(id -> asset(id, AssetStatus.PUBLISHED)).toList();
+        }).when(findUC).executeCurrent(anyCollection());
+        broadcaster.statusChanged(first, AssetStatus.PUBLISHED);
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+        broadcaster.statusChanged(second, AssetStatus.PUBLISHED);
+        broadcaster.statusChanged(third, AssetStatus.PUBLISHED);
+        release.countDown();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        assertThat(reads).hasSize(2);
+        assertThat(reads.get(0)).containsExactly(first);
+        assertThat(reads.get(1)).containsExactlyInAnyOrder(second, third);
+    }
+
+    @Test
+    void follow_shouldEndRightAwayWhenEveryAssetIsAlreadyDone() throws Exception {
+        UUID id = UUID.randomUUID();
+        stored.put(id, asset(id, AssetStatus.FAILED));
+
+        MvcResult result = mockMvc.perform(get(EVENTS).param("ids", id.toString())
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        assertThat(content(result)).contains("event:asset").contains("FAILED");
+    }
+
+    @Test
+    void follow_shouldRejectTooManyIds() throws Exception {
+        StringBuilder ids = new StringBuilder(UUID.randomUUID().toString());
+        for (int i = 0; i < 100; i++) {
+            ids.append(',').append(UUID.randomUUID());
+        }
+
+        mockMvc.perform(get(EVENTS).param("ids", ids.toString()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get(EVENTS).param("ids", "not-a-uuid"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String content(MvcResult result) throws Exception {
+        return result.getResponse().getContentAsString();
+    }
+
+    private static Asset asset(UUID id, AssetStatus status) {
+        return status == AssetStatus.PUBLISHED
+                ? new Asset(id, "a.txt", "text/plain", "file:///a.txt", 4L, Instant.now(), status)
+                : new Asset(id, "a.txt", "text/plain", null, null, null, status);
+    }
+}
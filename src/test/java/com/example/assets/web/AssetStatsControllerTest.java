@@ -0,0 +1,70 @@
+package com.example.assets.web;
+
+import com.example.assets.domain.model.PublishLatencyReport;
+import com.example.assets.domain.model.PublishLatencyReport.Percentiles;
+import com.example.assets.domain.model.PublishLatencyReport.Phase;
+import com.example.assets.domain.usecase.PublishLatencyUseCase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AssetStatsController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class AssetStatsControllerTest {
+
+    private static final String PUBLISH_LATENCY = "/api/mgmt/1/assets/stats/publish-latency";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockitoBean
+    PublishLatencyUseCase publishLatencyUC;
+
+    @Test
+    void publishLatency_shouldReturnPercentilesByGroupAndPhase() throws Exception {
+        Map<Phase, Percentiles> phases = new EnumMap<>(Phase.class);
+        phases.put(Phase.QUEUED, new Percentiles(4, 40, 90));
+        phases.put(Phase.TOTAL, new Percentiles(120, 800, 1500));
+        Instant until = Instant.parse("2025-01-01T12:00:00Z");
+        when(publishLatencyUC.execute(Duration.ofMinutes(15))).thenReturn(new PublishLatencyReport(
+                until.minus(Duration.ofMinutes(15)), until, 42, false,
+                List.of(new PublishLatencyReport.Group("image/png", "64KB-1MB", 42, phases))));
+
+        mockMvc.perform(get(PUBLISH_LATENCY).param("window", "15m"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.samples").value(42))
+                .andExpect(jsonPath("$.truncated").value(false))
+                .andExpect(jsonPath("$.groups[0].contentType").value("image/png"))
+                .andExpect(jsonPath("$.groups[0].sizeBucket").value("64KB-1MB"))
+                .andExpect(jsonPath("$.groups[0].phases.queued.p95").value(40))
+                .andExpect(jsonPath("$.groups[0].phases.total.p99").value(1500));
+    }
+
+    @Test
+    void publishLatency_shouldRejectInvalidWindows() throws Exception {
+        mockMvc.perform(get(PUBLISH_LATENCY).param("window", "soon"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get(PUBLISH_LATENCY).param("window", "0s"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get(PUBLISH_LATENCY).param("window", "90d"))
+                .andExpect(status().isBadRequest());
+
+        verify(publishLatencyUC, never()).execute(any());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.assets.web;
+
+import com.example.assets.infra.spool.UploadSpool;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JsonUploadReaderTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private JsonUploadReader reader;
+
+    @BeforeEach
+    void setup() throws Exception {
+        reader = new JsonUploadReader(new JsonFactory(), new UploadSpool(spoolDir.toString()));
+    }
+
+    @Test
+    void read_shouldDecodeLargeContentIntoSpool() throws Exception {
+        byte[] data = new byte[1_000_003];
+        new Random(7).nextBytes(data);
+        String json = "{\"filename\":\"a.bin\",\"contentType\":\"application/octet-stream\",\"encodedFile\":\""
+                + Base64.getEncoder().encodeToString(data) + "\"}";
+
+        JsonUploadReader.JsonUpload upload = reader.read(stream(json));
+
+        assertThat(upload.filename()).isEqualTo("a.bin");
+        assertThat(upload.contentType()).isEqualTo("application/octet-stream");
+        assertThat(Files.readAllBytes(upload.content())).isEqualTo(data);
+    }
+
+    @Test
+    void read_shouldAcceptFieldsInAnyOrderAndIgnoreUnknownOnes() throws Exception {
+        String json = "{\"encodedFile\":\"ZGF0YQ\",\"extra\":{\"nested\":[1,2]},"
+                + "\"contentType\":\"text/plain\",\"filename\":\"a.txt\"}";
+
+        JsonUploadReader.JsonUpload upload = reader.read(stream(json));
+
+        assertThat(upload.filename()).isEqualTo("a.txt");
+        assertThat(Files.readString(upload.content())).isEqualTo("data");
+    }
+
+    @Test
+    void read_shouldDiscardSpoolWhenMetadataIsMissing() throws Exception {
+        String json = "{\"encodedFile\":\"ZGF0YQ==\",\"contentType\":\"text/plain\"}";
+
+        assertThatThrownBy(() -> reader.read(stream(json)))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("filename must not be blank");
+        try (var files = Files.list(spoolDir)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void read_shouldRejectAndDiscardEmptyContent() throws Exception {
+        for (String encoded : new String[]{"", "   "}) {
+            String json = "{\"filename\":\"a.txt\",\"contentType\":\"text/plain\",\"encodedFile\":\"" + encoded + "\"}";
+
+            assertThatThrownBy(() -> reader.read(stream(json)))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasMessageContaining("encodedFile must not be blank");
+        }
+        try (var files = Files.list(spoolDir)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void read_shouldRejectMalformedJson() {
+        assertThatThrownBy(() -> reader.read(stream("{\"filename\":")))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Malformed upload request");
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
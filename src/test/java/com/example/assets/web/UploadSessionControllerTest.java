@@ -0,0 +1,142 @@
+package com.example.assets.web;
+
+import com.example.assets.domain.exception.UploadRejectedException;
+import com.example.assets.domain.usecase.UploadAssetUseCase;
+import com.example.assets.infra.spool.UploadSessions;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UploadSessionController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(UploadSessions.class)
+class UploadSessionControllerTest {
+
+    private static final String SESSIONS = "/api/mgmt/1/assets/upload-sessions";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @MockitoBean
+    UploadAssetUseCase uploadUC;
+
+    @Test
+    void session_shouldAcceptChunksInAnyOrderAndPublishOnCommit() throws Exception {
+        UUID sessionId = open(10);
+
+        mockMvc.perform(put(SESSIONS + "/" + sessionId).param("offset", "6")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("ghij".getBytes()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(4))
+                .andExpect(jsonPath("$.missing[0].start").value(0))
+                .andExpect(jsonPath("$.missing[0].end").value(6));
+        mockMvc.perform(put(SESSIONS + "/" + sessionId).param("offset", "0")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("abcdef".getBytes()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.missing").isEmpty());
+
+        UUID assetId = UUID.randomUUID();
+        ArgumentCaptor<Path> content = ArgumentCaptor.forClass(Path.class);
+        when(uploadUC.execute(eq("report.csv"), eq("text/csv"), content.capture())).thenAnswer(inv -> {
+            assertThat(Files.readAllBytes(inv.getArgument(2, Path.class))).isEqualTo("abcdefghij".getBytes());
+            Files.delete(inv.getArgument(2, Path.class));
+            return assetId;
+        });
+
+        mockMvc.perform(post(SESSIONS + "/" + sessionId + "/commit"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(assetId.toString()));
+
+        mockMvc.perform(get(SESSIONS + "/" + sessionId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void commit_shouldReturnConflictWhileBytesAreMissing() throws Exception {
+        UUID sessionId = open(10);
+
+        mockMvc.perform(post(SESSIONS + "/" + sessionId + "/commit"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value(endsWith("missing 10 bytes")));
+
+        verify(uploadUC, never()).execute(any(), any(), any(Path.class));
+    }
+
+    @Test
+    void commit_shouldKeepSessionWhenUploadIsRejected() throws Exception {
+        UUID sessionId = open(3);
+        mockMvc.perform(put(SESSIONS + "/" + sessionId).param("offset", "0")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("abc".getBytes()))
+                .andExpect(status().isOk());
+        when(uploadUC.execute(eq("report.csv"), eq("text/csv"), any(Path.class)))
+                .thenThrow(new UploadRejectedException(UploadRejectedException.Reason.BUDGET_EXHAUSTED,
+                        Duration.ofSeconds(1), "Too many uploads in progress, retry later"));
+
+        mockMvc.perform(post(SESSIONS + "/" + sessionId + "/commit"))
+                .andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(get(SESSIONS + "/" + sessionId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(3));
+        mockMvc.perform(delete(SESSIONS + "/" + sessionId))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void create_shouldValidateRequest() throws Exception {
+        mockMvc.perform(post(SESSIONS)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filename\":\"a.txt\",\"contentType\":\"text/plain\",\"size\":0}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void uploadChunk_shouldReturnNotFoundForUnknownSession() throws Exception {
+        mockMvc.perform(put(SESSIONS + "/" + UUID.randomUUID()).param("offset", "0")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("abc".getBytes()))
+                .andExpect(status().isNotFound());
+    }
+
+    private UUID open(long size) throws Exception {
+        var response = mockMvc.perform(post(SESSIONS)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filename\":\"report.csv\",\"contentType\":\"text/csv\",\"size\":" + size + "}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.size").value(size))
+                .andReturn().getResponse();
+        JsonNode session = objectMapper.readTree(response.getContentAsString());
+        UUID id = UUID.fromString(session.get("id").asText());
+        assertThat(response.getHeader("Location")).endsWith(SESSIONS + "/" + id);
+        return id;
+    }
+}